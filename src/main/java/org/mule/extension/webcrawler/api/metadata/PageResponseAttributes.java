@@ -17,12 +17,14 @@ public class PageResponseAttributes extends ResponseAttributes {
 
   private final String url;
   private final String title;
+  private final PageTimings timings;
 
   public PageResponseAttributes(HashMap<String, Object> requestAttributes) {
 
     super(requestAttributes);
     this.url = requestAttributes.containsKey("url") ? (String) requestAttributes.remove("url") : null;
     this.title = requestAttributes.containsKey("title") ? (String) requestAttributes.remove("title") : null;
+    this.timings = requestAttributes.containsKey("timings") ? (PageTimings) requestAttributes.remove("timings") : null;
   }
 
   public String getTitle() {
@@ -32,4 +34,11 @@ public class PageResponseAttributes extends ResponseAttributes {
   public String getUrl() {
     return url;
   }
+
+  /**
+   * Gets the time spent on each step of getting the page, {@code null} for results not about a single page.
+   */
+  public PageTimings getTimings() {
+    return timings;
+  }
 }
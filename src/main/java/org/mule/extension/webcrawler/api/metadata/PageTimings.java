@@ -0,0 +1,143 @@
+package org.mule.extension.webcrawler.api.metadata;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.io.Serializable;
+
+/**
+ * Time spent on each step of getting a page, in milliseconds, and the size of the page source and of the output.
+ * Steps not applying to a page, such as rendering on HTTP connections, are 0.
+ * <p>
+ * Page sources compressed by the server are decompressed as they are parsed: {@code bytesIn} is the size of the page
+ * source and {@code bytesReceived} the size of what was received, the same when not compressed.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class PageTimings implements Serializable {
+
+  private long queueWaitNanos;
+  private long fetchNanos;
+  private long renderNanos;
+  private long parseNanos;
+  private long shadowDomNanos;
+  private long convertNanos;
+  private long bytesIn;
+  private long bytesReceived;
+  private long bytesOut;
+
+  /**
+   * Gets the time the page waited to be fetched once found, on crawls.
+   */
+  public double getQueueWaitMillis() {
+    return toMillis(queueWaitNanos);
+  }
+
+  /**
+   * Gets the time spent retrieving the page source, rendering excluded.
+   */
+  public double getFetchMillis() {
+    return toMillis(Math.max(0, fetchNanos - renderNanos));
+  }
+
+  /**
+   * Gets the time spent waiting for the page to render in the browser, on WebDriver connections.
+   */
+  public double getRenderMillis() {
+    return toMillis(renderNanos);
+  }
+
+  public double getParseMillis() {
+    return toMillis(parseNanos);
+  }
+
+  /**
+   * Gets the time spent injecting Shadow DOM content into the document, on WebDriver connections.
+   */
+  public double getShadowDomMillis() {
+    return toMillis(shadowDomNanos);
+  }
+
+  /**
+   * Gets the time spent getting the content of the page in the output format.
+   */
+  public double getConvertMillis() {
+    return toMillis(convertNanos);
+  }
+
+  public double getTotalMillis() {
+    return toMillis(queueWaitNanos + Math.max(fetchNanos, renderNanos) + parseNanos + shadowDomNanos + convertNanos);
+  }
+
+  public long getBytesIn() {
+    return bytesIn;
+  }
+
+  public long getBytesReceived() {
+    return bytesReceived;
+  }
+
+  public long getBytesOut() {
+    return bytesOut;
+  }
+
+  public void addQueueWaitNanos(long nanos) {
+    queueWaitNanos += nanos;
+  }
+
+  /**
+   * Adds the time spent retrieving the page source, including the rendering recorded by
+   * {@link #addRenderNanos(long)}.
+   */
+  public void addFetchNanos(long nanos) {
+    fetchNanos += nanos;
+  }
+
+  public void addRenderNanos(long nanos) {
+    renderNanos += nanos;
+  }
+
+  public void addParseNanos(long nanos) {
+    parseNanos += nanos;
+  }
+
+  public void addShadowDomNanos(long nanos) {
+    shadowDomNanos += nanos;
+  }
+
+  public void addConvertNanos(long nanos) {
+    convertNanos += nanos;
+  }
+
+  public void setBytesIn(long bytesIn) {
+    this.bytesIn = bytesIn;
+  }
+
+  public void setBytesReceived(long bytesReceived) {
+    this.bytesReceived = bytesReceived;
+  }
+
+  public void setBytesOut(long bytesOut) {
+    this.bytesOut = bytesOut;
+  }
+
+  private static double toMillis(long nanos) {
+    return Math.round(nanos / 10_000.0) / 100.0;
+  }
+
+  @Override
+  public String toString() {
+    return "PageTimings{" +
+        "queueWaitMillis=" + getQueueWaitMillis() +
+        ", fetchMillis=" + getFetchMillis() +
+        ", renderMillis=" + getRenderMillis() +
+        ", parseMillis=" + getParseMillis() +
+        ", shadowDomMillis=" + getShadowDomMillis() +
+        ", convertMillis=" + getConvertMillis() +
+        ", bytesIn=" + bytesIn +
+        ", bytesReceived=" + bytesReceived +
+        ", bytesOut=" + bytesOut +
+        '}';
+  }
+}
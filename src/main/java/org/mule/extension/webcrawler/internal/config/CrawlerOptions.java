@@ -1,5 +1,6 @@
 package org.mule.extension.webcrawler.internal.config;
 
+import org.mule.extension.webcrawler.internal.constant.Constants;
 import org.mule.runtime.api.meta.ExpressionSupport;
 import org.mule.runtime.extension.api.annotation.Alias;
 import org.mule.runtime.extension.api.annotation.Expression;
@@ -30,6 +31,119 @@ public class CrawlerOptions {
   @Optional(defaultValue = "false")
   private boolean enforceRobotsTxt;
 
+  @Parameter
+  @Alias("maxConcurrency")
+  @DisplayName("Max concurrency")
+  @Summary("The maximum number of pages fetched in parallel while crawling. Applies only to connections supporting concurrent requests (HTTP).")
+  @Placement(order = 3)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("1")
+  @Optional(defaultValue = "1")
+  private int maxConcurrency;
+
+  @Parameter
+  @Alias("executionMode")
+  @DisplayName("Execution mode")
+  @Summary("The kind of threads running page fetch, parse and save tasks. Virtual threads require Java 21 or later, " +
+      "platform threads are used otherwise.")
+  @Placement(order = 4)
+  @Optional(defaultValue = "PLATFORM_THREADS")
+  private Constants.ExecutionMode executionMode;
+
+  @Parameter
+  @Alias("maxInMemoryFrontierSize")
+  @DisplayName("Max pages queued in memory")
+  @Summary("The maximum number of pages waiting to be visited kept in memory. Further pages are spilled to disk, " +
+      "under the download path or the temporary directory and read back in discovery order, so this cannot be " +
+      "combined with the BEST_FIRST crawl order. 0 keeps all pages in memory.")
+  @Placement(order = 5)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("100000")
+  @Optional(defaultValue = "0")
+  private int maxInMemoryFrontierSize;
+
+  @Parameter
+  @Alias("verifyVisitedUrls")
+  @DisplayName("Verify visited URLs")
+  @Summary("Visited URLs are tracked by 64-bit fingerprints. If true, URLs are also kept to rule out fingerprint " +
+      "collisions, at the cost of more memory.")
+  @Placement(order = 6)
+  @Optional(defaultValue = "false")
+  private boolean verifyVisitedUrls;
+
+  @Parameter
+  @Alias("pipelined")
+  @DisplayName("Pipelined crawl")
+  @Summary("If true, pages are fetched, parsed, extracted and saved by separate stages so that network, CPU and disk " +
+      "work overlap. Max concurrency sets the number of fetch workers. Applies only to connections supporting " +
+      "concurrent requests (HTTP).")
+  @Placement(order = 7)
+  @Optional(defaultValue = "false")
+  private boolean pipelined;
+
+  @Parameter
+  @Alias("parseWorkers")
+  @DisplayName("Parse workers")
+  @Summary("The number of workers parsing fetched pages in a pipelined crawl.")
+  @Placement(order = 8)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("1")
+  @Optional(defaultValue = "1")
+  private int parseWorkers;
+
+  @Parameter
+  @Alias("extractWorkers")
+  @DisplayName("Extract workers")
+  @Summary("The number of workers extracting content, links and meta tags of parsed pages in a pipelined crawl.")
+  @Placement(order = 9)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("2")
+  @Optional(defaultValue = "2")
+  private int extractWorkers;
+
+  @Parameter
+  @Alias("persistWorkers")
+  @DisplayName("Persist workers")
+  @Summary("The number of workers downloading images and documents and saving pages in a pipelined crawl.")
+  @Placement(order = 10)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("2")
+  @Optional(defaultValue = "2")
+  private int persistWorkers;
+
+  @Parameter
+  @Alias("stageQueueCapacity")
+  @DisplayName("Stage queue capacity")
+  @Summary("The maximum number of pages waiting for each stage of a pipelined crawl.")
+  @Placement(order = 11)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("32")
+  @Optional(defaultValue = "32")
+  private int stageQueueCapacity;
+
+  @Parameter
+  @Alias("linkValidationConcurrency")
+  @DisplayName("Link validation concurrency")
+  @Summary("The maximum number of pages at maximum depth checked in parallel when getting a sitemap. Applies only to " +
+      "connections supporting concurrent requests (HTTP).")
+  @Placement(order = 12)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("16")
+  @Optional(defaultValue = "1")
+  private int linkValidationConcurrency;
+
+  @Parameter
+  @Alias("maxConcurrencyPerHost")
+  @DisplayName("Max concurrency per host")
+  @Summary("The maximum number of pages of the same host fetched or checked in parallel, by concurrent crawls and " +
+      "when getting a sitemap. A page counts until its source has been read. 0 means no limit other than the max " +
+      "concurrency and the link validation concurrency.")
+  @Placement(order = 13)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("4")
+  @Optional(defaultValue = "0")
+  private int maxConcurrencyPerHost;
+
   public int getDelayMillis() {
     return delayMillis;
   }
@@ -41,4 +155,48 @@ public class CrawlerOptions {
   public boolean isEnforceRobotsTxt() { return enforceRobotsTxt; }
 
   public void setEnforceRobotsTxt(boolean enforceRobotsTxt) { this.enforceRobotsTxt = enforceRobotsTxt; }
+
+  public int getMaxConcurrency() { return maxConcurrency; }
+
+  public void setMaxConcurrency(int maxConcurrency) { this.maxConcurrency = maxConcurrency; }
+
+  public Constants.ExecutionMode getExecutionMode() { return executionMode; }
+
+  public void setExecutionMode(Constants.ExecutionMode executionMode) { this.executionMode = executionMode; }
+
+  public int getMaxInMemoryFrontierSize() { return maxInMemoryFrontierSize; }
+
+  public void setMaxInMemoryFrontierSize(int maxInMemoryFrontierSize) { this.maxInMemoryFrontierSize = maxInMemoryFrontierSize; }
+
+  public boolean isVerifyVisitedUrls() { return verifyVisitedUrls; }
+
+  public void setVerifyVisitedUrls(boolean verifyVisitedUrls) { this.verifyVisitedUrls = verifyVisitedUrls; }
+
+  public boolean isPipelined() { return pipelined; }
+
+  public void setPipelined(boolean pipelined) { this.pipelined = pipelined; }
+
+  public int getParseWorkers() { return parseWorkers; }
+
+  public void setParseWorkers(int parseWorkers) { this.parseWorkers = parseWorkers; }
+
+  public int getExtractWorkers() { return extractWorkers; }
+
+  public void setExtractWorkers(int extractWorkers) { this.extractWorkers = extractWorkers; }
+
+  public int getPersistWorkers() { return persistWorkers; }
+
+  public void setPersistWorkers(int persistWorkers) { this.persistWorkers = persistWorkers; }
+
+  public int getStageQueueCapacity() { return stageQueueCapacity; }
+
+  public void setStageQueueCapacity(int stageQueueCapacity) { this.stageQueueCapacity = stageQueueCapacity; }
+
+  public int getLinkValidationConcurrency() { return linkValidationConcurrency; }
+
+  public void setLinkValidationConcurrency(int linkValidationConcurrency) { this.linkValidationConcurrency = linkValidationConcurrency; }
+
+  public int getMaxConcurrencyPerHost() { return maxConcurrencyPerHost; }
+
+  public void setMaxConcurrencyPerHost(int maxConcurrencyPerHost) { this.maxConcurrencyPerHost = maxConcurrencyPerHost; }
 }
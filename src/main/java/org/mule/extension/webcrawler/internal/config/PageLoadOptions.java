@@ -1,5 +1,6 @@
 package org.mule.extension.webcrawler.internal.config;
 
+import org.mule.extension.webcrawler.api.metadata.PageTimings;
 import org.mule.runtime.api.meta.ExpressionSupport;
 import org.mule.runtime.extension.api.annotation.Alias;
 import org.mule.runtime.extension.api.annotation.Expression;
@@ -48,6 +49,8 @@ public class PageLoadOptions {
 
   private String javascript;
 
+  private PageTimings timings;
+
   public PageLoadOptions() {
 
   }
@@ -102,4 +105,15 @@ public class PageLoadOptions {
   public String getJavascript() { return javascript; }
 
   public void setJavascript(String javascript) { this.javascript = javascript; }
+
+  /**
+   * Returns the timings recorded while loading the page, {@code null} if not recorded.
+   */
+  public PageTimings getTimings() {
+    return timings;
+  }
+
+  public void setTimings(PageTimings timings) {
+    this.timings = timings;
+  }
 }
@@ -2,11 +2,22 @@ package org.mule.extension.webcrawler.internal.config;
 
 import org.mule.extension.webcrawler.internal.connection.http.HttpConnectionProvider;
 import org.mule.extension.webcrawler.internal.connection.webdriver.WebDriverConnectionProvider;
+import org.mule.extension.webcrawler.internal.crawler.metrics.CrawlMetrics;
 import org.mule.extension.webcrawler.internal.operation.CrawlOperations;
 import org.mule.extension.webcrawler.internal.operation.PageOperations;
 import org.mule.extension.webcrawler.internal.operation.SearchOperations;
+import org.mule.extension.webcrawler.internal.constant.Constants;
+import org.mule.extension.webcrawler.internal.util.ExecutorUtils;
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.lifecycle.Startable;
+import org.mule.runtime.api.lifecycle.Stoppable;
 import org.mule.runtime.extension.api.annotation.connectivity.ConnectionProviders;
 import org.mule.runtime.extension.api.annotation.param.ParameterGroup;
+import org.mule.runtime.extension.api.annotation.param.RefName;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class represents an extension configuration, values set in this class are commonly used across multiple
@@ -15,7 +26,10 @@ import org.mule.runtime.extension.api.annotation.param.ParameterGroup;
 @org.mule.runtime.extension.api.annotation.Configuration(name = "config")
 @ConnectionProviders({HttpConnectionProvider.class, WebDriverConnectionProvider.class})
 @org.mule.runtime.extension.api.annotation.Operations({CrawlOperations.class, PageOperations.class, SearchOperations.class})
-public class WebCrawlerConfiguration {
+public class WebCrawlerConfiguration implements Startable, Stoppable {
+
+  @RefName
+  private String configName;
 
   @ParameterGroup(name= "Crawler Options")
   private CrawlerOptions crawlerOptions;
@@ -23,6 +37,47 @@ public class WebCrawlerConfiguration {
   @ParameterGroup(name= "Page Load Options (WebDriver)")
   private PageLoadOptions pageLoadOptions;
 
+  private ExecutorService pageLoadExecutor;
+
+  private final CrawlMetrics metrics = new CrawlMetrics();
+
+  @Override
+  public void start() throws MuleException {
+
+    metrics.registerMBean(configName);
+
+    if (crawlerOptions != null && crawlerOptions.getExecutionMode() == Constants.ExecutionMode.VIRTUAL_THREADS) {
+      pageLoadExecutor = ExecutorUtils.newExecutor(Constants.ExecutionMode.VIRTUAL_THREADS, 1, "webcrawler-page-load-");
+    }
+  }
+
+  @Override
+  public void stop() throws MuleException {
+
+    metrics.unregisterMBean();
+
+    if (pageLoadExecutor != null) {
+      pageLoadExecutor.shutdownNow();
+      pageLoadExecutor = null;
+    }
+  }
+
+  /**
+   * Returns the executor running blocking page loads, i.e. the ones waiting on a browser.
+   *
+   * @return The virtual thread executor in virtual threads mode, the common pool otherwise.
+   */
+  public Executor getPageLoadExecutor() {
+    return pageLoadExecutor != null ? pageLoadExecutor : ForkJoinPool.commonPool();
+  }
+
+  /**
+   * Returns the metrics of the crawls run with this configuration, also exposed through JMX.
+   */
+  public CrawlMetrics getMetrics() {
+    return metrics;
+  }
+
   public CrawlerOptions getCrawlerOptions() {
     return crawlerOptions;
   }
@@ -0,0 +1,74 @@
+package org.mule.extension.webcrawler.internal.connection;
+
+import org.apache.commons.io.input.CountingInputStream;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Page source along with the HTTP status and the response headers it was received with. Bytes are counted as the
+ * content is read, both decompressed and as received.
+ */
+public class PageSource {
+
+  public static final int STATUS_OK = 200;
+  public static final int STATUS_NOT_MODIFIED = 304;
+
+  private final int statusCode;
+  private final Map<String, String> headers;
+  private final CountingInputStream content;
+  private final CountingInputStream receivedContent;
+
+  /**
+   * @param statusCode The HTTP status code.
+   * @param headers    The response headers, keyed by lower case name.
+   * @param content    The page source, {@code null} if not modified.
+   */
+  public PageSource(int statusCode, Map<String, String> headers, InputStream content) {
+    this(statusCode, headers, content, null);
+  }
+
+  /**
+   * @param content         The page source, decompressed from the received content.
+   * @param receivedContent The content as received, {@code null} if not compressed.
+   */
+  public PageSource(int statusCode, Map<String, String> headers, InputStream content,
+                    CountingInputStream receivedContent) {
+
+    this.statusCode = statusCode;
+    this.headers = headers != null ? headers : Collections.emptyMap();
+    this.content = content != null ? new CountingInputStream(content) : null;
+    this.receivedContent = receivedContent;
+  }
+
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  public boolean isNotModified() {
+    return statusCode == STATUS_NOT_MODIFIED;
+  }
+
+  public String getHeader(String name) {
+    return headers.get(name.toLowerCase());
+  }
+
+  public InputStream getContent() {
+    return content;
+  }
+
+  /**
+   * @return The number of bytes of the page source read so far.
+   */
+  public long getContentByteCount() {
+    return content != null ? content.getByteCount() : 0;
+  }
+
+  /**
+   * @return The number of bytes received for the page source read so far, fewer than read if compressed.
+   */
+  public long getReceivedByteCount() {
+    return receivedContent != null ? receivedContent.getByteCount() : getContentByteCount();
+  }
+}
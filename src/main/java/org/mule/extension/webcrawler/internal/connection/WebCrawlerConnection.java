@@ -1,9 +1,13 @@
 package org.mule.extension.webcrawler.internal.connection;
 
 import org.mule.extension.webcrawler.internal.config.PageLoadOptions;
+import org.mule.extension.webcrawler.internal.crawler.metrics.ConnectionPoolUsage;
 
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public interface WebCrawlerConnection {
 
@@ -14,6 +18,63 @@ public interface WebCrawlerConnection {
 
   CompletableFuture<InputStream> getPageSource(String url, String currentReferrer, PageLoadOptions pageLoadOptions);
 
+  /**
+   * Same as {@link #getUrlStatusCode(String, String)}, running any blocking work on the given executor.
+   */
+  default CompletableFuture<Integer> getUrlStatusCode(String url, String currentReferrer, Executor executor) {
+    return getUrlStatusCode(url, currentReferrer);
+  }
+
+  /**
+   * Same as {@link #getPageSource(String, String, PageLoadOptions)}, running any blocking work on the given executor.
+   */
+  default CompletableFuture<InputStream> getPageSource(String url, String currentReferrer, PageLoadOptions pageLoadOptions,
+                                                       Executor executor) {
+    return getPageSource(url, currentReferrer, pageLoadOptions);
+  }
+
+  /**
+   * Same as {@link #getPageSource(String, String, PageLoadOptions, Executor)}, along with the response headers. The
+   * {@code Content-Type} header gives the charset of the page source when known.
+   */
+  default CompletableFuture<PageSource> getPageSourceWithHeaders(String url, String currentReferrer,
+                                                                 PageLoadOptions pageLoadOptions, Executor executor) {
+    return getPageSource(url, currentReferrer, pageLoadOptions, executor)
+        .thenApply(content -> new PageSource(PageSource.STATUS_OK, Collections.emptyMap(), content));
+  }
+
+  /**
+   * Requests the page source with additional request headers, typically {@code If-None-Match} and
+   * {@code If-Modified-Since}. Connections unable to honour them fetch the page as usual.
+   *
+   * @return The page source, with status {@link PageSource#STATUS_NOT_MODIFIED} and no content if not modified.
+   */
+  default CompletableFuture<PageSource> getConditionalPageSource(String url, String currentReferrer,
+                                                                 PageLoadOptions pageLoadOptions,
+                                                                 Map<String, String> requestHeaders) {
+    return getPageSource(url, currentReferrer, pageLoadOptions)
+        .thenApply(content -> new PageSource(PageSource.STATUS_OK, Collections.emptyMap(), content));
+  }
+
   default void restartDriver() {}
 
+  /**
+   * @return The usage of the connection pool requests are sent over, {@code null} if not pooled.
+   */
+  default ConnectionPoolUsage getConnectionPoolUsage() { return null; }
+
+  /**
+   * Tells whether multiple page sources can be requested in parallel over this connection.
+   *
+   * @return {@code true} if concurrent requests are supported, {@code false} otherwise.
+   */
+  default boolean isConcurrentFetchSupported() { return false; }
+
+  /**
+   * Tells whether multiple URL status codes can be requested in parallel over this connection.
+   *
+   * @return {@code true} if concurrent status checks are supported, {@code false} otherwise.
+   */
+  default boolean isConcurrentStatusCheckSupported() { return isConcurrentFetchSupported(); }
+
 }
@@ -0,0 +1,105 @@
+package org.mule.extension.webcrawler.internal.connection.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decompresses response bodies according to their {@code Content-Encoding} header, as they are read.
+ */
+class ContentDecoding {
+
+  /**
+   * The content codings that can be decoded, sent as the {@code Accept-Encoding} request header.
+   */
+  static final String ACCEPT_ENCODING = "gzip, deflate";
+
+  private ContentDecoding() {}
+
+  /**
+   * @param contentEncoding The {@code Content-Encoding} header, listing codings in the order they were applied.
+   * @param content         The response body as received.
+   * @return The decoded response body.
+   * @throws IOException If a coding is not supported or the body is not valid for its coding.
+   */
+  static InputStream decode(String contentEncoding, InputStream content) throws IOException {
+
+    if (contentEncoding == null || content == null) return content;
+
+    String[] codings = contentEncoding.split(",");
+    for (int i = codings.length - 1; i >= 0; i--) {
+
+      String coding = codings[i].trim().toLowerCase(Locale.ROOT);
+      switch (coding) {
+        case "":
+        case "identity":
+          break;
+        case "gzip":
+        case "x-gzip":
+          content = gunzip(content);
+          break;
+        case "deflate":
+          content = inflate(content);
+          break;
+        default:
+          throw new IOException(String.format("Unsupported content encoding %s", coding));
+      }
+    }
+    return content;
+  }
+
+  private static InputStream gunzip(InputStream content) throws IOException {
+
+    try {
+
+      return new GZIPInputStream(content);
+
+    } catch (EOFException e) {
+      // Empty body, as sent by some servers along with the encoding header
+      return empty(content);
+    }
+  }
+
+  /**
+   * Inflates a deflate body, which most servers send wrapped in zlib as per the specification but some send raw.
+   */
+  private static InputStream inflate(InputStream content) throws IOException {
+
+    PushbackInputStream pushbackContent = new PushbackInputStream(content, 2);
+    byte[] header = new byte[2];
+    int length = pushbackContent.readNBytes(header, 0, 2);
+    if (length == 0) return empty(pushbackContent);
+    pushbackContent.unread(header, 0, length);
+
+    boolean zlibWrapped = length == 2 && (header[0] & 0x0F) == 8 && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+    Inflater inflater = new Inflater(!zlibWrapped);
+    return new InflaterInputStream(pushbackContent, inflater) {
+
+      @Override
+      public void close() throws IOException {
+
+        // Streams given their own inflater do not release it
+        try {
+          super.close();
+        } finally {
+          inflater.end();
+        }
+      }
+    };
+  }
+
+  /**
+   * Closes a body found empty, so that the connection it was read from is released.
+   */
+  private static InputStream empty(InputStream content) throws IOException {
+
+    content.close();
+    return new ByteArrayInputStream(new byte[0]);
+  }
+}
@@ -1,33 +1,50 @@
 package org.mule.extension.webcrawler.internal.connection.http;
 
+import org.apache.commons.io.input.CountingInputStream;
 import org.mule.extension.webcrawler.internal.config.PageLoadOptions;
+import org.mule.extension.webcrawler.internal.connection.PageSource;
 import org.mule.extension.webcrawler.internal.connection.WebCrawlerConnection;
+import org.mule.extension.webcrawler.internal.crawler.metrics.ConnectionPoolUsage;
 import org.mule.runtime.api.connection.ConnectionException;
 import org.mule.runtime.http.api.client.HttpClient;
 import org.mule.runtime.http.api.client.HttpRequestOptions;
 import org.mule.runtime.http.api.domain.message.request.HttpRequest;
 import org.mule.runtime.http.api.domain.message.request.HttpRequestBuilder;
+import org.mule.runtime.http.api.domain.message.response.HttpResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class HttpConnection implements WebCrawlerConnection {
 
   private static Logger LOGGER = LoggerFactory.getLogger(HttpConnection.class);
 
+  private static final String[] RESPONSE_HEADERS = {"ETag", "Last-Modified", "Content-Type"};
+
   private HttpClient httpClient;
   private String userAgent;
   private String referrer;
   private int timeout;
+  private ConnectionPoolUsage connectionPoolUsage;
 
-  public HttpConnection(HttpClient httpClient, int timeout, String userAgent, String referrer) {
+  public HttpConnection(HttpClient httpClient, int timeout, String userAgent, String referrer,
+                        ConnectionPoolUsage connectionPoolUsage) {
 
     this.httpClient = httpClient;
     this.userAgent = userAgent;
     this.referrer = referrer;
     this.timeout = timeout;
+    this.connectionPoolUsage = connectionPoolUsage;
   }
 
   public String getUserAgent() {
@@ -42,9 +59,142 @@ public class HttpConnection implements WebCrawlerConnection {
     return true;
   }
 
+  @Override
+  public boolean isConcurrentFetchSupported() {
+    return true;
+  }
+
+  @Override
+  public ConnectionPoolUsage getConnectionPoolUsage() {
+    return connectionPoolUsage;
+  }
+
   @Override
   public CompletableFuture<InputStream> getPageSource(String url, String currentReferrer, PageLoadOptions pageLoadOptions) {
 
+    return sendGet(url, currentReferrer, pageLoadOptions, Collections.emptyMap())
+        .thenApply(response -> {
+          if (response.getStatusCode() == 200) {
+            return decode(response, Collections.emptyMap()).getContent();
+          } else {
+            release(response);
+            throw new RuntimeException(String.format("%s: %s",response.getStatusCode(), response.getReasonPhrase()));
+          }
+        })
+        .exceptionally(e -> {
+          throw new RuntimeException(e);
+        });
+  }
+
+  @Override
+  public CompletableFuture<PageSource> getPageSourceWithHeaders(String url, String currentReferrer,
+                                                                PageLoadOptions pageLoadOptions, Executor executor) {
+    return getConditionalPageSource(url, currentReferrer, pageLoadOptions, Collections.emptyMap());
+  }
+
+  @Override
+  public CompletableFuture<PageSource> getConditionalPageSource(String url, String currentReferrer,
+                                                                PageLoadOptions pageLoadOptions,
+                                                                Map<String, String> requestHeaders) {
+
+    return sendGet(url, currentReferrer, pageLoadOptions, requestHeaders)
+        .thenApply(response -> {
+          if (response.getStatusCode() == PageSource.STATUS_OK || response.getStatusCode() == PageSource.STATUS_NOT_MODIFIED) {
+
+            Map<String, String> headers = new HashMap<>();
+            for (String header : RESPONSE_HEADERS) {
+              String value = response.getHeaderValue(header);
+              if (value != null) headers.put(header.toLowerCase(), value);
+            }
+            if (response.getStatusCode() == PageSource.STATUS_NOT_MODIFIED) {
+              release(response);
+              return new PageSource(response.getStatusCode(), headers, null);
+            }
+            return decode(response, headers);
+          } else {
+            release(response);
+            throw new RuntimeException(String.format("%s: %s",response.getStatusCode(), response.getReasonPhrase()));
+          }
+        })
+        .exceptionally(e -> {
+          throw new RuntimeException(e);
+        });
+  }
+
+  /**
+   * Gets the page source of a response, decompressed as it is read if the server compressed it. The connection is
+   * released once the page source is closed.
+   */
+  private PageSource decode(HttpResponse response, Map<String, String> headers) {
+
+    InputStream content = releasingOnClose(response.getEntity().getContent());
+    String contentEncoding = response.getHeaderValue("Content-Encoding");
+    if (contentEncoding == null || contentEncoding.trim().equalsIgnoreCase("identity")) {
+      return new PageSource(response.getStatusCode(), headers, content);
+    }
+
+    CountingInputStream receivedContent = new CountingInputStream(content);
+    try {
+
+      return new PageSource(response.getStatusCode(), headers,
+                            ContentDecoding.decode(contentEncoding, receivedContent), receivedContent);
+
+    } catch (IOException e) {
+
+      closeQuietly(content);
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Wraps the body of a response so that its connection is released when closed, the connection being busy until the
+   * body is read.
+   */
+  private InputStream releasingOnClose(InputStream content) {
+
+    if (content == null) {
+
+      connectionPoolUsage.release();
+      return null;
+    }
+
+    AtomicBoolean released = new AtomicBoolean();
+    return new FilterInputStream(content) {
+
+      @Override
+      public void close() throws IOException {
+
+        try {
+          super.close();
+        } finally {
+          if (released.compareAndSet(false, true)) connectionPoolUsage.release();
+        }
+      }
+    };
+  }
+
+  /**
+   * Discards the body of a response not read, releasing its connection.
+   */
+  private void release(HttpResponse response) {
+
+    InputStream content = response.getEntity() != null ? response.getEntity().getContent() : null;
+    if (content != null) closeQuietly(content);
+    connectionPoolUsage.release();
+  }
+
+  private static void closeQuietly(InputStream content) {
+
+    try {
+      content.close();
+    } catch (IOException e) {
+      LOGGER.debug("Unable to close response body", e);
+    }
+  }
+
+  private CompletableFuture<HttpResponse> sendGet(String url, String currentReferrer, PageLoadOptions pageLoadOptions,
+                                                  Map<String, String> requestHeaders) {
+
     LOGGER.debug(String.format("Retrieving page source for url %s using http client (wait %s millisec)", url, pageLoadOptions.getWaitOnPageLoad()));
     if(pageLoadOptions.getWaitOnPageLoad() != null && pageLoadOptions.getWaitOnPageLoad().longValue() > 0L) {
 
@@ -63,23 +213,42 @@ public class HttpConnection implements WebCrawlerConnection {
       requestBuilder.addHeader("Referrer", currentReferrer);
     }
 
+    requestBuilder.addHeader("Accept-Encoding", ContentDecoding.ACCEPT_ENCODING);
+
+    requestHeaders.forEach(requestBuilder::addHeader);
+
     HttpRequest request = requestBuilder.build();
 
     HttpRequestOptions options = HttpRequestOptions.builder()
         .responseTimeout(timeout != 0 ? timeout : 10000)
         .build();
 
-    return httpClient.sendAsync(request, options)
-        .thenApply(response -> {
-          if (response.getStatusCode() == 200) {
-            return response.getEntity().getContent();
-          } else {
-            throw new RuntimeException(String.format("%s: %s",response.getStatusCode(), response.getReasonPhrase()));
-          }
-        })
-        .exceptionally(e -> {
-          throw new RuntimeException(e);
-        });
+    return send(request, options);
+  }
+
+  /**
+   * Sends a request once a connection is available. Unless the request fails, the connection must be released by
+   * {@link #decode(HttpResponse, Map)} or {@link #release(HttpResponse)}.
+   */
+  private CompletableFuture<HttpResponse> send(HttpRequest request, HttpRequestOptions options) {
+
+    try {
+      connectionPoolUsage.acquire();
+    } catch (InterruptedException e) {
+
+      Thread.currentThread().interrupt();
+      return CompletableFuture.failedFuture(e);
+    }
+
+    try {
+      return httpClient.sendAsync(request, options).whenComplete((response, e) -> {
+        if (e != null) connectionPoolUsage.release();
+      });
+    } catch (RuntimeException e) {
+
+      connectionPoolUsage.release();
+      throw e;
+    }
   }
 
   @Override
@@ -105,8 +274,9 @@ public class HttpConnection implements WebCrawlerConnection {
         .responseTimeout(timeout != 0 ? timeout : 10000)
         .build();
 
-    return httpClient.sendAsync(request, options)
+    return send(request, options)
         .thenApply(response -> {
+          release(response);
           return response.getStatusCode();
         })
         .exceptionally(e -> {
@@ -0,0 +1,97 @@
+package org.mule.extension.webcrawler.internal.connection.http;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Alias;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Example;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class HttpConnectionPoolOptions {
+
+  @Parameter
+  @Alias("maxConnections")
+  @DisplayName("Max connections")
+  @Summary("The maximum number of outbound connections kept open at the same time, across all operations using the " +
+      "connection. Further requests wait for a response to be read. -1 means no limit. The number of requests to the " +
+      "same host is limited by the max concurrency per host of the crawler.")
+  @Placement(order = 1)
+  @Expression(ExpressionSupport.NOT_SUPPORTED)
+  @Example("64")
+  @Optional(defaultValue = "-1")
+  private int maxConnections;
+
+  @Parameter
+  @Alias("usePersistentConnections")
+  @DisplayName("Use persistent connections")
+  @Summary("If true, connections are kept alive and reused for further requests to the same host.")
+  @Placement(order = 2)
+  @Optional(defaultValue = "true")
+  private boolean usePersistentConnections;
+
+  @Parameter
+  @Alias("connectionIdleTimeout")
+  @DisplayName("Connection idle timeout (millisecs)")
+  @Summary("The time after which a persistent connection not used is closed.")
+  @Placement(order = 3)
+  @Expression(ExpressionSupport.NOT_SUPPORTED)
+  @Example("30000")
+  @Optional(defaultValue = "30000")
+  private int connectionIdleTimeout;
+
+  @Parameter
+  @Alias("connectionTimeout")
+  @DisplayName("Connection timeout (millisecs)")
+  @Summary("The time to wait for a connection to be established.")
+  @Placement(order = 4)
+  @Expression(ExpressionSupport.NOT_SUPPORTED)
+  @Example("30000")
+  @Optional(defaultValue = "30000")
+  private int connectionTimeout;
+
+  @Parameter
+  @Alias("sendTcpNoDelay")
+  @DisplayName("Send TCP no delay")
+  @Summary("If true, small requests are sent without waiting to be grouped with further data (disables Nagle's " +
+      "algorithm).")
+  @Placement(order = 5)
+  @Optional(defaultValue = "true")
+  private boolean sendTcpNoDelay;
+
+  @Parameter
+  @Alias("tcpKeepAlive")
+  @DisplayName("TCP keep alive")
+  @Summary("If true, TCP keep-alive probes are sent on idle connections, so that connections dropped by the network " +
+      "are detected.")
+  @Placement(order = 6)
+  @Optional(defaultValue = "false")
+  private boolean tcpKeepAlive;
+
+  public int getMaxConnections() { return maxConnections; }
+  public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+  public boolean isUsePersistentConnections() { return usePersistentConnections; }
+  public void setUsePersistentConnections(boolean usePersistentConnections) { this.usePersistentConnections = usePersistentConnections; }
+  public int getConnectionIdleTimeout() { return connectionIdleTimeout; }
+  public void setConnectionIdleTimeout(int connectionIdleTimeout) { this.connectionIdleTimeout = connectionIdleTimeout; }
+  public int getConnectionTimeout() { return connectionTimeout; }
+  public void setConnectionTimeout(int connectionTimeout) { this.connectionTimeout = connectionTimeout; }
+  public boolean isSendTcpNoDelay() { return sendTcpNoDelay; }
+  public void setSendTcpNoDelay(boolean sendTcpNoDelay) { this.sendTcpNoDelay = sendTcpNoDelay; }
+  public boolean isTcpKeepAlive() { return tcpKeepAlive; }
+  public void setTcpKeepAlive(boolean tcpKeepAlive) { this.tcpKeepAlive = tcpKeepAlive; }
+
+  @Override
+  public String toString() {
+    return "HttpConnectionPoolOptions{" +
+        "maxConnections=" + maxConnections +
+        ", usePersistentConnections=" + usePersistentConnections +
+        ", connectionIdleTimeout=" + connectionIdleTimeout +
+        ", connectionTimeout=" + connectionTimeout +
+        ", sendTcpNoDelay=" + sendTcpNoDelay +
+        ", tcpKeepAlive=" + tcpKeepAlive +
+        '}';
+  }
+}
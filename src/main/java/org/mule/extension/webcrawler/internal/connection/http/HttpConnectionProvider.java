@@ -1,5 +1,6 @@
 package org.mule.extension.webcrawler.internal.connection.http;
 
+import org.mule.extension.webcrawler.internal.crawler.metrics.ConnectionPoolUsage;
 import org.mule.extension.webcrawler.internal.helper.provider.UserAgentNameProvider;
 import org.mule.runtime.api.connection.CachedConnectionProvider;
 import org.mule.runtime.api.connection.ConnectionException;
@@ -13,6 +14,7 @@ import org.mule.runtime.extension.api.annotation.Alias;
 import org.mule.runtime.extension.api.annotation.Expression;
 import org.mule.runtime.extension.api.annotation.param.Optional;
 import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.ParameterGroup;
 import org.mule.runtime.extension.api.annotation.param.RefName;
 import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
 import org.mule.runtime.extension.api.annotation.param.display.Example;
@@ -22,6 +24,7 @@ import org.mule.runtime.extension.api.annotation.values.OfValues;
 import org.mule.runtime.http.api.HttpService;
 import org.mule.runtime.http.api.client.HttpClient;
 import org.mule.runtime.http.api.client.HttpClientConfiguration;
+import org.mule.runtime.http.api.tcp.TcpClientSocketProperties;
 
 import javax.inject.Inject;
 
@@ -30,6 +33,7 @@ import javax.inject.Inject;
 public class HttpConnectionProvider implements CachedConnectionProvider<HttpConnection>, Startable, Stoppable {
 
   private HttpClient httpClient;
+  private ConnectionPoolUsage connectionPoolUsage;
 
   @RefName
   private String configName;
@@ -67,9 +71,13 @@ public class HttpConnectionProvider implements CachedConnectionProvider<HttpConn
   @Optional
   private TlsContextFactory tlsContext;
 
+  @ParameterGroup(name = "Connection Pool")
+  @Placement(tab = "Advanced")
+  private HttpConnectionPoolOptions connectionPoolOptions;
+
   @Override
   public HttpConnection connect() throws ConnectionException {
-    return new HttpConnection(httpClient, timeout, userAgent, referrer);
+    return new HttpConnection(httpClient, timeout, userAgent, referrer, connectionPoolUsage);
   }
 
   @Override
@@ -94,11 +102,23 @@ public class HttpConnectionProvider implements CachedConnectionProvider<HttpConn
     HttpClientConfiguration config = createClientConfiguration();
     httpClient = httpService.getClientFactory().create(config);
     httpClient.start();
+
+    // Shared by all connections, so that the maximum number of connections holds across operations
+    connectionPoolUsage = new ConnectionPoolUsage(connectionPoolOptions.getMaxConnections());
   }
 
   private HttpClientConfiguration createClientConfiguration() {
 
-    HttpClientConfiguration.Builder builder = new HttpClientConfiguration.Builder().setName(configName);
+    HttpClientConfiguration.Builder builder = new HttpClientConfiguration.Builder()
+        .setName(configName)
+        .setMaxConnections(connectionPoolOptions.getMaxConnections())
+        .setUsePersistentConnections(connectionPoolOptions.isUsePersistentConnections())
+        .setConnectionIdleTimeout(connectionPoolOptions.getConnectionIdleTimeout())
+        .setClientSocketProperties(TcpClientSocketProperties.builder()
+                                       .connectionTimeout(connectionPoolOptions.getConnectionTimeout())
+                                       .sendTcpNoDelay(connectionPoolOptions.isSendTcpNoDelay())
+                                       .keepAlive(connectionPoolOptions.isTcpKeepAlive())
+                                       .build());
     if (null != tlsContext) {
       builder.setTlsContextFactory(tlsContext);
     } else {
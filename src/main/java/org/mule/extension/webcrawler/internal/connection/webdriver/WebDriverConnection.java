@@ -3,6 +3,7 @@ package org.mule.extension.webcrawler.internal.connection.webdriver;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.mule.extension.webcrawler.internal.config.PageLoadOptions;
+import org.mule.extension.webcrawler.internal.connection.PageSource;
 import org.mule.extension.webcrawler.internal.connection.WebCrawlerConnection;
 import org.mule.extension.webcrawler.internal.helper.webdriver.CloudHubChromeConfigurer;
 import org.openqa.selenium.*;
@@ -22,29 +23,38 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class WebDriverConnection implements WebCrawlerConnection {
 
     private static Logger LOGGER = LoggerFactory.getLogger(WebDriverConnection.class);
 
+    private static final Map<String, String> PAGE_SOURCE_HEADERS = Map.of("content-type", "text/html; charset=UTF-8");
+
     private WebDriver driver;
     private String userAgent;
     private String referrer;
     private WebDriverConnectionProvider connectionProvider; // Reference to the provider
     private DevTools devTools;
+    private WebDriverStatusClient statusClient; // Requests not needing the browser
 
-    public WebDriverConnection(WebDriver driver, String userAgent, String referrer, WebDriverConnectionProvider connectionProvider) {
+    public WebDriverConnection(WebDriver driver, String userAgent, String referrer, WebDriverConnectionProvider connectionProvider,
+                               WebDriverStatusClient statusClient) {
         this.driver = driver;
         this.userAgent = userAgent;
         this.referrer = referrer;
         this.connectionProvider = connectionProvider;
+        this.statusClient = statusClient;
     }
 
     public String getUserAgent() {
@@ -92,6 +102,12 @@ public class WebDriverConnection implements WebCrawlerConnection {
 
     @Override
     public CompletableFuture<InputStream> getPageSource(String url, String currentReferrer, PageLoadOptions pageLoadOptions) {
+        return getPageSource(url, currentReferrer, pageLoadOptions, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public CompletableFuture<InputStream> getPageSource(String url, String currentReferrer, PageLoadOptions pageLoadOptions,
+                                                        Executor executor) {
         LOGGER.debug(String.format("Retrieving page source for url %s using webdrive (wait %s millisec)", url, pageLoadOptions.getWaitOnPageLoad()));
         return CompletableFuture.supplyAsync(() -> {
             // Set the referrer header
@@ -113,6 +129,7 @@ public class WebDriverConnection implements WebCrawlerConnection {
             }
             // Load the dynamic page
             driver.get(url);
+            long renderStart = System.nanoTime();
 
             Long effectiveTimeout = Optional.ofNullable(pageLoadOptions.getWaitOnPageLoad())
                         .filter(t -> t > 0) // Keep only if greater than 0
@@ -135,11 +152,31 @@ public class WebDriverConnection implements WebCrawlerConnection {
                 executeScript(pageLoadOptions.getJavascript());
             }
 
+            if (pageLoadOptions.getTimings() != null) {
+                pageLoadOptions.getTimings().addRenderNanos(System.nanoTime() - renderStart);
+            }
+
             // Retrieve the page source
             String pageSource = driver.getPageSource();
+            copyCookiesToStatusClient();
             // Convert the page source to InputStream
             return new ByteArrayInputStream(pageSource.getBytes(StandardCharsets.UTF_8));
-        });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<PageSource> getPageSourceWithHeaders(String url, String currentReferrer,
+                                                                  PageLoadOptions pageLoadOptions, Executor executor) {
+        // The source is serialized from the DOM, so its charset is always UTF-8 whatever the page declares
+        return getPageSource(url, currentReferrer, pageLoadOptions, executor)
+            .thenApply(content -> new PageSource(PageSource.STATUS_OK, PAGE_SOURCE_HEADERS, content));
+    }
+
+    @Override
+    public CompletableFuture<PageSource> getConditionalPageSource(String url, String currentReferrer,
+                                                                  PageLoadOptions pageLoadOptions,
+                                                                  Map<String, String> requestHeaders) {
+        return getPageSourceWithHeaders(url, currentReferrer, pageLoadOptions, ForkJoinPool.commonPool());
     }
 
     private void waitForXPathLoad(Long waitOnPageLoad, String waitForXPath) {
@@ -252,32 +289,38 @@ public class WebDriverConnection implements WebCrawlerConnection {
             js.executeScript(script);
     }
 
+    private void copyCookiesToStatusClient() {
+        try {
+            statusClient.updateCookies(driver.manage().getCookies());
+        } catch (Exception e) {
+            LOGGER.debug("Error while copying cookies from web driver", e);
+        }
+    }
+
+    /**
+     * Status checks do not need the page to be rendered, so they are sent over plain HTTP with the browser user agent
+     * and cookies, and can run in parallel.
+     */
+    @Override
+    public boolean isConcurrentStatusCheckSupported() {
+        return true;
+    }
+
     @Override
     public CompletableFuture<Integer> getUrlStatusCode(String url, String currentReferrer) {
+        return getUrlStatusCode(url, currentReferrer, ForkJoinPool.commonPool());
+    }
 
-        LOGGER.debug(String.format("Checking status for url %s using webdriver", url));
-        return CompletableFuture.supplyAsync(() -> {
-            // Set the referrer header
-            // These CDP calls are very expensive when running in CH2 containers; so skipping as needed (should really be a configuration option)
-            if (!CloudHubChromeConfigurer.isCloudHubDeployment() && currentReferrer != null && !currentReferrer.isEmpty() && !currentReferrer.equalsIgnoreCase(referrer)) {
-                try{
-                    if (devTools == null || devTools.getCdpSession() == null) {
-                        configureDevTools();
-                    }
-                    devTools.send(Network.setExtraHTTPHeaders(new Headers(Map.of("Referer", currentReferrer))));
-                } catch (Exception e) {
+    @Override
+    public CompletableFuture<Integer> getUrlStatusCode(String url, String currentReferrer, Executor executor) {
 
-                    LOGGER.debug("Error while trying to set referer for web driver");
-                }
+        LOGGER.debug(String.format("Checking status for url %s using http client", url));
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return statusClient.getStatusCode(url, currentReferrer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-            // Load the dynamic page
-            driver.get(url);
-
-            JavascriptExecutor js = (JavascriptExecutor) driver;
-            Object status = js.executeScript("return fetch(arguments[0], { method: 'HEAD' })" +
-                                                 ".then(response => response.status)" +
-                                                 ".catch(() => 0);", url);
-            return status instanceof Long ? ((Long) status).intValue() : 500;
-        });
+        }, executor);
     }
 }
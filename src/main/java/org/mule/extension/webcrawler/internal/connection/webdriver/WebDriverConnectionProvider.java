@@ -1,5 +1,6 @@
 package org.mule.extension.webcrawler.internal.connection.webdriver;
 
+import okhttp3.OkHttpClient;
 import org.mule.extension.webcrawler.internal.helper.provider.UserAgentNameProvider;
 import org.mule.extension.webcrawler.internal.helper.webdriver.CloudHubChromeConfigurer;
 import org.mule.runtime.api.connection.CachedConnectionProvider;
@@ -26,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Alias("web-driver")
 @DisplayName("WebDriver")
@@ -53,11 +55,19 @@ public class WebDriverConnectionProvider implements CachedConnectionProvider<Web
   @Optional
   private String referrer;
 
+  // Timeout of requests sent without the browser, like status checks
+  private static final int STATUS_CHECK_TIMEOUT = 10000;
+
   private WebDriver driver;
+  private String browserUserAgent;
+  private OkHttpClient statusCheckClient;
 
   @Override
   public WebDriverConnection connect() throws ConnectionException {
-    return new WebDriverConnection(driver,userAgent, referrer, this);
+
+    String statusCheckUserAgent = userAgent != null && !userAgent.isEmpty() ? userAgent : browserUserAgent;
+    return new WebDriverConnection(driver,userAgent, referrer, this,
+                                   new WebDriverStatusClient(statusCheckClient, statusCheckUserAgent));
   }
 
   @Override
@@ -80,6 +90,14 @@ public class WebDriverConnectionProvider implements CachedConnectionProvider<Web
         }
       }
     }
+
+    if (statusCheckClient == null) {
+
+      statusCheckClient = new OkHttpClient.Builder()
+          .connectTimeout(STATUS_CHECK_TIMEOUT, TimeUnit.MILLISECONDS)
+          .readTimeout(STATUS_CHECK_TIMEOUT, TimeUnit.MILLISECONDS)
+          .build();
+    }
   }
 
   @Override
@@ -90,6 +108,12 @@ public class WebDriverConnectionProvider implements CachedConnectionProvider<Web
       driver.quit();
       driver = null;
     }
+
+    if (statusCheckClient != null) {
+      statusCheckClient.dispatcher().executorService().shutdown();
+      statusCheckClient.connectionPool().evictAll();
+      statusCheckClient = null;
+    }
   }
 
   public WebDriver createNewWebDriver() {
@@ -121,6 +145,7 @@ public class WebDriverConnectionProvider implements CachedConnectionProvider<Web
 
     String actualUserAgent = (String) ((JavascriptExecutor) driver).executeScript("return navigator.userAgent;");
     LOGGER.info("User Agent: {}", actualUserAgent);
+    browserUserAgent = actualUserAgent;
 
     return driver;
   }
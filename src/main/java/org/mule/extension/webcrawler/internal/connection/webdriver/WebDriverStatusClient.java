@@ -0,0 +1,129 @@
+package org.mule.extension.webcrawler.internal.connection.webdriver;
+
+import okhttp3.Cookie;
+import okhttp3.CookieJar;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plain HTTP client used by {@link WebDriverConnection} for requests that do not need a browser, such as URL status
+ * checks. Requests carry the user agent and the cookies of the browser session, so that the site sees the same
+ * client as when rendering pages.
+ * <p>
+ * Unlike the browser, this client can be used from multiple threads.
+ */
+public class WebDriverStatusClient {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WebDriverStatusClient.class);
+
+  private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+  private static final int STATUS_NOT_IMPLEMENTED = 501;
+
+  private final OkHttpClient client;
+  private final String userAgent;
+  private final Map<String, Cookie> browserCookies = new ConcurrentHashMap<>();
+
+  /**
+   * @param baseClient The client sharing its connection pool and timeouts.
+   * @param userAgent  The user agent of the browser session.
+   */
+  public WebDriverStatusClient(OkHttpClient baseClient, String userAgent) {
+
+    this.userAgent = userAgent;
+    this.client = baseClient.newBuilder()
+        .followRedirects(true)
+        .cookieJar(new BrowserCookieJar())
+        .build();
+  }
+
+  /**
+   * Replaces the cookies of the domains found in the given browser cookies, typically all cookies visible from the
+   * page just loaded.
+   */
+  public void updateCookies(Collection<org.openqa.selenium.Cookie> cookies) {
+
+    for (org.openqa.selenium.Cookie cookie : cookies) {
+
+      if (cookie.getDomain() == null) continue;
+
+      // Leading dot means the cookie applies to sub-domains too
+      String domain = cookie.getDomain().startsWith(".") ? cookie.getDomain().substring(1) : cookie.getDomain();
+      Cookie.Builder builder = new Cookie.Builder()
+          .name(cookie.getName())
+          .value(cookie.getValue())
+          .path(cookie.getPath() != null ? cookie.getPath() : "/");
+      if (cookie.getDomain().startsWith(".")) builder.domain(domain); else builder.hostOnlyDomain(domain);
+      if (cookie.isSecure()) builder.secure();
+      if (cookie.isHttpOnly()) builder.httpOnly();
+      if (cookie.getExpiry() != null) builder.expiresAt(cookie.getExpiry().getTime());
+
+      browserCookies.put(domain + "|" + cookie.getPath() + "|" + cookie.getName(), builder.build());
+    }
+  }
+
+  /**
+   * Requests the status of the given URL with a HEAD request, falling back to GET for servers not supporting HEAD.
+   * Redirects are followed.
+   */
+  public int getStatusCode(String url, String referrer) throws IOException {
+
+    int status = execute(newRequest(url, referrer).head().build());
+    if (status == STATUS_METHOD_NOT_ALLOWED || status == STATUS_NOT_IMPLEMENTED) {
+
+      LOGGER.debug(String.format("HEAD not supported for url %s, checking status with GET", url));
+      status = execute(newRequest(url, referrer).get().build());
+    }
+    return status;
+  }
+
+  private Request.Builder newRequest(String url, String referrer) {
+
+    Request.Builder builder = new Request.Builder().url(url);
+    if (userAgent != null && !userAgent.isEmpty()) builder.header("User-Agent", userAgent);
+    if (referrer != null && !referrer.isEmpty()) builder.header("Referer", referrer);
+    return builder;
+  }
+
+  private int execute(Request request) throws IOException {
+
+    // The body is never read, closing the response releases the connection
+    try (Response response = client.newCall(request).execute()) {
+      return response.code();
+    }
+  }
+
+  /**
+   * Sends the cookies copied from the browser. Cookies set on responses to status checks are not kept, the browser
+   * session stays the reference.
+   */
+  private class BrowserCookieJar implements CookieJar {
+
+    @Override
+    public void saveFromResponse(HttpUrl url, List<Cookie> cookies) {
+    }
+
+    @Override
+    public List<Cookie> loadForRequest(HttpUrl url) {
+
+      if (browserCookies.isEmpty()) return Collections.emptyList();
+
+      List<Cookie> cookies = new ArrayList<>();
+      for (Cookie cookie : browserCookies.values()) {
+        if (cookie.matches(url)) cookies.add(cookie);
+      }
+      return cookies;
+    }
+  }
+}
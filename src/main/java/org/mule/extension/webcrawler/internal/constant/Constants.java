@@ -13,6 +13,18 @@ public class Constants {
 
   public enum OutputFormat { TEXT, HTML, MARKDOWN }
 
+  public enum ExecutionMode { PLATFORM_THREADS, VIRTUAL_THREADS }
+
+  public enum DedupStrategy { EXACT, BLOOM_FILTER }
+
+  public enum CrawlOrder { BREADTH_FIRST, BEST_FIRST }
+
+  public enum CrawlBudgetType { MAX_PAGES, MAX_TOTAL_BYTES, MAX_DURATION }
+
+  public enum SitemapDiscovery { DISABLED, SEED_FRONTIER, SITEMAP_ONLY }
+
+  public enum CrawlerTrapType { URL_PATTERN, REPEATED_PATH_SEGMENTS }
+
   // Google Chrome User-Agents
   public static final String USER_AGENT_CHROME_WINDOWS = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36";
   public static final String USER_AGENT_CHROME_MAC = "Mozilla/5.0 (Macintosh; Intel Mac OS X 13_3_1) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36";
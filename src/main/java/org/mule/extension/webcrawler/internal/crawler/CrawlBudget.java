@@ -0,0 +1,101 @@
+package org.mule.extension.webcrawler.internal.crawler;
+
+import org.mule.extension.webcrawler.internal.constant.Constants;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Upper bounds on the pages visited, the bytes fetched and the time spent by a crawl. Limits set to 0 or less are
+ * not enforced. Once a limit is reached no more pages are handed out, pages already being visited are completed.
+ */
+public class CrawlBudget {
+
+  private final int maxPages;
+  private final long maxTotalBytes;
+  private final long maxDurationMillis;
+
+  private final AtomicInteger pages = new AtomicInteger();
+  private final AtomicLong totalBytes = new AtomicLong();
+  private volatile long startNanos = System.nanoTime();
+  private volatile Constants.CrawlBudgetType exhausted;
+
+  public CrawlBudget(int maxPages, long maxTotalBytes, long maxDurationMillis) {
+
+    this.maxPages = maxPages;
+    this.maxTotalBytes = maxTotalBytes;
+    this.maxDurationMillis = maxDurationMillis;
+  }
+
+  /**
+   * Resets usage, to be called when a crawl starts.
+   */
+  public void start() {
+
+    pages.set(0);
+    totalBytes.set(0);
+    exhausted = null;
+    startNanos = System.nanoTime();
+  }
+
+  /**
+   * Counts a page about to be visited, to be called only after checking the budget is not exhausted.
+   */
+  public void countPage() {
+    pages.incrementAndGet();
+  }
+
+  public void addBytes(long bytes) {
+    totalBytes.addAndGet(bytes);
+  }
+
+  /**
+   * Checks every limit against current usage, recording the first one found reached.
+   *
+   * @return {@code true} if a limit has been reached, now or by an earlier check.
+   */
+  public boolean checkExhausted() {
+
+    if (exhausted != null) return true;
+
+    if (maxDurationMillis > 0 && (System.nanoTime() - startNanos) / 1_000_000 >= maxDurationMillis) {
+      exhausted = Constants.CrawlBudgetType.MAX_DURATION;
+    } else if (maxTotalBytes > 0 && totalBytes.get() >= maxTotalBytes) {
+      exhausted = Constants.CrawlBudgetType.MAX_TOTAL_BYTES;
+    } else if (maxPages > 0 && pages.get() >= maxPages) {
+      exhausted = Constants.CrawlBudgetType.MAX_PAGES;
+    }
+    return exhausted != null;
+  }
+
+  /**
+   * @return {@code true} if a limit was found reached by {@link #checkExhausted()}, current usage not being checked.
+   */
+  public boolean isExhausted() {
+    return exhausted != null;
+  }
+
+  /**
+   * @return The limit that stopped the crawl, {@code null} if none did.
+   */
+  public Constants.CrawlBudgetType getExhausted() {
+    return exhausted;
+  }
+
+  public int getPages() {
+    return pages.get();
+  }
+
+  public long getTotalBytes() {
+    return totalBytes.get();
+  }
+
+  @Override
+  public String toString() {
+    return "CrawlBudget{" +
+        "maxPages=" + maxPages +
+        ", maxTotalBytes=" + maxTotalBytes +
+        ", maxDurationMillis=" + maxDurationMillis +
+        '}';
+  }
+}
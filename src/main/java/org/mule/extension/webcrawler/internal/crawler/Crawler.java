@@ -1,25 +1,42 @@
 package org.mule.extension.webcrawler.internal.crawler;
 
 import org.jsoup.nodes.Document;
+import org.mule.extension.webcrawler.api.metadata.PageTimings;
 import org.mule.extension.webcrawler.internal.config.WebCrawlerConfiguration;
 import org.mule.extension.webcrawler.internal.connection.WebCrawlerConnection;
 import org.mule.extension.webcrawler.internal.constant.Constants;
 import org.mule.extension.webcrawler.internal.constant.Constants.RegexUrlsFilterLogic;
+import org.mule.extension.webcrawler.internal.crawler.checkpoint.CheckpointOptions;
+import org.mule.extension.webcrawler.internal.crawler.dedup.NearDuplicateIndex;
+import org.mule.extension.webcrawler.internal.crawler.dedup.NearDuplicateOptions;
+import org.mule.extension.webcrawler.internal.crawler.distributed.DistributedCrawlCoordinator;
+import org.mule.extension.webcrawler.internal.crawler.frontier.HostPolitenessScheduler;
+import org.mule.extension.webcrawler.internal.crawler.frontier.BloomFilterUrlSet;
+import org.mule.extension.webcrawler.internal.crawler.frontier.VisitedUrlOptions;
+import org.mule.extension.webcrawler.internal.crawler.frontier.VisitedUrlSet;
+import org.mule.extension.webcrawler.internal.crawler.pipeline.StageStats;
 import org.mule.extension.webcrawler.internal.crawler.mule.MuleCrawler;
+import org.mule.extension.webcrawler.internal.crawler.state.PageStateStore;
 import org.mule.extension.webcrawler.internal.error.WebCrawlerErrorType;
+import org.mule.extension.webcrawler.internal.util.URLCanonicalizer;
 import org.mule.runtime.extension.api.exception.ModuleException;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Crawler {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Crawler.class);
 
   protected Queue<SiteNode> siteNodeQueue;
-  protected Set<String> visitedLinksGlobal;
+  protected VisitedUrlSet visitedLinksGlobal;
+  protected HostPolitenessScheduler politenessScheduler;
+  protected PageStateStore pageStateStore;
+  protected final AtomicInteger unchangedPageCount = new AtomicInteger();
 
   protected WebCrawlerConfiguration configuration;
   protected WebCrawlerConnection connection;
@@ -40,6 +57,18 @@ public abstract class Crawler {
   protected boolean getMetaTags;
   protected RegexUrlsFilterLogic regexUrlsFilterLogic;
   protected List<String> regexUrls;
+  protected VisitedUrlOptions visitedUrlOptions;
+  protected CheckpointOptions checkpointOptions;
+  protected boolean incremental;
+  protected Constants.CrawlOrder crawlOrder;
+  protected volatile List<StageStats> pipelineStats;
+  protected CrawlBudget budget;
+  protected Constants.SitemapDiscovery sitemapDiscovery;
+  protected NearDuplicateIndex nearDuplicateIndex;
+  protected boolean followNearDuplicateLinks;
+  protected URLCanonicalizer urlCanonicalizer;
+  protected CrawlerTrapDetector trapDetector;
+  protected DistributedCrawlCoordinator distributedCrawl;
 
   public Crawler(WebCrawlerConfiguration configuration, WebCrawlerConnection connection, String rootURL, Long waitOnPageLoad,
                  String waitForXPath, boolean extractShadowDom, String shadowHostXPath, int maxDepth, boolean restrictToPath,
@@ -66,12 +95,63 @@ public abstract class Crawler {
     this.getMetaTags = getMetaTags;
     this.regexUrlsFilterLogic = regexUrlsFilterLogic;
     this.regexUrls = regexUrls;
+    this.politenessScheduler = new HostPolitenessScheduler(configuration.getCrawlerOptions().getDelayMillis());
   }
 
   public abstract SiteNode crawl();
 
   public abstract SiteNode map();
 
+  /**
+   * Adds figures about the last traversal to response attributes: the state of the visited URLs tracking when it is
+   * lossy, and the number of unchanged pages on incremental crawls.
+   *
+   * @param attributes The response attributes to complete.
+   */
+  public void addResponseAttributes(Map<String, Object> attributes) {
+
+    if (visitedLinksGlobal instanceof BloomFilterUrlSet) {
+
+      BloomFilterUrlSet bloomFilter = (BloomFilterUrlSet) visitedLinksGlobal;
+      attributes.put("dedupStrategy", Constants.DedupStrategy.BLOOM_FILTER.name());
+      attributes.put("dedupFillRatio", bloomFilter.getFillRatio());
+      attributes.put("dedupEstimatedFalsePositiveRate", bloomFilter.getEstimatedFalsePositiveRate());
+    }
+
+    if (pageStateStore != null) {
+      attributes.put("unchangedCount", unchangedPageCount.get());
+    }
+
+    if (budget.getExhausted() != null) {
+      attributes.put("budgetExhausted", budget.getExhausted().name());
+    }
+
+    if (nearDuplicateIndex != null) {
+      attributes.put("nearDuplicateCount", nearDuplicateIndex.getDuplicateCount());
+    }
+
+    if (trapDetector.isEnabled()) {
+
+      attributes.put("trapSkippedCount", trapDetector.getSkippedCount());
+      attributes.put("trapTemplates", trapDetector.getSkippedTemplates());
+    }
+
+    if (distributedCrawl != null) {
+
+      attributes.put("workerId", distributedCrawl.getWorkerId());
+      attributes.put("workerPageCount", distributedCrawl.getCrawledPageCount());
+    }
+
+    if (pipelineStats != null) {
+
+      List<Map<String, Object>> stages = new ArrayList<>();
+      for (StageStats stageStats : pipelineStats) {
+        stages.add(stageStats.toMap());
+      }
+      attributes.put("pipelineStages", stages);
+    }
+  }
+
   public static Crawler.Builder builder() {
 
     return new Crawler.Builder();
@@ -101,6 +181,17 @@ public abstract class Crawler {
         ", getMetaTags=" + getMetaTags +
         ", regexUrlsFilterLogic=" + regexUrlsFilterLogic +
         ", regexUrls=" + regexUrls +
+        ", visitedUrlOptions=" + visitedUrlOptions +
+        ", checkpointOptions=" + checkpointOptions +
+        ", incremental=" + incremental +
+        ", crawlOrder=" + crawlOrder +
+        ", budget=" + budget +
+        ", sitemapDiscovery=" + sitemapDiscovery +
+        ", nearDuplicateIndex=" + nearDuplicateIndex +
+        ", followNearDuplicateLinks=" + followNearDuplicateLinks +
+        ", urlCanonicalizer=" + urlCanonicalizer +
+        ", trapDetector=" + trapDetector +
+        ", distributedCrawl=" + distributedCrawl +
         '}';
   }
 
@@ -125,6 +216,16 @@ public abstract class Crawler {
     private boolean getMetaTags = false;
     private RegexUrlsFilterLogic regexUrlsFilterLogic;
     private List<String> regexUrls;
+    private VisitedUrlOptions visitedUrlOptions = VisitedUrlOptions.EXACT;
+    private CheckpointOptions checkpointOptions = CheckpointOptions.DISABLED;
+    private boolean incremental;
+    private Constants.CrawlOrder crawlOrder = Constants.CrawlOrder.BREADTH_FIRST;
+    private CrawlBudget budget;
+    private Constants.SitemapDiscovery sitemapDiscovery = Constants.SitemapDiscovery.DISABLED;
+    private NearDuplicateOptions nearDuplicateOptions;
+    private boolean stripTrackingParameters;
+    private CrawlerTrapDetector trapDetector;
+    private DistributedCrawlCoordinator distributedCrawl;
 
     public Crawler.Builder configuration(WebCrawlerConfiguration configuration) {
       this.configuration = configuration;
@@ -221,6 +322,65 @@ public abstract class Crawler {
       return this;
     }
 
+    public Crawler.Builder visitedUrls(VisitedUrlOptions visitedUrlOptions) {
+      this.visitedUrlOptions = visitedUrlOptions;
+      return this;
+    }
+
+    public Crawler.Builder checkpoint(CheckpointOptions checkpointOptions) {
+      this.checkpointOptions = checkpointOptions;
+      return this;
+    }
+
+    public Crawler.Builder incremental(boolean incremental) {
+      this.incremental = incremental;
+      return this;
+    }
+
+    public Crawler.Builder crawlOrder(Constants.CrawlOrder crawlOrder) {
+      this.crawlOrder = crawlOrder;
+      return this;
+    }
+
+    /**
+     * @param budget The limits stopping the crawl, {@code null} for none.
+     */
+    public Crawler.Builder budget(CrawlBudget budget) {
+      this.budget = budget;
+      return this;
+    }
+
+    public Crawler.Builder sitemapDiscovery(Constants.SitemapDiscovery sitemapDiscovery) {
+      this.sitemapDiscovery = sitemapDiscovery;
+      return this;
+    }
+
+    /**
+     * @param nearDuplicateOptions How near-duplicate pages are handled, {@code null} to visit them as any other page.
+     */
+    public Crawler.Builder nearDuplicates(NearDuplicateOptions nearDuplicateOptions) {
+      this.nearDuplicateOptions = nearDuplicateOptions;
+      return this;
+    }
+
+    public Crawler.Builder stripTrackingParameters(boolean stripTrackingParameters) {
+      this.stripTrackingParameters = stripTrackingParameters;
+      return this;
+    }
+
+    /**
+     * @param trapDetector The detector keeping the crawl out of crawler traps, {@code null} for none.
+     */
+    public Crawler.Builder trapDetector(CrawlerTrapDetector trapDetector) {
+      this.trapDetector = trapDetector;
+      return this;
+    }
+
+    public Crawler.Builder distributedCrawl(DistributedCrawlCoordinator distributedCrawl) {
+      this.distributedCrawl = distributedCrawl;
+      return this;
+    }
+
     public Crawler build() {
 
       Crawler crawler;
@@ -231,6 +391,19 @@ public abstract class Crawler {
                                   maxDepth, restrictToPath, downloadImages, maxImageNumber, downloadDocuments, maxDocumentNumber,
                                   downloadPath, contentTags, outputFormat, getMetaTags, regexUrlsFilterLogic, regexUrls);
 
+        // Crawl options are set on the built crawler so that each new one does not grow the constructor
+        crawler.visitedUrlOptions = visitedUrlOptions;
+        crawler.checkpointOptions = checkpointOptions;
+        crawler.incremental = incremental;
+        crawler.crawlOrder = crawlOrder;
+        crawler.budget = budget != null ? budget : new CrawlBudget(0, 0, 0);
+        crawler.sitemapDiscovery = sitemapDiscovery;
+        crawler.nearDuplicateIndex = nearDuplicateOptions != null ? nearDuplicateOptions.newIndex() : null;
+        crawler.followNearDuplicateLinks = nearDuplicateOptions == null || nearDuplicateOptions.isFollowLinks();
+        crawler.urlCanonicalizer = new URLCanonicalizer(stripTrackingParameters);
+        crawler.trapDetector = trapDetector != null ? trapDetector : new CrawlerTrapDetector(0, 0);
+        crawler.distributedCrawl = distributedCrawl;
+
       } catch (ModuleException e) {
 
         throw e;
@@ -258,6 +431,16 @@ public abstract class Crawler {
     private List<SiteNode> children;
     @JsonIgnore
     private SiteNode parent;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean unchanged;
+    @JsonIgnore
+    private Double sitemapPriority;
+    @JsonIgnore
+    private String sitemapLastmod;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String duplicateOf;
+    @JsonIgnore
+    private long queuedNanos = System.nanoTime();
 
     public SiteNode(String url, int currentDepth, String referrer) {
 
@@ -316,43 +499,61 @@ public abstract class Crawler {
     public SiteNode getParent() {
       return parent;
     }
-  }
 
-  public static class SitemapGenerator {
+    /**
+     * @return {@code true} if the page was left as saved by a previous crawl, {@code null} on non-incremental crawls.
+     */
+    public Boolean getUnchanged() {
+      return unchanged;
+    }
+
+    public void setUnchanged(Boolean unchanged) {
+      this.unchanged = unchanged;
+    }
+
+    /**
+     * @return The priority given to the page by the sitemap of the site, {@code null} if unknown.
+     */
+    public Double getSitemapPriority() {
+      return sitemapPriority;
+    }
 
-    public static String generateSitemapXml(SiteNode rootNode) {
-      StringBuilder xml = new StringBuilder();
-      xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-      xml.append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+    public void setSitemapPriority(Double sitemapPriority) {
+      this.sitemapPriority = sitemapPriority;
+    }
 
-      appendUrl(xml, rootNode);
+    /**
+     * @return The last modification date given to the page by the sitemap of the site, {@code null} if unknown.
+     */
+    public String getSitemapLastmod() {
+      return sitemapLastmod;
+    }
 
-      xml.append("</urlset>");
-      return xml.toString();
+    public void setSitemapLastmod(String sitemapLastmod) {
+      this.sitemapLastmod = sitemapLastmod;
     }
 
-    private static void appendUrl(StringBuilder xml, SiteNode node) {
-      xml.append("  <url>\n");
-      xml.append("    <loc>").append(escapeXml(node.getUrl())).append("</loc>\n");
-      xml.append("    <priority>").append(calculatePriority(node.getCurrentDepth())).append("</priority>\n");
-      xml.append("  </url>\n");
+    /**
+     * @return The URL of the page this page is a near-duplicate of, in which case it is not saved, {@code null} otherwise.
+     */
+    public String getDuplicateOf() {
+      return duplicateOf;
+    }
 
-      for (SiteNode child : node.getChildren()) {
-        appendUrl(xml, child);
-      }
+    public void setDuplicateOf(String duplicateOf) {
+      this.duplicateOf = duplicateOf;
     }
 
-    private static String escapeXml(String text) {
-      return text.replace("&", "&amp;")
-          .replace("<", "&lt;")
-          .replace(">", "&gt;")
-          .replace("\"", "&quot;")
-          .replace("'", "&apos;");
+    /**
+     * @return The {@link System#nanoTime()} the page was queued at, i.e. when the node was created unless set, or when
+     * the page was restored for pages restored from a checkpoint.
+     */
+    public long getQueuedNanos() {
+      return queuedNanos;
     }
 
-    private static String calculatePriority(int depth) {
-      double priority = Math.max(0.0, Math.min(1.0, 1.0 - (depth * 0.1)));
-      return String.format("%.1f", priority);
+    public void setQueuedNanos(long queuedNanos) {
+      this.queuedNanos = queuedNanos;
     }
   }
 
@@ -373,5 +574,12 @@ public abstract class Crawler {
     public Document next() {
       throw new UnsupportedOperationException("This method should be overridden by subclasses");
     }
+
+    /**
+     * @return The timings of the last document returned by {@link #next()}, {@code null} if none was returned.
+     */
+    public PageTimings getPageTimings() {
+      return null;
+    }
   }
 }
@@ -0,0 +1,217 @@
+package org.mule.extension.webcrawler.internal.crawler;
+
+import org.mule.extension.webcrawler.internal.constant.Constants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps crawls out of unbounded URL spaces such as calendars, faceted search or session ids in URLs, which plain URL
+ * deduplication cannot detect since every URL is different.
+ * <p>
+ * URLs are reduced to a template, their host and path with digit runs replaced by a placeholder, followed by the names
+ * of their query parameters. Once a template has been queued the maximum number of times, further URLs matching it
+ * are skipped. URLs whose path repeats the same segment more than allowed ({@code /a/b/a/b/a/b}), typically built
+ * from relative links resolved against the wrong base, are skipped as well. Limits set to 0 or less are not enforced.
+ */
+public class CrawlerTrapDetector {
+
+  private static final String NUMBER_PLACEHOLDER = "{n}";
+  private static final int MAX_REPORTED_TEMPLATES = 100;
+
+  private final int maxPagesPerUrlPattern;
+  private final int maxRepeatedPathSegments;
+
+  private final Map<String, AtomicInteger> queuedPerTemplate = new ConcurrentHashMap<>();
+  private final Map<String, SkippedTemplate> skippedTemplates = new ConcurrentHashMap<>();
+
+  public CrawlerTrapDetector(int maxPagesPerUrlPattern, int maxRepeatedPathSegments) {
+
+    this.maxPagesPerUrlPattern = maxPagesPerUrlPattern;
+    this.maxRepeatedPathSegments = maxRepeatedPathSegments;
+  }
+
+  /**
+   * Resets statistics, to be called when a crawl starts.
+   */
+  public void start() {
+
+    queuedPerTemplate.clear();
+    skippedTemplates.clear();
+  }
+
+  public boolean isEnabled() {
+    return maxPagesPerUrlPattern > 0 || maxRepeatedPathSegments > 0;
+  }
+
+  /**
+   * Tells whether a newly discovered URL can be queued, counting it against its template if so.
+   *
+   * @param url The canonical URL.
+   * @return {@code false} if the URL looks like part of a crawler trap.
+   */
+  public boolean admit(String url) {
+
+    if (!isEnabled() || url == null) return true;
+
+    String template = getTemplate(url);
+
+    if (maxRepeatedPathSegments > 0 && hasRepeatedSegments(url)) {
+
+      skip(template, Constants.CrawlerTrapType.REPEATED_PATH_SEGMENTS);
+      return false;
+    }
+
+    if (maxPagesPerUrlPattern > 0 &&
+        queuedPerTemplate.computeIfAbsent(template, t -> new AtomicInteger()).incrementAndGet() > maxPagesPerUrlPattern) {
+
+      skip(template, Constants.CrawlerTrapType.URL_PATTERN);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return The number of URLs skipped.
+   */
+  public int getSkippedCount() {
+
+    int count = 0;
+    for (SkippedTemplate skippedTemplate : skippedTemplates.values()) {
+      count += skippedTemplate.count.get();
+    }
+    return count;
+  }
+
+  /**
+   * @return The templates of skipped URLs, the most skipped first, with the reason and the number of URLs skipped.
+   */
+  public List<Map<String, Object>> getSkippedTemplates() {
+
+    List<SkippedTemplate> sorted = new ArrayList<>(skippedTemplates.values());
+    sorted.sort((t1, t2) -> Integer.compare(t2.count.get(), t1.count.get()));
+
+    List<Map<String, Object>> templates = new ArrayList<>();
+    for (SkippedTemplate skippedTemplate : sorted.subList(0, Math.min(MAX_REPORTED_TEMPLATES, sorted.size()))) {
+
+      Map<String, Object> template = new LinkedHashMap<>();
+      template.put("template", skippedTemplate.template);
+      template.put("reason", skippedTemplate.reason.name());
+      template.put("skippedCount", skippedTemplate.count.get());
+      templates.add(template);
+    }
+    return templates;
+  }
+
+  private void skip(String template, Constants.CrawlerTrapType reason) {
+
+    skippedTemplates.computeIfAbsent(reason.name() + " " + template, k -> new SkippedTemplate(template, reason))
+        .count.incrementAndGet();
+  }
+
+  /**
+   * Reduces a URL to its host and path, with digit runs replaced by a placeholder, and the sorted names of its query
+   * parameters: {@code https://example.com/events/2024/05?view=day&page=3} gives
+   * {@code example.com/events/{n}/{n}?page&view}.
+   */
+  static String getTemplate(String url) {
+
+    int start = url.indexOf("://");
+    start = start != -1 ? start + 3 : 0;
+    int queryStart = url.indexOf('?', start);
+    int pathEnd = queryStart != -1 ? queryStart : url.length();
+
+    StringBuilder template = new StringBuilder(pathEnd - start + 16);
+    boolean inDigits = false;
+    for (int i = start; i < pathEnd; i++) {
+
+      char c = url.charAt(i);
+      if (c >= '0' && c <= '9') {
+
+        if (!inDigits) template.append(NUMBER_PLACEHOLDER);
+        inDigits = true;
+      } else {
+
+        template.append(c);
+        inDigits = false;
+      }
+    }
+
+    if (queryStart != -1) {
+
+      List<String> names = new ArrayList<>();
+      int parameterStart = queryStart + 1;
+      while (parameterStart < url.length()) {
+
+        int parameterEnd = url.indexOf('&', parameterStart);
+        if (parameterEnd == -1) parameterEnd = url.length();
+        int nameEnd = url.indexOf('=', parameterStart);
+        if (nameEnd == -1 || nameEnd > parameterEnd) nameEnd = parameterEnd;
+        if (nameEnd > parameterStart) names.add(url.substring(parameterStart, nameEnd));
+        parameterStart = parameterEnd + 1;
+      }
+
+      // Names are deduplicated and sorted, so that the same facets selected in a different order are the same template
+      names.sort(null);
+      char separator = '?';
+      String previous = null;
+      for (String name : names) {
+
+        if (name.equals(previous)) continue;
+        template.append(separator).append(name);
+        separator = '&';
+        previous = name;
+      }
+    }
+    return template.toString();
+  }
+
+  private boolean hasRepeatedSegments(String url) {
+
+    int start = url.indexOf("://");
+    start = url.indexOf('/', start != -1 ? start + 3 : 0);
+    if (start == -1) return false;
+    int queryStart = url.indexOf('?', start);
+    int pathEnd = queryStart != -1 ? queryStart : url.length();
+
+    Map<String, Integer> occurrences = new HashMap<>();
+    int segmentStart = start + 1;
+    while (segmentStart < pathEnd) {
+
+      int segmentEnd = url.indexOf('/', segmentStart);
+      if (segmentEnd == -1 || segmentEnd > pathEnd) segmentEnd = pathEnd;
+      if (segmentEnd > segmentStart &&
+          occurrences.merge(url.substring(segmentStart, segmentEnd), 1, Integer::sum) > maxRepeatedPathSegments) {
+        return true;
+      }
+      segmentStart = segmentEnd + 1;
+    }
+    return false;
+  }
+
+  private static class SkippedTemplate {
+
+    private final String template;
+    private final Constants.CrawlerTrapType reason;
+    private final AtomicInteger count = new AtomicInteger();
+
+    private SkippedTemplate(String template, Constants.CrawlerTrapType reason) {
+
+      this.template = template;
+      this.reason = reason;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "CrawlerTrapDetector{" +
+        "maxPagesPerUrlPattern=" + maxPagesPerUrlPattern +
+        ", maxRepeatedPathSegments=" + maxRepeatedPathSegments +
+        '}';
+  }
+}
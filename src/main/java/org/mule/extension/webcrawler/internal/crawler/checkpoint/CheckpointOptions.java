@@ -0,0 +1,38 @@
+package org.mule.extension.webcrawler.internal.crawler.checkpoint;
+
+/**
+ * How a crawl saves its progress and resumes from a previous run.
+ */
+public class CheckpointOptions {
+
+  public static final CheckpointOptions DISABLED = new CheckpointOptions(0, null);
+
+  private final int interval;
+  private final String resumeFrom;
+
+  /**
+   * @param interval   The number of pages crawled between two checkpoints, 0 or less to never write any.
+   * @param resumeFrom The checkpoint file to resume from, {@code null} to start a new crawl.
+   */
+  public CheckpointOptions(int interval, String resumeFrom) {
+
+    this.interval = interval;
+    this.resumeFrom = resumeFrom;
+  }
+
+  public int getInterval() {
+    return interval;
+  }
+
+  public String getResumeFrom() {
+    return resumeFrom;
+  }
+
+  @Override
+  public String toString() {
+    return "CheckpointOptions{" +
+        "interval=" + interval +
+        ", resumeFrom='" + resumeFrom + '\'' +
+        '}';
+  }
+}
@@ -0,0 +1,261 @@
+package org.mule.extension.webcrawler.internal.crawler.checkpoint;
+
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+import org.mule.extension.webcrawler.internal.crawler.frontier.VisitedUrlSet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary snapshot of a crawl in progress: the tree of pages already crawled and the frontier of pages still to visit.
+ * <p>
+ * The tree is written in pre-order, each node referring to its parent by position, so children keep their order.
+ * Frontier entries refer to the tree node they were found on. The visited set is written last: it also holds links
+ * that were neither crawled nor queued, such as those skipped as crawler traps, which must not be queued again on
+ * resume. Its {@link VisitedUrlSet#getStrategy() strategy} is written first, so that it is only restored into a set
+ * of the same strategy.
+ * <p>
+ * Checkpoints are written to a temporary file moved over the previous one, so a crash while writing leaves the
+ * previous checkpoint intact.
+ */
+public class CrawlCheckpoint {
+
+  public static final String CHECKPOINT_FILENAME = "crawl-checkpoint.bin";
+
+  private static final int MAGIC = 0x57434B50; // WCKP
+  private static final int VERSION = 3;
+  private static final int NO_PARENT = -1;
+  private static final int NULL_STRING = -1;
+  private static final byte NULL_BOOLEAN = -1;
+
+  /**
+   * Writes a checkpoint. Must be called while no page is being crawled.
+   *
+   * @param file     The checkpoint file, replaced if it exists.
+   * @param rootNode The root of the tree of crawled pages.
+   * @param frontier The pages still to visit.
+   * @param visited  The URLs already seen.
+   */
+  public static void write(Path file, SiteNode rootNode, Collection<SiteNode> frontier, VisitedUrlSet visited)
+      throws IOException {
+
+    Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile))))) {
+
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      writeString(out, rootNode.getUrl());
+
+      Map<SiteNode, Integer> positions = new IdentityHashMap<>();
+      Map<SiteNode, Integer> parentPositions = new IdentityHashMap<>();
+      List<SiteNode> tree = preOrder(rootNode);
+      out.writeInt(tree.size());
+      for (SiteNode node : tree) {
+
+        int position = positions.size();
+        positions.put(node, position);
+        for (SiteNode child : node.getChildren()) {
+          parentPositions.put(child, position);
+        }
+
+        Integer parentPosition = parentPositions.remove(node);
+        out.writeInt(parentPosition != null ? parentPosition : NO_PARENT);
+        out.writeInt(node.getCurrentDepth());
+        writeString(out, node.getUrl());
+        writeString(out, node.getReferrer());
+        writeString(out, node.getFilename());
+        writeString(out, node.getDuplicateOf());
+        writeBoolean(out, node.getUnchanged());
+        writeDouble(out, node.getSitemapPriority());
+        writeString(out, node.getSitemapLastmod());
+      }
+
+      // Frontier entries are streamed from its iterator, so each one is flagged instead of writing a count upfront
+      for (SiteNode node : frontier) {
+
+        Integer parentPosition = node.getParent() != null ? positions.get(node.getParent()) : null;
+        out.writeBoolean(true);
+        out.writeInt(parentPosition != null ? parentPosition : NO_PARENT);
+        out.writeInt(node.getCurrentDepth());
+        writeString(out, node.getUrl());
+        writeString(out, node.getReferrer());
+        writeDouble(out, node.getSitemapPriority());
+        writeString(out, node.getSitemapLastmod());
+      }
+      out.writeBoolean(false);
+
+      writeString(out, visited.getStrategy());
+      visited.writeTo(out);
+    }
+
+    try {
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Restores a checkpoint into an empty frontier and visited set.
+   *
+   * @param file     The checkpoint file.
+   * @param frontier Receives the pages still to visit.
+   * @param visited  Receives the URLs already seen. Checkpoints of version 1 did not save them, so they are rebuilt
+   *                 from the tree and the frontier.
+   * @return The root of the tree of crawled pages.
+   * @throws IOException If the file is not a readable checkpoint or its URLs were saved by a visited set of another
+   *                     strategy.
+   */
+  public static SiteNode read(Path file, Queue<SiteNode> frontier, VisitedUrlSet visited) throws IOException {
+
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+
+      if (in.readInt() != MAGIC) {
+        throw new IOException(String.format("%s is not a crawl checkpoint.", file));
+      }
+      int version = in.readInt();
+      if (version < 1 || version > VERSION) {
+        throw new IOException(String.format("Unsupported crawl checkpoint version %d.", version));
+      }
+      readString(in); // root URL, kept for troubleshooting
+
+      int treeSize = in.readInt();
+      List<SiteNode> tree = new ArrayList<>(treeSize);
+      for (int i = 0; i < treeSize; i++) {
+
+        int parentPosition = in.readInt();
+        int depth = in.readInt();
+        String url = readString(in);
+        String referrer = readString(in);
+        String filename = readString(in);
+
+        SiteNode node = new SiteNode(url, depth, referrer, filename);
+        if (version >= 2) {
+
+          node.setDuplicateOf(readString(in));
+          node.setUnchanged(readBoolean(in));
+          node.setSitemapPriority(readDouble(in));
+          node.setSitemapLastmod(readString(in));
+        }
+        if (parentPosition != NO_PARENT) tree.get(parentPosition).addChild(node);
+        tree.add(node);
+        if (version == 1) visited.add(url);
+      }
+
+      while (in.readBoolean()) {
+
+        int parentPosition = in.readInt();
+        int depth = in.readInt();
+        String url = readString(in);
+        String referrer = readString(in);
+
+        SiteNode node = new SiteNode(url, depth, referrer, parentPosition != NO_PARENT ? tree.get(parentPosition) : null);
+        if (version >= 2) {
+
+          node.setSitemapPriority(readDouble(in));
+          node.setSitemapLastmod(readString(in));
+        }
+        frontier.add(node);
+        if (version == 1) visited.add(url);
+      }
+
+      if (version >= 3) {
+
+        String strategy = readString(in);
+        if (!visited.getStrategy().equals(strategy)) {
+          throw new IOException(String.format(
+              "Visited URLs were saved by a %s set, this crawl uses a %s set. " +
+                  "Use the same visited URL settings to resume.",
+              strategy, visited.getStrategy()));
+        }
+      }
+      if (version >= 2) visited.readFrom(in);
+
+      if (tree.isEmpty()) {
+        throw new IOException(String.format("Crawl checkpoint %s has no root page.", file));
+      }
+      return tree.get(0);
+    }
+  }
+
+  private static List<SiteNode> preOrder(SiteNode rootNode) {
+
+    List<SiteNode> nodes = new ArrayList<>();
+    Deque<SiteNode> stack = new ArrayDeque<>();
+    stack.push(rootNode);
+    while (!stack.isEmpty()) {
+
+      SiteNode node = stack.pop();
+      nodes.add(node);
+      List<SiteNode> children = node.getChildren();
+      for (int i = children.size() - 1; i >= 0; i--) {
+        stack.push(children.get(i));
+      }
+    }
+    return nodes;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+
+    if (value == null) {
+
+      out.writeInt(NULL_STRING);
+    } else {
+
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static void writeBoolean(DataOutputStream out, Boolean value) throws IOException {
+    out.writeByte(value == null ? NULL_BOOLEAN : value ? 1 : 0);
+  }
+
+  private static Boolean readBoolean(DataInputStream in) throws IOException {
+
+    byte value = in.readByte();
+    return value == NULL_BOOLEAN ? null : value == 1;
+  }
+
+  private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+
+    out.writeBoolean(value != null);
+    if (value != null) out.writeDouble(value);
+  }
+
+  private static Double readDouble(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readDouble() : null;
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+
+    int length = in.readInt();
+    if (length == NULL_STRING) return null;
+
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,203 @@
+package org.mule.extension.webcrawler.internal.crawler.dedup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Index of the 64-bit SimHash fingerprints of the pages seen during a crawl, telling whether a page has nearly the
+ * same text as a page already seen.
+ * <p>
+ * Fingerprints are split into {@code maxDistance + 1} bands, each band having a lookup table. Two fingerprints at most
+ * {@code maxDistance} bits apart agree on at least one band, so only fingerprints sharing a band with the page are
+ * compared.
+ * <p>
+ * Pages with too little text to be told apart are never considered duplicates.
+ */
+public class NearDuplicateIndex {
+
+  public static final int MAX_DISTANCE = 16;
+
+  private static final int SHINGLE_SIZE = 3;
+  private static final int MIN_SHINGLES = 8;
+
+  private final int maxDistance;
+  private final int[] bandShifts;
+  private final long[] bandMasks;
+  private final List<Map<Long, List<Entry>>> bands;
+  private int size;
+  private int duplicateCount;
+
+  /**
+   * @param maxDistance The maximum number of differing fingerprint bits for two pages to be near-duplicates, between 0
+   *                    and {@link #MAX_DISTANCE}.
+   */
+  public NearDuplicateIndex(int maxDistance) {
+
+    if (maxDistance < 0 || maxDistance > MAX_DISTANCE) {
+      throw new IllegalArgumentException(
+          String.format("Near-duplicate distance must be between 0 and %d, got %d.", MAX_DISTANCE, maxDistance));
+    }
+
+    this.maxDistance = maxDistance;
+
+    int bandCount = maxDistance + 1;
+    this.bandShifts = new int[bandCount];
+    this.bandMasks = new long[bandCount];
+    this.bands = new ArrayList<>(bandCount);
+
+    // Spread the 64 bits over the bands, the first ones getting one more bit when not evenly divisible
+    int shift = 0;
+    for (int i = 0; i < bandCount; i++) {
+
+      int width = 64 / bandCount + (i < 64 % bandCount ? 1 : 0);
+      bandShifts[i] = shift;
+      bandMasks[i] = width == 64 ? -1L : (1L << width) - 1;
+      bands.add(new HashMap<>());
+      shift += width;
+    }
+  }
+
+  /**
+   * Looks for a page near the given text and, if none, adds the page to the index.
+   *
+   * @param url  The URL of the page.
+   * @param text The text of the page.
+   * @return The URL of the page already seen this one duplicates, {@code null} if none.
+   */
+  public String findOrAdd(String url, String text) {
+
+    Long fingerprint = simHash(text);
+    if (fingerprint == null) return null;
+    return findOrAdd(url, fingerprint);
+  }
+
+  synchronized String findOrAdd(String url, long fingerprint) {
+
+    for (int i = 0; i < bands.size(); i++) {
+
+      List<Entry> candidates = bands.get(i).get(band(fingerprint, i));
+      if (candidates == null) continue;
+
+      for (Entry candidate : candidates) {
+        if (Long.bitCount(candidate.fingerprint ^ fingerprint) <= maxDistance) {
+
+          duplicateCount++;
+          return candidate.url;
+        }
+      }
+    }
+
+    Entry entry = new Entry(fingerprint, url);
+    for (int i = 0; i < bands.size(); i++) {
+      bands.get(i).computeIfAbsent(band(fingerprint, i), k -> new ArrayList<>(1)).add(entry);
+    }
+    size++;
+    return null;
+  }
+
+  /**
+   * @return The number of distinct pages indexed.
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * @return The number of pages found to be near-duplicates of an indexed page.
+   */
+  public synchronized int getDuplicateCount() {
+    return duplicateCount;
+  }
+
+  private long band(long fingerprint, int band) {
+    return (fingerprint >>> bandShifts[band]) & bandMasks[band];
+  }
+
+  /**
+   * Computes the SimHash of a text over shingles of consecutive words, ignoring case and punctuation.
+   *
+   * @return The fingerprint, {@code null} if the text is too short.
+   */
+  static Long simHash(String text) {
+
+    if (text == null) return null;
+
+    List<String> words = new ArrayList<>();
+    StringBuilder word = new StringBuilder();
+    for (int i = 0; i <= text.length(); i++) {
+
+      char c = i < text.length() ? text.charAt(i) : ' ';
+      if (Character.isLetterOrDigit(c)) {
+
+        word.append(c);
+      } else if (word.length() > 0) {
+
+        words.add(word.toString().toLowerCase(Locale.ROOT));
+        word.setLength(0);
+      }
+    }
+
+    int shingleCount = words.size() - SHINGLE_SIZE + 1;
+    if (shingleCount < MIN_SHINGLES) return null;
+
+    int[] weights = new int[64];
+    for (int i = 0; i < shingleCount; i++) {
+
+      long hash = hash(words, i);
+      for (int bit = 0; bit < 64; bit++) {
+        weights[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+      }
+    }
+
+    long fingerprint = 0L;
+    for (int bit = 0; bit < 64; bit++) {
+      if (weights[bit] > 0) fingerprint |= 1L << bit;
+    }
+    return fingerprint;
+  }
+
+  /**
+   * FNV-1a over the chars of the shingle words, finished with the MurmurHash3 mixer so that all bits are balanced.
+   */
+  private static long hash(List<String> words, int start) {
+
+    long hash = 0xcbf29ce484222325L;
+    for (int i = start; i < start + SHINGLE_SIZE; i++) {
+
+      String word = words.get(i);
+      for (int j = 0; j < word.length(); j++) {
+
+        hash ^= word.charAt(j);
+        hash *= 0x100000001b3L;
+      }
+      hash ^= ' ';
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  private static class Entry {
+
+    private final long fingerprint;
+    private final String url;
+
+    private Entry(long fingerprint, String url) {
+
+      this.fingerprint = fingerprint;
+      this.url = url;
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "NearDuplicateIndex{maxDistance=" + maxDistance + ", size=" + size + ", duplicateCount=" + duplicateCount + '}';
+  }
+}
@@ -0,0 +1,39 @@
+package org.mule.extension.webcrawler.internal.crawler.dedup;
+
+/**
+ * How a crawl handles pages with nearly the same text as a page already visited.
+ */
+public class NearDuplicateOptions {
+
+  private final int maxDistance;
+  private final boolean followLinks;
+
+  /**
+   * @param maxDistance The maximum number of differing fingerprint bits for two pages to be near-duplicates.
+   * @param followLinks If true, links found on near-duplicates are still followed.
+   */
+  public NearDuplicateOptions(int maxDistance, boolean followLinks) {
+
+    this.maxDistance = maxDistance;
+    this.followLinks = followLinks;
+  }
+
+  /**
+   * @return An empty index detecting near-duplicates within the maximum distance.
+   */
+  public NearDuplicateIndex newIndex() {
+    return new NearDuplicateIndex(maxDistance);
+  }
+
+  public boolean isFollowLinks() {
+    return followLinks;
+  }
+
+  @Override
+  public String toString() {
+    return "NearDuplicateOptions{" +
+        "maxDistance=" + maxDistance +
+        ", followLinks=" + followLinks +
+        '}';
+  }
+}
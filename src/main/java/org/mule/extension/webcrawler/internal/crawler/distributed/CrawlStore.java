@@ -0,0 +1,29 @@
+package org.mule.extension.webcrawler.internal.crawler.distributed;
+
+import java.io.Serializable;
+
+/**
+ * Key-value store shared by the workers of a distributed crawl.
+ */
+public interface CrawlStore {
+
+  /**
+   * Stores a value unless the key is already present. Must be atomic across workers for URLs to be visited once.
+   *
+   * @return {@code true} if the value was stored.
+   */
+  boolean putIfAbsent(String key, Serializable value);
+
+  /**
+   * Stores a value, replacing any value present. Not atomic across workers: used for keys written by a single worker
+   * at a time, or holding hints where the last write wins.
+   */
+  void put(String key, Serializable value);
+
+  /**
+   * @return The value, {@code null} if the key is not present.
+   */
+  Serializable get(String key);
+
+  void remove(String key);
+}
@@ -0,0 +1,481 @@
+package org.mule.extension.webcrawler.internal.crawler.distributed;
+
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+import org.mule.extension.webcrawler.internal.crawler.frontier.HostPolitenessScheduler;
+import org.mule.extension.webcrawler.internal.crawler.state.PageStateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Shares the state of a crawl between workers through a {@link CrawlStore}:
+ * <ul>
+ *   <li>the visited URLs, so that each page is crawled by a single worker,</li>
+ *   <li>the frontier, partitioned by a hash of the host of pages,</li>
+ *   <li>leases on partitions: a worker crawls the pages of the partitions it holds a lease on, so that each host is
+ *   crawled by one worker at a time and politeness delays hold across workers,</li>
+ *   <li>the pages crawled, merged into a single tree once the crawl is over.</li>
+ * </ul>
+ * All writes workers may race on go through {@link CrawlStore#putIfAbsent(String, Serializable)}, the only atomic
+ * operation of the store, and no operation lists keys:
+ * <ul>
+ *   <li>Each partition of the frontier is a log of numbered slots, pages being appended to the first free slot. The
+ *   head of the log, before which all pages are crawled, is advanced by the worker holding the partition.</li>
+ *   <li>Leases are numbered generations of a partition: renewing, releasing or taking over the lease of generation
+ *   {@code n} means creating generation {@code n + 1}, so that of a renewal and a takeover only one succeeds.</li>
+ * </ul>
+ * The head and the latest generation are also written to plain keys, as hints only: readers start from them and
+ * move forward to the actual head or generation.
+ * <p>
+ * Pages are crawled once their partition is leased, so a lease expiring with its worker makes the pages left in the
+ * partition available to other workers. A page may then be crawled twice, never skipped. The crawl is over when the
+ * frontier is empty and the root page is crawled.
+ * <p>
+ * Keys are prefixed by the crawl id, reusing a crawl id returns the pages of the previous crawl.
+ */
+public class DistributedCrawlCoordinator {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DistributedCrawlCoordinator.class);
+
+  private static final String VISITED = "/visited/";
+  private static final String FRONTIER = "/frontier/";
+  private static final String LEASE = "/lease/";
+  private static final String PAGE = "/page/";
+  private static final String HEAD = "/head";
+  private static final String TAIL = "/tail";
+  private static final String GENERATION = "/generation";
+
+  private final CrawlStore store;
+  private final String crawlId;
+  private final String workerId;
+  private final int partitionCount;
+  private final long leaseMillis;
+  private final long pollIntervalMillis;
+  private final LongSupplier clock;
+
+  // Leases held by the threads of this worker, by partition
+  private final Map<Integer, HeldLease> heldLeases = new ConcurrentHashMap<>();
+  private final AtomicInteger crawledPageCount = new AtomicInteger();
+
+  /**
+   * @param store              The store shared by all workers.
+   * @param crawlId            The id shared by all workers of the crawl.
+   * @param workerId           The id of this worker, unique among workers.
+   * @param partitionCount     The number of frontier partitions, the same for all workers.
+   * @param leaseMillis        The time after which a partition held by a worker not renewing its lease is given up.
+   * @param pollIntervalMillis The time to wait before looking for pages again when all partitions are leased.
+   */
+  public DistributedCrawlCoordinator(CrawlStore store, String crawlId, String workerId, int partitionCount,
+                                     long leaseMillis, long pollIntervalMillis) {
+    this(store, crawlId, workerId, partitionCount, leaseMillis, pollIntervalMillis, System::currentTimeMillis);
+  }
+
+  /**
+   * @param clock The time in milliseconds, lease expiries being compared across workers.
+   */
+  DistributedCrawlCoordinator(CrawlStore store, String crawlId, String workerId, int partitionCount,
+                              long leaseMillis, long pollIntervalMillis, LongSupplier clock) {
+
+    this.store = store;
+    this.crawlId = crawlId;
+    this.workerId = workerId != null && !workerId.isEmpty() ? workerId : UUID.randomUUID().toString();
+    this.partitionCount = Math.max(1, partitionCount);
+    this.leaseMillis = leaseMillis;
+    this.pollIntervalMillis = pollIntervalMillis;
+    this.clock = clock;
+  }
+
+  public String getWorkerId() {
+    return workerId;
+  }
+
+  public long getPollIntervalMillis() {
+    return pollIntervalMillis;
+  }
+
+  /**
+   * @return The number of pages crawled by this worker.
+   */
+  public int getCrawledPageCount() {
+    return crawledPageCount.get();
+  }
+
+  /**
+   * Marks a URL as visited by any worker.
+   *
+   * @return {@code true} if no worker visited the URL before.
+   */
+  public boolean markVisited(String url) {
+    return url != null && store.putIfAbsent(crawlId + VISITED + PageStateStore.hash(url), Boolean.TRUE);
+  }
+
+  public boolean isVisited(String url) {
+    return url != null && store.get(crawlId + VISITED + PageStateStore.hash(url)) != null;
+  }
+
+  /**
+   * Appends a page to the partition of its host.
+   */
+  public void enqueue(WorkItem workItem) {
+
+    int partition = getPartition(workItem.getUrl());
+    int slot = getHint(getFrontierKey(partition) + TAIL);
+    while (!store.putIfAbsent(getSlotKey(partition, slot), workItem)) {
+      slot++;
+    }
+    store.put(getFrontierKey(partition) + TAIL, slot + 1);
+  }
+
+  public int getPartition(String url) {
+    return Math.floorMod(HostPolitenessScheduler.getHost(url).hashCode(), partitionCount);
+  }
+
+  /**
+   * Leases a partition with pages left and not leased by another worker, starting from a partition depending on the
+   * worker id so that workers spread over partitions.
+   *
+   * @return The partition leased, {@code null} if none is available.
+   */
+  public Integer claimPartition() {
+
+    int start = Math.floorMod(workerId.hashCode(), partitionCount);
+    for (int i = 0; i < partitionCount; i++) {
+
+      int partition = (start + i) % partitionCount;
+      if (heldLeases.containsKey(partition) || getHead(partition) == null) continue;
+
+      HeldLease lease = tryLease(partition);
+      if (lease != null) {
+
+        heldLeases.put(partition, lease);
+        return partition;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets the pages left in a partition leased by this worker, in the order they were found, first advancing the head
+   * of the partition past the pages crawled.
+   *
+   * @return The pages left in a partition.
+   */
+  public List<WorkItem> getPendingItems(int partition) {
+
+    Integer head = getHead(partition);
+    List<WorkItem> workItems = new ArrayList<>();
+    if (head == null) return workItems;
+
+    if (head != getHint(getFrontierKey(partition) + HEAD)) store.put(getFrontierKey(partition) + HEAD, head);
+    for (int slot = head; ; slot++) {
+
+      Serializable value = store.get(getSlotKey(partition, slot));
+      if (!(value instanceof WorkItem)) break;
+      if (!isCrawled(((WorkItem) value).getUrl())) workItems.add((WorkItem) value);
+    }
+    return workItems;
+  }
+
+  /**
+   * Extends the lease on a partition held by this worker, once half of the lease time has passed.
+   *
+   * @return {@code false} if the lease expired and was taken over by another worker.
+   */
+  public boolean renewLease(int partition) {
+
+    HeldLease lease = heldLeases.get(partition);
+    if (lease == null) return false;
+
+    long now = clock.getAsLong();
+    int nextGeneration = lease.generation + 1;
+    if (now < lease.expiresAt - leaseMillis / 2) {
+
+      // Not due for renewal, only making sure no other worker took over
+      if (store.get(getLeaseKey(partition, nextGeneration)) == null) return true;
+
+    } else if (createGeneration(partition, nextGeneration, now + leaseMillis)) {
+
+      heldLeases.put(partition, new HeldLease(nextGeneration, now + leaseMillis));
+      return true;
+    }
+
+    LOGGER.warn(String.format("Lease on partition %d of crawl %s lost by worker %s", partition, crawlId, workerId));
+    heldLeases.remove(partition);
+    return false;
+  }
+
+  public void releasePartition(int partition) {
+
+    HeldLease lease = heldLeases.remove(partition);
+    if (lease != null) release(partition, lease);
+  }
+
+  /**
+   * Records a crawled page.
+   */
+  public void complete(WorkItem workItem, SiteNode siteNode) {
+
+    store.put(crawlId + PAGE + PageStateStore.hash(workItem.getUrl()),
+              new PageRecord(workItem.getUrl(), workItem.getParentUrl(), workItem.getDepth(), siteNode.getFilename(),
+                             siteNode.getDuplicateOf(), clock.getAsLong()));
+    crawledPageCount.incrementAndGet();
+  }
+
+  /**
+   * @return {@code true} once the root page is crawled and no page is left in any partition.
+   */
+  public boolean isDone(String rootUrl) {
+
+    if (!isCrawled(rootUrl)) return false;
+    for (int partition = 0; partition < partitionCount; partition++) {
+      if (getHead(partition) != null) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Builds the tree of the pages crawled by all workers. Children are in the order they were crawled.
+   *
+   * @return The root page, without children if not crawled.
+   */
+  public SiteNode mergeTree(String rootUrl) {
+
+    List<PageRecord> records = new ArrayList<>();
+    for (int partition = 0; partition < partitionCount; partition++) {
+      for (int slot = 0; ; slot++) {
+
+        Serializable workItem = store.get(getSlotKey(partition, slot));
+        if (!(workItem instanceof WorkItem)) break;
+
+        Serializable record = store.get(crawlId + PAGE + PageStateStore.hash(((WorkItem) workItem).getUrl()));
+        if (record instanceof PageRecord) records.add((PageRecord) record);
+      }
+    }
+    records.sort(Comparator.comparingLong((PageRecord record) -> record.crawledAt).thenComparing(record -> record.url));
+
+    Map<String, SiteNode> nodes = new HashMap<>();
+    for (PageRecord record : records) {
+
+      SiteNode node = new SiteNode(record.url, record.depth, record.parentUrl, record.filename);
+      node.setDuplicateOf(record.duplicateOf);
+      nodes.put(record.url, node);
+    }
+
+    SiteNode rootNode = nodes.computeIfAbsent(rootUrl, url -> new SiteNode(url, 0, null));
+    for (PageRecord record : records) {
+
+      if (record.url.equals(rootUrl)) continue;
+
+      // Pages whose parent was not recorded, the crawl having stopped early, are kept under the root
+      SiteNode parentNode = record.parentUrl != null ? nodes.get(record.parentUrl) : null;
+      (parentNode != null ? parentNode : rootNode).addChild(nodes.get(record.url));
+    }
+    return rootNode;
+  }
+
+  private boolean isCrawled(String url) {
+    return store.get(crawlId + PAGE + PageStateStore.hash(url)) != null;
+  }
+
+  /**
+   * @return The first slot of a partition holding a page not crawled, {@code null} if no page is left.
+   */
+  private Integer getHead(int partition) {
+
+    for (int slot = getHint(getFrontierKey(partition) + HEAD); ; slot++) {
+
+      Serializable value = store.get(getSlotKey(partition, slot));
+      if (!(value instanceof WorkItem)) return null;
+      if (!isCrawled(((WorkItem) value).getUrl())) return slot;
+    }
+  }
+
+  /**
+   * Leases a partition whose latest lease expired or was released, or that was never leased.
+   */
+  private HeldLease tryLease(int partition) {
+
+    long now = clock.getAsLong();
+    int generation = getHint(getLeaseKey(partition) + GENERATION);
+    while (store.get(getLeaseKey(partition, generation + 1)) != null) {
+      generation++;
+    }
+
+    Serializable value = store.get(getLeaseKey(partition, generation));
+    if (value instanceof Lease) {
+
+      Lease lease = (Lease) value;
+      if (lease.expiresAt > now) return null;
+      if (lease.expiresAt != Lease.RELEASED) {
+        LOGGER.info(String.format("Taking over partition %d of crawl %s from worker %s", partition, crawlId, lease.workerId));
+      }
+      generation++;
+    }
+
+    // Among workers finding the same latest lease, only the one creating the next generation first gets the partition
+    return createGeneration(partition, generation, now + leaseMillis) ? new HeldLease(generation, now + leaseMillis) : null;
+  }
+
+  private void release(int partition, HeldLease lease) {
+    createGeneration(partition, lease.generation + 1, Lease.RELEASED);
+  }
+
+  private boolean createGeneration(int partition, int generation, long expiresAt) {
+
+    if (!store.putIfAbsent(getLeaseKey(partition, generation), new Lease(workerId, expiresAt))) return false;
+    store.put(getLeaseKey(partition) + GENERATION, generation);
+    return true;
+  }
+
+  private int getHint(String key) {
+
+    Serializable value = store.get(key);
+    return value instanceof Integer ? (Integer) value : 0;
+  }
+
+  private String getFrontierKey(int partition) {
+    return crawlId + FRONTIER + partition;
+  }
+
+  private String getSlotKey(int partition, int slot) {
+    return getFrontierKey(partition) + "/" + slot;
+  }
+
+  private String getLeaseKey(int partition) {
+    return crawlId + LEASE + partition;
+  }
+
+  private String getLeaseKey(int partition, int generation) {
+    return getLeaseKey(partition) + "/" + generation;
+  }
+
+  /**
+   * A page waiting in the frontier.
+   */
+  public static class WorkItem implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String url;
+    private final int depth;
+    private final String referrer;
+    private final String parentUrl;
+    private final long queuedAt;
+
+    public WorkItem(String url, int depth, String referrer, String parentUrl) {
+
+      this.url = url;
+      this.depth = depth;
+      this.referrer = referrer;
+      this.parentUrl = parentUrl;
+      this.queuedAt = System.currentTimeMillis();
+    }
+
+    public static WorkItem of(SiteNode siteNode) {
+
+      return new WorkItem(siteNode.getUrl(), siteNode.getCurrentDepth(), siteNode.getReferrer(),
+                          siteNode.getParent() != null ? siteNode.getParent().getUrl() : null);
+    }
+
+    public String getUrl() {
+      return url;
+    }
+
+    public int getDepth() {
+      return depth;
+    }
+
+    public String getReferrer() {
+      return referrer;
+    }
+
+    public String getParentUrl() {
+      return parentUrl;
+    }
+
+    public long getQueuedAt() {
+      return queuedAt;
+    }
+
+    /**
+     * @return A node for the page, without parent: the tree is only built once the crawl is over.
+     */
+    public SiteNode toSiteNode() {
+      return new SiteNode(url, depth, referrer);
+    }
+  }
+
+  private static class Lease implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    // Expiry of leases given up by their worker
+    private static final long RELEASED = 0L;
+
+    private final String workerId;
+    private final long expiresAt;
+
+    private Lease(String workerId, long expiresAt) {
+
+      this.workerId = workerId;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  /**
+   * A lease held by this worker: its generation and when it expires.
+   */
+  private static class HeldLease {
+
+    private final int generation;
+    private final long expiresAt;
+
+    private HeldLease(int generation, long expiresAt) {
+
+      this.generation = generation;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private static class PageRecord implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String url;
+    private final String parentUrl;
+    private final int depth;
+    private final String filename;
+    private final String duplicateOf;
+    private final long crawledAt;
+
+    private PageRecord(String url, String parentUrl, int depth, String filename, String duplicateOf, long crawledAt) {
+
+      this.url = url;
+      this.parentUrl = parentUrl;
+      this.depth = depth;
+      this.filename = filename;
+      this.duplicateOf = duplicateOf;
+      this.crawledAt = crawledAt;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "DistributedCrawlCoordinator{" +
+        "crawlId='" + crawlId + '\'' +
+        ", workerId='" + workerId + '\'' +
+        ", partitionCount=" + partitionCount +
+        ", leaseMillis=" + leaseMillis +
+        '}';
+  }
+}
@@ -0,0 +1,51 @@
+package org.mule.extension.webcrawler.internal.crawler.distributed;
+
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+
+import java.util.AbstractQueue;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Frontier of a distributed crawl as seen by the crawler: pages added are written to the shared frontier, to be
+ * crawled by the worker leasing their partition, see {@link DistributedCrawlCoordinator#claimPartition()}. Pages are
+ * never polled from this queue, its size is the number of pages added by this worker.
+ */
+public class DistributedFrontier extends AbstractQueue<SiteNode> {
+
+  private final DistributedCrawlCoordinator coordinator;
+  private final AtomicInteger addedCount = new AtomicInteger();
+
+  public DistributedFrontier(DistributedCrawlCoordinator coordinator) {
+    this.coordinator = coordinator;
+  }
+
+  @Override
+  public boolean offer(SiteNode siteNode) {
+
+    coordinator.enqueue(DistributedCrawlCoordinator.WorkItem.of(siteNode));
+    addedCount.incrementAndGet();
+    return true;
+  }
+
+  @Override
+  public SiteNode poll() {
+    return null;
+  }
+
+  @Override
+  public SiteNode peek() {
+    return null;
+  }
+
+  @Override
+  public int size() {
+    return addedCount.get();
+  }
+
+  @Override
+  public Iterator<SiteNode> iterator() {
+    return Collections.emptyIterator();
+  }
+}
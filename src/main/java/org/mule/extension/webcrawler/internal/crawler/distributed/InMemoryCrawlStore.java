@@ -0,0 +1,36 @@
+package org.mule.extension.webcrawler.internal.crawler.distributed;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CrawlStore} local to the JVM, standing in for an object store in tests.
+ */
+public class InMemoryCrawlStore implements CrawlStore {
+
+  private final ConcurrentHashMap<String, Serializable> entries = new ConcurrentHashMap<>();
+
+  @Override
+  public boolean putIfAbsent(String key, Serializable value) {
+    return entries.putIfAbsent(key, value) == null;
+  }
+
+  @Override
+  public void put(String key, Serializable value) {
+    entries.put(key, value);
+  }
+
+  @Override
+  public Serializable get(String key) {
+    return entries.get(key);
+  }
+
+  @Override
+  public void remove(String key) {
+    entries.remove(key);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+}
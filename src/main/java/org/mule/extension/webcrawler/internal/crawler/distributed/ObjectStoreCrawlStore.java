@@ -0,0 +1,102 @@
+package org.mule.extension.webcrawler.internal.crawler.distributed;
+
+import org.mule.extension.webcrawler.internal.error.WebCrawlerErrorType;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.extension.api.exception.ModuleException;
+
+import java.io.Serializable;
+
+/**
+ * {@link CrawlStore} over a Mule object store. With a persistent object store on a clustered or CloudHub deployment
+ * the store is shared by all workers of the application, {@link ObjectStore#store(String, Serializable)} failing for
+ * keys already present makes {@link #putIfAbsent(String, Serializable)} atomic.
+ */
+public class ObjectStoreCrawlStore implements CrawlStore {
+
+  private static final int MAX_PUT_ATTEMPTS = 5;
+
+  private final ObjectStore<Serializable> objectStore;
+
+  public ObjectStoreCrawlStore(ObjectStore<Serializable> objectStore) {
+    this.objectStore = objectStore;
+  }
+
+  @Override
+  public boolean putIfAbsent(String key, Serializable value) {
+
+    try {
+
+      objectStore.store(key, value);
+      return true;
+
+    } catch (ObjectAlreadyExistsException e) {
+      return false;
+    } catch (ObjectStoreException e) {
+      throw storeError(key, e);
+    }
+  }
+
+  /**
+   * Replaces the value of a key, retrying when another worker stores the key in between.
+   */
+  @Override
+  public void put(String key, Serializable value) {
+
+    for (int attempt = 1; ; attempt++) {
+      try {
+
+        try {
+          objectStore.remove(key);
+        } catch (ObjectDoesNotExistException e) {
+          // Not stored yet
+        }
+        objectStore.store(key, value);
+        return;
+
+      } catch (ObjectAlreadyExistsException e) {
+        if (attempt == MAX_PUT_ATTEMPTS) throw storeError(key, e);
+      } catch (ObjectStoreException e) {
+        throw storeError(key, e);
+      }
+    }
+  }
+
+  @Override
+  public Serializable get(String key) {
+
+    try {
+
+      return objectStore.contains(key) ? objectStore.retrieve(key) : null;
+
+    } catch (ObjectDoesNotExistException e) {
+      return null;
+    } catch (ObjectStoreException e) {
+      throw storeError(key, e);
+    }
+  }
+
+  @Override
+  public void remove(String key) {
+
+    try {
+
+      objectStore.remove(key);
+
+    } catch (ObjectDoesNotExistException e) {
+      // Already removed by another worker
+    } catch (ObjectStoreException e) {
+      throw storeError(key, e);
+    }
+  }
+
+  private static ModuleException storeError(String key, ObjectStoreException e) {
+
+    return new ModuleException(
+        String.format("Error while accessing key %s of the distributed crawl object store.", key),
+        WebCrawlerErrorType.CRAWL_OPERATIONS_FAILURE,
+        e);
+  }
+}
@@ -0,0 +1,36 @@
+package org.mule.extension.webcrawler.internal.crawler.distributed;
+
+import org.mule.extension.webcrawler.internal.crawler.frontier.VisitedUrlSet;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Visited URLs of a distributed crawl, shared by all workers. The size is the number of URLs added by this worker.
+ */
+public class SharedVisitedUrlSet implements VisitedUrlSet {
+
+  private final DistributedCrawlCoordinator coordinator;
+  private final AtomicInteger addedCount = new AtomicInteger();
+
+  public SharedVisitedUrlSet(DistributedCrawlCoordinator coordinator) {
+    this.coordinator = coordinator;
+  }
+
+  @Override
+  public boolean add(String url) {
+
+    if (!coordinator.markVisited(url)) return false;
+    addedCount.incrementAndGet();
+    return true;
+  }
+
+  @Override
+  public boolean contains(String url) {
+    return coordinator.isVisited(url);
+  }
+
+  @Override
+  public int size() {
+    return addedCount.get();
+  }
+}
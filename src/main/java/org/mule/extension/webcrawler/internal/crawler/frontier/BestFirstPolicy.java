@@ -0,0 +1,208 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+
+import java.net.URI;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Visits the most valuable pages first, so that a crawl cut short by its depth or budget covers the core of the site.
+ * A page scores higher the closer it is to the root, the more links to it were found while it was queued, the better
+ * its URL matches the path of the root URL and the higher its sitemap priority. Pages with the same score are visited
+ * in the order they were discovered.
+ * <p>
+ * The depth of a page is set when it is first discovered: links found later only add to its inlinks, even when
+ * closer to the root.
+ */
+public class BestFirstPolicy implements FrontierPolicy {
+
+  private static final double DEPTH_WEIGHT = 0.4;
+  private static final double INLINKS_WEIGHT = 0.2;
+  private static final double PATH_WEIGHT = 0.2;
+  private static final double SITEMAP_PRIORITY_WEIGHT = 0.2;
+
+  /** Number of inlinks giving the full inlinks score. */
+  private static final double SATURATING_INLINKS = 100;
+  private static final double DEFAULT_SITEMAP_PRIORITY = 0.5;
+
+  private final String rootHost;
+  private final String rootPath;
+  private final Map<String, QueuedPage> queuedPages = new ConcurrentHashMap<>();
+
+  public BestFirstPolicy(String rootURL) {
+
+    String host = null;
+    String path = "/";
+    try {
+
+      URI rootURI = new URI(rootURL);
+      host = rootURI.getHost() != null ? rootURI.getHost().toLowerCase() : null;
+      path = rootURI.getPath() != null && !rootURI.getPath().isEmpty() ? rootURI.getPath() : "/";
+    } catch (Exception e) {
+      // Path scoring is disabled for unparsable root URLs
+    }
+    this.rootHost = host;
+    this.rootPath = path;
+  }
+
+  @Override
+  public Queue<SiteNode> newQueue() {
+    return new PriorityFrontier();
+  }
+
+  @Override
+  public void linkFound(String url) {
+
+    QueuedPage queuedPage = url != null ? queuedPages.get(url) : null;
+    if (queuedPage != null) queuedPage.frontier.linkFound(queuedPage);
+  }
+
+  double score(SiteNode siteNode, int inlinks) {
+
+    double depthScore = 1.0 / (1 + siteNode.getCurrentDepth());
+    double inlinksScore = Math.min(1.0, Math.log1p(inlinks) / Math.log1p(SATURATING_INLINKS));
+    double sitemapPriority = siteNode.getSitemapPriority() != null ? siteNode.getSitemapPriority() : DEFAULT_SITEMAP_PRIORITY;
+
+    return DEPTH_WEIGHT * depthScore
+        + INLINKS_WEIGHT * inlinksScore
+        + PATH_WEIGHT * pathScore(siteNode.getUrl())
+        + SITEMAP_PRIORITY_WEIGHT * sitemapPriority;
+  }
+
+  private double pathScore(String url) {
+
+    if (rootHost == null) return 0;
+    try {
+
+      URI uri = new URI(url);
+      if (uri.getHost() == null || !rootHost.equals(uri.getHost().toLowerCase())) return 0;
+      String path = uri.getPath() != null ? uri.getPath() : "";
+      return path.startsWith(rootPath) ? 1.0 : 0.5;
+
+    } catch (Exception e) {
+      return 0;
+    }
+  }
+
+  /**
+   * Priority queue of pages. A page whose score changes is queued again with its new score, the previous entry is left
+   * in the heap and skipped once it reaches the head.
+   */
+  private class PriorityFrontier extends AbstractQueue<SiteNode> {
+
+    private final PriorityQueue<Entry> entries = new PriorityQueue<>();
+    private long sequence;
+    private int size;
+
+    @Override
+    public synchronized boolean offer(SiteNode siteNode) {
+
+      QueuedPage queuedPage = new QueuedPage(siteNode, this, sequence++);
+      queuedPages.put(siteNode.getUrl(), queuedPage);
+      entries.add(new Entry(queuedPage, score(siteNode, 0)));
+      size++;
+      return true;
+    }
+
+    @Override
+    public synchronized SiteNode poll() {
+
+      Entry head = skipStaleEntries();
+      if (head == null) return null;
+
+      entries.poll();
+      size--;
+      queuedPages.remove(head.queuedPage.siteNode.getUrl(), head.queuedPage);
+      return head.queuedPage.siteNode;
+    }
+
+    @Override
+    public synchronized SiteNode peek() {
+
+      Entry head = skipStaleEntries();
+      return head != null ? head.queuedPage.siteNode : null;
+    }
+
+    @Override
+    public synchronized int size() {
+      return size;
+    }
+
+    @Override
+    public synchronized Iterator<SiteNode> iterator() {
+
+      List<SiteNode> snapshot = new ArrayList<>(size);
+      for (Entry entry : entries) {
+        if (!entry.isStale()) snapshot.add(entry.queuedPage.siteNode);
+      }
+      return snapshot.iterator();
+    }
+
+    private synchronized void linkFound(QueuedPage queuedPage) {
+
+      // Polled in the meantime
+      if (queuedPages.get(queuedPage.siteNode.getUrl()) != queuedPage) return;
+
+      queuedPage.inlinks++;
+      queuedPage.version++;
+      entries.add(new Entry(queuedPage, score(queuedPage.siteNode, queuedPage.inlinks)));
+    }
+
+    private Entry skipStaleEntries() {
+
+      Entry head;
+      while ((head = entries.peek()) != null && head.isStale()) {
+        entries.poll();
+      }
+      return head;
+    }
+  }
+
+  private static class QueuedPage {
+
+    private final SiteNode siteNode;
+    private final PriorityFrontier frontier;
+    private final long sequence;
+    private int inlinks;
+    private int version;
+
+    private QueuedPage(SiteNode siteNode, PriorityFrontier frontier, long sequence) {
+
+      this.siteNode = siteNode;
+      this.frontier = frontier;
+      this.sequence = sequence;
+    }
+  }
+
+  private static class Entry implements Comparable<Entry> {
+
+    private final QueuedPage queuedPage;
+    private final double score;
+    private final int version;
+
+    private Entry(QueuedPage queuedPage, double score) {
+
+      this.queuedPage = queuedPage;
+      this.score = score;
+      this.version = queuedPage.version;
+    }
+
+    private boolean isStale() {
+      return version != queuedPage.version;
+    }
+
+    @Override
+    public int compareTo(Entry other) {
+
+      int byScore = Double.compare(other.score, score);
+      return byScore != 0 ? byScore : Long.compare(queuedPage.sequence, other.queuedPage.sequence);
+    }
+  }
+}
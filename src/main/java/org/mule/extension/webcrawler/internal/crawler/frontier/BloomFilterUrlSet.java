@@ -0,0 +1,151 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Bloom filter of visited URLs, sized from the expected number of URLs and the accepted false-positive rate.
+ * A false positive makes an unvisited URL look visited, so that page is skipped. Past the expected number of URLs
+ * the false-positive rate grows beyond the requested one.
+ * <p>
+ * Bit positions are derived from the {@link UrlFingerprintSet#fingerprint(String) fingerprint} of the URL by double
+ * hashing.
+ */
+public class BloomFilterUrlSet implements VisitedUrlSet {
+
+  private final long[] bits;
+  private final long bitSize;
+  private final int hashCount;
+  private long setBitCount;
+  private int size;
+
+  /**
+   * @param expectedUrlCount  The number of URLs the filter is sized for.
+   * @param falsePositiveRate The accepted false-positive rate at the expected number of URLs, between 0 and 1.
+   */
+  public BloomFilterUrlSet(int expectedUrlCount, double falsePositiveRate) {
+
+    if (expectedUrlCount <= 0) {
+      throw new IllegalArgumentException("Expected URL count must be greater than 0.");
+    }
+    if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("False positive rate must be between 0 and 1 (exclusive).");
+    }
+
+    double optimalBits = -expectedUrlCount * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+    int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (long) Math.ceil(optimalBits / Long.SIZE)));
+    this.bits = new long[words];
+    this.bitSize = (long) words * Long.SIZE;
+    this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedUrlCount * Math.log(2)));
+  }
+
+  @Override
+  public synchronized boolean add(String url) {
+
+    if (url == null) return false;
+
+    long fingerprint = UrlFingerprintSet.fingerprint(url);
+    int hash1 = (int) fingerprint;
+    int hash2 = (int) (fingerprint >>> 32);
+
+    boolean added = false;
+    for (int i = 0; i < hashCount; i++) {
+
+      long index = Math.floorMod(hash1 + (long) i * hash2, bitSize);
+      int word = (int) (index >>> 6);
+      long mask = 1L << index;
+      if ((bits[word] & mask) == 0) {
+
+        bits[word] |= mask;
+        setBitCount++;
+        added = true;
+      }
+    }
+    if (added) size++;
+    return added;
+  }
+
+  @Override
+  public synchronized boolean contains(String url) {
+
+    if (url == null) return false;
+
+    long fingerprint = UrlFingerprintSet.fingerprint(url);
+    int hash1 = (int) fingerprint;
+    int hash2 = (int) (fingerprint >>> 32);
+
+    for (int i = 0; i < hashCount; i++) {
+
+      long index = Math.floorMod(hash1 + (long) i * hash2, bitSize);
+      if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  @Override
+  public String getStrategy() {
+    return String.format("bloom(bits=%d,hashes=%d)", bitSize, hashCount);
+  }
+
+  @Override
+  public synchronized void writeTo(DataOutput out) throws IOException {
+
+    out.writeLong(bitSize);
+    out.writeInt(hashCount);
+    out.writeInt(size);
+    for (long word : bits) {
+      out.writeLong(word);
+    }
+  }
+
+  /**
+   * Merges the bits written by a filter of the same size and hash count. The sizes are added, so URLs present in
+   * both count twice.
+   */
+  @Override
+  public synchronized void readFrom(DataInput in) throws IOException {
+
+    long sourceBitSize = in.readLong();
+    int sourceHashCount = in.readInt();
+    if (sourceBitSize != bitSize || sourceHashCount != hashCount) {
+      throw new IOException(String.format(
+          "Visited URLs were saved by a Bloom filter of %d bits and %d hashes, this one has %d bits and %d hashes. " +
+              "Use the same expected URL count and false positive rate to resume.",
+          sourceBitSize, sourceHashCount, bitSize, hashCount));
+    }
+
+    size += in.readInt();
+    setBitCount = 0;
+    for (int i = 0; i < bits.length; i++) {
+
+      bits[i] |= in.readLong();
+      setBitCount += Long.bitCount(bits[i]);
+    }
+  }
+
+  /**
+   * @return The share of bits set, between 0 and 1.
+   */
+  public synchronized double getFillRatio() {
+    return (double) setBitCount / bitSize;
+  }
+
+  /**
+   * @return The probability that an unvisited URL is reported as visited given the bits set so far.
+   */
+  public synchronized double getEstimatedFalsePositiveRate() {
+    return Math.pow(getFillRatio(), hashCount);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "BloomFilterUrlSet{size=" + size + ", bitSize=" + bitSize + ", hashCount=" + hashCount +
+        ", fillRatio=" + getFillRatio() + '}';
+  }
+}
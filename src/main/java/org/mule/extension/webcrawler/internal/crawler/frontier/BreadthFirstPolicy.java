@@ -0,0 +1,17 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Visits pages in the order they were discovered.
+ */
+public class BreadthFirstPolicy implements FrontierPolicy {
+
+  @Override
+  public Queue<SiteNode> newQueue() {
+    return new ConcurrentLinkedQueue<>();
+  }
+}
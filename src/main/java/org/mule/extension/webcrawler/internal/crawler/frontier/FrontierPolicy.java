@@ -0,0 +1,29 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import org.mule.extension.webcrawler.internal.constant.Constants;
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+
+import java.util.Queue;
+
+/**
+ * Decides in which order discovered pages are visited.
+ */
+public interface FrontierPolicy {
+
+  /**
+   * Creates an empty queue returning pages in the order of this policy.
+   */
+  Queue<SiteNode> newQueue();
+
+  /**
+   * Notifies the policy that a link to an already discovered page was found again.
+   *
+   * @param url The cleaned URL of the page.
+   */
+  default void linkFound(String url) {}
+
+  static FrontierPolicy of(Constants.CrawlOrder crawlOrder, String rootURL) {
+
+    return crawlOrder == Constants.CrawlOrder.BEST_FIRST ? new BestFirstPolicy(rootURL) : new BreadthFirstPolicy();
+  }
+}
@@ -0,0 +1,96 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Frontier keeping one queue per host, ordered by a {@link FrontierPolicy}. Polling returns the head of the host that becomes eligible first
+ * according to the {@link HostPolitenessScheduler}, so a delayed host does not stall pages of other hosts.
+ * Hosts with the same ready time are served in the order they were discovered.
+ */
+public class HostAwareFrontier extends AbstractQueue<SiteNode> {
+
+  private final HostPolitenessScheduler scheduler;
+  private final FrontierPolicy frontierPolicy;
+  private final Map<String, Queue<SiteNode>> hostQueues = new LinkedHashMap<>();
+  private int size;
+
+  public HostAwareFrontier(HostPolitenessScheduler scheduler) {
+    this(scheduler, new BreadthFirstPolicy());
+  }
+
+  /**
+   * @param frontierPolicy The policy ordering the pages of each host.
+   */
+  public HostAwareFrontier(HostPolitenessScheduler scheduler, FrontierPolicy frontierPolicy) {
+
+    this.scheduler = scheduler;
+    this.frontierPolicy = frontierPolicy;
+  }
+
+  @Override
+  public synchronized boolean offer(SiteNode siteNode) {
+
+    hostQueues.computeIfAbsent(HostPolitenessScheduler.getHost(siteNode.getUrl()), host -> frontierPolicy.newQueue()).add(siteNode);
+    size++;
+    return true;
+  }
+
+  @Override
+  public synchronized SiteNode poll() {
+
+    String host = nextEligibleHost();
+    if (host == null) return null;
+
+    Queue<SiteNode> hostQueue = hostQueues.get(host);
+    SiteNode siteNode = hostQueue.poll();
+    if (hostQueue.isEmpty()) hostQueues.remove(host);
+    size--;
+    return siteNode;
+  }
+
+  @Override
+  public synchronized SiteNode peek() {
+
+    String host = nextEligibleHost();
+    return host != null ? hostQueues.get(host).peek() : null;
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  @Override
+  public synchronized Iterator<SiteNode> iterator() {
+
+    List<SiteNode> snapshot = new ArrayList<>(size);
+    for (Queue<SiteNode> hostQueue : hostQueues.values()) {
+      snapshot.addAll(hostQueue);
+    }
+    return snapshot.iterator();
+  }
+
+  private String nextEligibleHost() {
+
+    String eligibleHost = null;
+    long eligibleReadyTime = Long.MAX_VALUE;
+
+    for (String host : hostQueues.keySet()) {
+
+      long readyTime = scheduler.getReadyTime(host);
+      if (readyTime < eligibleReadyTime) {
+        eligibleHost = host;
+        eligibleReadyTime = readyTime;
+      }
+    }
+    return eligibleHost;
+  }
+}
@@ -0,0 +1,38 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounds the number of requests in progress to the same host. A limit of 0 or less means no limit.
+ */
+public class HostConcurrencyLimiter {
+
+  private final int maxPerHost;
+  private final Map<String, Semaphore> semaphores = new ConcurrentHashMap<>();
+
+  public HostConcurrencyLimiter(int maxPerHost) {
+    this.maxPerHost = maxPerHost;
+  }
+
+  /**
+   * Waits until a request to the host of the given URL can start. Every call must be followed by a call to
+   * {@link #release(String)} with the same URL.
+   */
+  public void acquire(String url) throws InterruptedException {
+
+    if (maxPerHost > 0) getSemaphore(url).acquire();
+  }
+
+  public void release(String url) {
+
+    if (maxPerHost > 0) getSemaphore(url).release();
+  }
+
+  private Semaphore getSemaphore(String url) {
+
+    String host = HostPolitenessScheduler.getHost(url);
+    return semaphores.computeIfAbsent(host != null ? host : "", h -> new Semaphore(maxPerHost));
+  }
+}
@@ -0,0 +1,111 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces the delay between two requests to the same host. Every host keeps its own ready time, so waiting
+ * for one host never holds back requests to another one.
+ */
+public class HostPolitenessScheduler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(HostPolitenessScheduler.class);
+
+  private static final int MIN_PRUNE_THRESHOLD = 64;
+
+  private final long delayMillis;
+  private final Map<String, Long> nextReadyTimes = new HashMap<>();
+  private int pruneThreshold = MIN_PRUNE_THRESHOLD;
+
+  public HostPolitenessScheduler(long delayMillis) {
+    this.delayMillis = delayMillis;
+  }
+
+  public long getDelayMillis() {
+    return delayMillis;
+  }
+
+  /**
+   * Returns the time (in milliseconds, monotonic clock) at which the given host can be requested again.
+   *
+   * @param host The host name, as returned by {@link #getHost(String)}.
+   * @return The ready time, or 0 if the host has never been requested.
+   */
+  public synchronized long getReadyTime(String host) {
+    return nextReadyTimes.getOrDefault(host, 0L);
+  }
+
+  /**
+   * Reserves the next slot for the host of the given URL and waits until that slot is reached.
+   *
+   * @param url The URL about to be requested.
+   */
+  public void acquire(String url) {
+
+    if (delayMillis <= 0) return;
+
+    String host = getHost(url);
+    long now = now();
+    long readyTime;
+
+    synchronized (this) {
+
+      if (nextReadyTimes.size() >= pruneThreshold) pruneReadyHosts(now);
+      readyTime = Math.max(now, nextReadyTimes.getOrDefault(host, 0L));
+      nextReadyTimes.put(host, readyTime + delayMillis);
+    }
+
+    long waitMillis = readyTime - now;
+    if (waitMillis > 0) {
+      try {
+        LOGGER.debug(String.format("Waiting %d ms before fetching contents from host %s", waitMillis, host));
+        Thread.sleep(waitMillis);
+      } catch (InterruptedException e) {
+
+        LOGGER.debug(String.format("Interrupted while waiting for host %s, fetching without completing the delay", host));
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  synchronized int getTrackedHostCount() {
+    return nextReadyTimes.size();
+  }
+
+  /**
+   * Forgets the hosts whose ready time has passed, which are as eligible as hosts never requested, so that hosts no
+   * longer crawled do not pile up. Pruning runs once the map has doubled since the last pass, keeping its cost
+   * amortized over requests.
+   */
+  private void pruneReadyHosts(long now) {
+
+    nextReadyTimes.values().removeIf(readyTime -> readyTime <= now);
+    pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, 2 * nextReadyTimes.size());
+  }
+
+  public static long now() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+  }
+
+  /**
+   * Extracts the lower-cased host of a URL.
+   *
+   * @param url The URL string.
+   * @return The host, or an empty string if it cannot be determined.
+   */
+  public static String getHost(String url) {
+
+    try {
+      String host = URI.create(url).getHost();
+      return host != null ? host.toLowerCase(Locale.ENGLISH) : "";
+    } catch (IllegalArgumentException e) {
+      return "";
+    }
+  }
+}
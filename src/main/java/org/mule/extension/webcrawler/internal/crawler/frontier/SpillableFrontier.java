@@ -0,0 +1,375 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+import org.mule.extension.webcrawler.internal.error.WebCrawlerErrorType;
+import org.mule.runtime.extension.api.exception.ModuleException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * Frontier keeping at most a fixed number of pages in memory. Pages beyond that limit are appended to memory-mapped
+ * segment files and read back, in the order they were added, as the in-memory head drains. Segments are deleted as
+ * soon as they have been fully read. As spilled pages come back in discovery order, the head only decides the order
+ * of the pages in memory, which only matches the overall order for breadth-first crawls.
+ * <p>
+ * Spilled pages only keep a reference to their parent node, which is already part of the crawled tree, so the heap
+ * usage of pages waiting to be visited stays flat however many links are discovered.
+ */
+public class SpillableFrontier extends AbstractQueue<SiteNode> implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SpillableFrontier.class);
+
+  private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+  private static final long NO_PARENT = -1L;
+  private static final int NULL_STRING = -1;
+  private static final double NO_PRIORITY = Double.NaN;
+
+  private final Queue<SiteNode> head;
+  private final int maxInMemory;
+  private final Path spillLocation;
+
+  private final Deque<Segment> segments = new ArrayDeque<>();
+  private final Map<SiteNode, SpilledParent> spilledParentsByNode = new IdentityHashMap<>();
+  private final Map<Long, SpilledParent> spilledParentsById = new HashMap<>();
+  private Path spillDirectory;
+  private long nextParentId;
+  private int nextSegmentNumber;
+  private int headSize;
+  private long spilledSize;
+
+  /**
+   * @param head          The queue holding the pages kept in memory, deciding the order in which they are polled.
+   * @param maxInMemory   The maximum number of pages kept in {@code head}.
+   * @param spillLocation The directory under which segment files are created.
+   */
+  public SpillableFrontier(Queue<SiteNode> head, int maxInMemory, Path spillLocation) {
+
+    this.head = head;
+    this.maxInMemory = Math.max(1, maxInMemory);
+    this.spillLocation = spillLocation;
+  }
+
+  @Override
+  public synchronized boolean offer(SiteNode siteNode) {
+
+    // Once pages are on disk, newer pages follow them so that discovery order is kept
+    if (spilledSize == 0 && headSize < maxInMemory) {
+
+      head.offer(siteNode);
+      headSize++;
+    } else {
+
+      spill(siteNode);
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized SiteNode poll() {
+
+    refill();
+    SiteNode siteNode = head.poll();
+    if (siteNode != null) headSize--;
+    return siteNode;
+  }
+
+  @Override
+  public synchronized SiteNode peek() {
+
+    refill();
+    return head.peek();
+  }
+
+  @Override
+  public synchronized int size() {
+    return (int) Math.min(Integer.MAX_VALUE, headSize + spilledSize);
+  }
+
+  /**
+   * Iterates over the in-memory pages, then decodes spilled pages one at a time so that the whole frontier is never
+   * loaded in memory. The frontier must not be modified while iterating.
+   */
+  @Override
+  public synchronized Iterator<SiteNode> iterator() {
+
+    Iterator<SiteNode> headIterator = new ArrayList<>(head).iterator();
+    Iterator<Segment> segmentIterator = new ArrayList<>(segments).iterator();
+
+    return new Iterator<SiteNode>() {
+
+      private ByteBuffer records;
+
+      @Override
+      public boolean hasNext() {
+
+        if (headIterator.hasNext()) return true;
+        while ((records == null || !records.hasRemaining()) && segmentIterator.hasNext()) {
+
+          Segment segment = segmentIterator.next();
+          records = segment.buffer.duplicate();
+          records.limit(records.position());
+          records.position(segment.readPosition);
+        }
+        return records != null && records.hasRemaining();
+      }
+
+      @Override
+      public SiteNode next() {
+
+        if (!hasNext()) throw new NoSuchElementException();
+        if (headIterator.hasNext()) return headIterator.next();
+        synchronized (SpillableFrontier.this) {
+          return readRecord(records, false);
+        }
+      }
+    };
+  }
+
+  @Override
+  public synchronized void close() {
+
+    head.clear();
+    headSize = 0;
+    deleteSegments();
+  }
+
+  private void refill() {
+
+    // Refill in batches so that the head never sits close to empty while pages wait on disk
+    if (spilledSize == 0 || headSize > maxInMemory / 2) return;
+
+    while (headSize < maxInMemory && spilledSize > 0) {
+
+      Segment segment = segments.peekFirst();
+      if (segment.readPosition == segment.buffer.position()) {
+
+        // Fully read, the segment still being written to is never in this state while pages are spilled
+        segments.pollFirst();
+        segment.delete();
+        continue;
+      }
+
+      ByteBuffer records = segment.buffer.duplicate();
+      records.position(segment.readPosition);
+      SiteNode siteNode = readRecord(records, true);
+      segment.readPosition = records.position();
+      spilledSize--;
+
+      head.offer(siteNode);
+      headSize++;
+    }
+
+    if (spilledSize == 0) deleteSegments();
+  }
+
+  private void spill(SiteNode siteNode) {
+
+    long parentId = NO_PARENT;
+    SiteNode parent = siteNode.getParent();
+    if (parent != null) {
+
+      SpilledParent spilledParent = spilledParentsByNode.get(parent);
+      if (spilledParent == null) {
+
+        spilledParent = new SpilledParent(nextParentId++, parent);
+        spilledParentsByNode.put(parent, spilledParent);
+        spilledParentsById.put(spilledParent.id, spilledParent);
+      }
+      spilledParent.pendingChildren++;
+      parentId = spilledParent.id;
+    }
+
+    byte[] url = toBytes(siteNode.getUrl());
+    byte[] referrer = toBytes(siteNode.getReferrer());
+    byte[] sitemapLastmod = toBytes(siteNode.getSitemapLastmod());
+    Double sitemapPriority = siteNode.getSitemapPriority();
+    int recordSize = Integer.BYTES + Long.BYTES + Integer.BYTES + length(url) + Integer.BYTES + length(referrer) +
+        Double.BYTES + Integer.BYTES + length(sitemapLastmod) + Long.BYTES;
+
+    try {
+
+      Segment segment = segments.peekLast();
+      if (segment == null || segment.buffer.remaining() < recordSize) {
+
+        segment = newSegment(Math.max(SEGMENT_SIZE, recordSize));
+        segments.addLast(segment);
+      }
+
+      MappedByteBuffer buffer = segment.buffer;
+      buffer.putInt(siteNode.getCurrentDepth());
+      buffer.putLong(parentId);
+      putBytes(buffer, url);
+      putBytes(buffer, referrer);
+      buffer.putDouble(sitemapPriority != null ? sitemapPriority : NO_PRIORITY);
+      putBytes(buffer, sitemapLastmod);
+      // Kept so that the queue wait of spilled pages includes the time spent on disk
+      buffer.putLong(siteNode.getQueuedNanos());
+      spilledSize++;
+
+    } catch (IOException e) {
+
+      throw new ModuleException(
+          String.format("Error while spilling crawl frontier to %s.", spillLocation),
+          WebCrawlerErrorType.CRAWL_OPERATIONS_FAILURE,
+          e);
+    }
+  }
+
+  private SiteNode readRecord(ByteBuffer records, boolean consume) {
+
+    int depth = records.getInt();
+    long parentId = records.getLong();
+    String url = getString(records);
+    String referrer = getString(records);
+    double sitemapPriority = records.getDouble();
+    String sitemapLastmod = getString(records);
+    long queuedNanos = records.getLong();
+
+    SiteNode parent = null;
+    if (parentId != NO_PARENT) {
+
+      SpilledParent spilledParent = spilledParentsById.get(parentId);
+      parent = spilledParent.node;
+      if (consume && --spilledParent.pendingChildren == 0) {
+
+        spilledParentsById.remove(parentId);
+        spilledParentsByNode.remove(spilledParent.node);
+      }
+    }
+
+    SiteNode siteNode = new SiteNode(url, depth, referrer, parent);
+    siteNode.setSitemapPriority(Double.isNaN(sitemapPriority) ? null : sitemapPriority);
+    siteNode.setSitemapLastmod(sitemapLastmod);
+    siteNode.setQueuedNanos(queuedNanos);
+    return siteNode;
+  }
+
+  private Segment newSegment(int size) throws IOException {
+
+    if (spillDirectory == null) {
+
+      Files.createDirectories(spillLocation);
+      spillDirectory = Files.createTempDirectory(spillLocation, ".frontier-");
+      LOGGER.debug(String.format("Spilling crawl frontier beyond %d pages to %s", maxInMemory, spillDirectory));
+    }
+    return new Segment(spillDirectory.resolve(String.format("segment-%06d.bin", nextSegmentNumber++)), size);
+  }
+
+  private void deleteSegments() {
+
+    while (!segments.isEmpty()) {
+      segments.pollFirst().delete();
+    }
+    spilledParentsById.clear();
+    spilledParentsByNode.clear();
+    spilledSize = 0;
+
+    if (spillDirectory != null) {
+
+      try {
+        Files.deleteIfExists(spillDirectory);
+      } catch (IOException e) {
+        LOGGER.debug(String.format("Unable to delete frontier directory %s", spillDirectory), e);
+      }
+      spillDirectory = null;
+    }
+  }
+
+  private static byte[] toBytes(String value) {
+    return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+  }
+
+  private static int length(byte[] bytes) {
+    return bytes != null ? bytes.length : 0;
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+
+    if (bytes == null) {
+
+      buffer.putInt(NULL_STRING);
+    } else {
+
+      buffer.putInt(bytes.length);
+      buffer.put(bytes);
+    }
+  }
+
+  private static String getString(ByteBuffer buffer) {
+
+    int length = buffer.getInt();
+    if (length == NULL_STRING) return null;
+
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static class SpilledParent {
+
+    private final long id;
+    private final SiteNode node;
+    private int pendingChildren;
+
+    private SpilledParent(long id, SiteNode node) {
+
+      this.id = id;
+      this.node = node;
+    }
+  }
+
+  /**
+   * Append-only segment file. The buffer position is the write position, records before {@code readPosition} have
+   * already been polled.
+   */
+  private static class Segment {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int readPosition;
+
+    private Segment(Path file, int size) throws IOException {
+
+      this.file = file;
+      this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                                      StandardOpenOption.WRITE);
+      this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private void delete() {
+
+      try {
+
+        channel.close();
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+
+        // The mapping may still pin the file on some platforms, it goes away with the JVM at the latest
+        file.toFile().deleteOnExit();
+        LOGGER.debug(String.format("Unable to delete frontier segment %s", file), e);
+      }
+    }
+  }
+}
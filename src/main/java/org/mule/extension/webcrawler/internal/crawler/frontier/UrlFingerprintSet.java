@@ -0,0 +1,246 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Set of visited URLs stored as 64-bit fingerprints in an open-addressing {@code long[]} table, about 16 bytes per
+ * URL instead of the few hundred bytes taken by a {@code HashSet<String>} entry.
+ * <p>
+ * Two distinct URLs sharing a fingerprint are very unlikely, but would make the second one look visited. With exact
+ * verification the UTF-8 bytes of every URL are also kept in an append-only arena, and URLs with the same fingerprint
+ * are told apart by comparing them.
+ * <p>
+ * {@code null} URLs are never added.
+ */
+public class UrlFingerprintSet implements VisitedUrlSet {
+
+  private static final int DEFAULT_CAPACITY = 1024;
+  private static final float LOAD_FACTOR = 0.7f;
+  private static final long EMPTY = 0L;
+
+  private final boolean exact;
+
+  private long[] fingerprints;
+  private int[] offsets;
+  private byte[] arena;
+  private int arenaSize;
+  private int size;
+  private int threshold;
+
+  public UrlFingerprintSet(boolean exact) {
+    this(DEFAULT_CAPACITY, exact);
+  }
+
+  /**
+   * @param expectedSize The number of URLs expected, to size the table upfront.
+   * @param exact        Whether to keep URLs to verify fingerprint matches.
+   */
+  public UrlFingerprintSet(int expectedSize, boolean exact) {
+
+    this.exact = exact;
+    int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+    this.fingerprints = new long[capacity];
+    this.threshold = (int) (capacity * LOAD_FACTOR);
+    if (exact) {
+
+      this.offsets = new int[capacity];
+      this.arena = new byte[capacity * 32];
+    }
+  }
+
+  @Override
+  public synchronized boolean add(String url) {
+
+    if (url == null) return false;
+
+    return add(fingerprint(url), exact ? url.getBytes(StandardCharsets.UTF_8) : null);
+  }
+
+  private boolean add(long fingerprint, byte[] bytes) {
+
+    int mask = fingerprints.length - 1;
+
+    for (int slot = (int) fingerprint & mask; ; slot = (slot + 1) & mask) {
+
+      long current = fingerprints[slot];
+      if (current == EMPTY) {
+
+        fingerprints[slot] = fingerprint;
+        if (exact) offsets[slot] = append(bytes);
+        if (++size > threshold) resize();
+        return true;
+      }
+      if (current == fingerprint && (!exact || matches(offsets[slot], bytes))) {
+        return false;
+      }
+    }
+  }
+
+  @Override
+  public synchronized boolean contains(String url) {
+
+    if (url == null) return false;
+
+    long fingerprint = fingerprint(url);
+    byte[] bytes = exact ? url.getBytes(StandardCharsets.UTF_8) : null;
+    int mask = fingerprints.length - 1;
+
+    for (int slot = (int) fingerprint & mask; ; slot = (slot + 1) & mask) {
+
+      long current = fingerprints[slot];
+      if (current == EMPTY) return false;
+      if (current == fingerprint && (!exact || matches(offsets[slot], bytes))) return true;
+    }
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  public boolean isExact() {
+    return exact;
+  }
+
+  @Override
+  public String getStrategy() {
+    return exact ? "fingerprint(exact)" : "fingerprint";
+  }
+
+  /**
+   * Writes the fingerprints and, with exact verification, the URLs.
+   */
+  @Override
+  public synchronized void writeTo(DataOutput out) throws IOException {
+
+    out.writeBoolean(exact);
+    out.writeInt(size);
+    for (int slot = 0; slot < fingerprints.length; slot++) {
+
+      if (fingerprints[slot] == EMPTY) continue;
+
+      out.writeLong(fingerprints[slot]);
+      if (exact) {
+
+        int offset = offsets[slot];
+        out.write(arena, offset, Integer.BYTES + length(offset));
+      }
+    }
+  }
+
+  /**
+   * Adds the fingerprints written by another set. A set with exact verification can only be restored from one that
+   * kept the URLs too.
+   */
+  @Override
+  public synchronized void readFrom(DataInput in) throws IOException {
+
+    boolean sourceExact = in.readBoolean();
+    if (exact && !sourceExact) {
+      throw new IOException("Visited URLs were saved without exact verification and cannot be verified.");
+    }
+
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+
+      long fingerprint = in.readLong();
+      byte[] bytes = null;
+      if (sourceExact) {
+
+        bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+      }
+      add(fingerprint, exact ? bytes : null);
+    }
+  }
+
+  /**
+   * FNV-1a over the UTF-16 chars of the URL, finished with the MurmurHash3 mixer so that all bits are usable for
+   * slot selection. Never returns the empty marker.
+   */
+  static long fingerprint(String url) {
+
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < url.length(); i++) {
+
+      hash ^= url.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash != EMPTY ? hash : 1L;
+  }
+
+  private int append(byte[] bytes) {
+
+    int required = arenaSize + Integer.BYTES + bytes.length;
+    if (required < 0) throw new IllegalStateException("Visited URL storage exceeds 2GB.");
+    if (required > arena.length) {
+      arena = Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, 2L * arena.length)));
+    }
+
+    int offset = arenaSize;
+    arena[offset] = (byte) (bytes.length >>> 24);
+    arena[offset + 1] = (byte) (bytes.length >>> 16);
+    arena[offset + 2] = (byte) (bytes.length >>> 8);
+    arena[offset + 3] = (byte) bytes.length;
+    System.arraycopy(bytes, 0, arena, offset + Integer.BYTES, bytes.length);
+    arenaSize = required;
+    return offset;
+  }
+
+  private int length(int offset) {
+
+    return ((arena[offset] & 0xff) << 24) | ((arena[offset + 1] & 0xff) << 16) |
+        ((arena[offset + 2] & 0xff) << 8) | (arena[offset + 3] & 0xff);
+  }
+
+  private boolean matches(int offset, byte[] bytes) {
+
+    int length = length(offset);
+    if (length != bytes.length) return false;
+
+    int start = offset + Integer.BYTES;
+    for (int i = 0; i < length; i++) {
+      if (arena[start + i] != bytes[i]) return false;
+    }
+    return true;
+  }
+
+  private void resize() {
+
+    long[] oldFingerprints = fingerprints;
+    int[] oldOffsets = offsets;
+
+    int capacity = oldFingerprints.length << 1;
+    int mask = capacity - 1;
+    fingerprints = new long[capacity];
+    if (exact) offsets = new int[capacity];
+    threshold = (int) (capacity * LOAD_FACTOR);
+
+    for (int i = 0; i < oldFingerprints.length; i++) {
+
+      long fingerprint = oldFingerprints[i];
+      if (fingerprint == EMPTY) continue;
+
+      int slot = (int) fingerprint & mask;
+      while (fingerprints[slot] != EMPTY) {
+        slot = (slot + 1) & mask;
+      }
+      fingerprints[slot] = fingerprint;
+      if (exact) offsets[slot] = oldOffsets[i];
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "UrlFingerprintSet{size=" + size + ", exact=" + exact + '}';
+  }
+}
@@ -0,0 +1,52 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import org.mule.extension.webcrawler.internal.constant.Constants;
+
+/**
+ * How a crawl tracks the URLs it has already queued.
+ */
+public class VisitedUrlOptions {
+
+  public static final VisitedUrlOptions EXACT = new VisitedUrlOptions(Constants.DedupStrategy.EXACT, 0, 0);
+
+  private final Constants.DedupStrategy dedupStrategy;
+  private final int expectedUrlCount;
+  private final double falsePositiveRate;
+
+  /**
+   * @param dedupStrategy     The tracking strategy, exact when {@code null}.
+   * @param expectedUrlCount  The number of URLs the Bloom filter is sized for (BLOOM_FILTER only).
+   * @param falsePositiveRate The accepted false-positive rate at the expected number of URLs (BLOOM_FILTER only).
+   */
+  public VisitedUrlOptions(Constants.DedupStrategy dedupStrategy, int expectedUrlCount, double falsePositiveRate) {
+
+    this.dedupStrategy = dedupStrategy != null ? dedupStrategy : Constants.DedupStrategy.EXACT;
+    this.expectedUrlCount = expectedUrlCount;
+    this.falsePositiveRate = falsePositiveRate;
+  }
+
+  /**
+   * @param verifyUrls If true, exact tracking also keeps URLs to rule out fingerprint collisions.
+   * @return An empty set tracking URLs as configured.
+   */
+  public VisitedUrlSet newVisitedUrlSet(boolean verifyUrls) {
+
+    if (dedupStrategy == Constants.DedupStrategy.BLOOM_FILTER) {
+      return new BloomFilterUrlSet(expectedUrlCount, falsePositiveRate);
+    }
+    return new UrlFingerprintSet(verifyUrls);
+  }
+
+  public Constants.DedupStrategy getDedupStrategy() {
+    return dedupStrategy;
+  }
+
+  @Override
+  public String toString() {
+    return "VisitedUrlOptions{" +
+        "dedupStrategy=" + dedupStrategy +
+        ", expectedUrlCount=" + expectedUrlCount +
+        ", falsePositiveRate=" + falsePositiveRate +
+        '}';
+  }
+}
@@ -0,0 +1,53 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * URLs already seen during a traversal.
+ */
+public interface VisitedUrlSet {
+
+  /**
+   * Adds the URL if not already present.
+   *
+   * @param url The URL to add.
+   * @return {@code true} if the URL was added, {@code false} if it was already present or is {@code null}.
+   */
+  boolean add(String url);
+
+  boolean contains(String url);
+
+  /**
+   * @return The number of URLs added.
+   */
+  int size();
+
+  /**
+   * @return How the set stores URLs, with the parameters its saved data depends on. A set is only restored from data
+   *         written by a set of the same strategy.
+   */
+  default String getStrategy() {
+    return getClass().getSimpleName();
+  }
+
+  /**
+   * Writes the URLs of the set so that they can be restored by {@link #readFrom(DataInput)}.
+   *
+   * @throws UnsupportedOperationException If the set cannot be saved.
+   */
+  default void writeTo(DataOutput out) throws IOException {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be saved.");
+  }
+
+  /**
+   * Adds the URLs written by {@link #writeTo(DataOutput)}.
+   *
+   * @throws IOException                   If the data cannot be read or was written by an incompatible set.
+   * @throws UnsupportedOperationException If the set cannot be restored.
+   */
+  default void readFrom(DataInput in) throws IOException {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be restored.");
+  }
+}
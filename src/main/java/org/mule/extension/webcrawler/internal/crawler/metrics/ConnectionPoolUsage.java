@@ -0,0 +1,98 @@
+package org.mule.extension.webcrawler.internal.crawler.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Requests in progress over the connections of a connection provider, bounded by the maximum number of connections.
+ * Shared by all connections of the provider, so that the limit holds across operations and crawls. A request is in
+ * progress from the time it is sent until its response body is closed, the connection being busy until then.
+ */
+public class ConnectionPoolUsage {
+
+  private final int maxConnections;
+  private final Semaphore connections;
+
+  private final AtomicInteger activeRequests = new AtomicInteger();
+  private final AtomicInteger peakActiveRequests = new AtomicInteger();
+  private final AtomicInteger waitingRequests = new AtomicInteger();
+  private final LongAdder requests = new LongAdder();
+  private final LatencyHistogram connectionWaitTime = new LatencyHistogram();
+
+  /**
+   * @param maxConnections The maximum number of requests in progress, 0 or less for no limit.
+   */
+  public ConnectionPoolUsage(int maxConnections) {
+
+    this.maxConnections = maxConnections;
+    this.connections = maxConnections > 0 ? new Semaphore(maxConnections, true) : null;
+  }
+
+  /**
+   * Waits until a connection is available for a request. Every call must be followed by a call to {@link #release()}
+   * once the request is complete.
+   */
+  public void acquire() throws InterruptedException {
+
+    if (connections != null) {
+
+      long start = System.nanoTime();
+      waitingRequests.incrementAndGet();
+      try {
+        connections.acquire();
+      } finally {
+        waitingRequests.decrementAndGet();
+      }
+      connectionWaitTime.recordNanos(System.nanoTime() - start);
+    }
+
+    requests.increment();
+    peakActiveRequests.accumulateAndGet(activeRequests.incrementAndGet(), Math::max);
+  }
+
+  public void release() {
+
+    activeRequests.decrementAndGet();
+    if (connections != null) connections.release();
+  }
+
+  public int getActiveRequests() {
+    return activeRequests.get();
+  }
+
+  public int getPeakActiveRequests() {
+    return peakActiveRequests.get();
+  }
+
+  /**
+   * @return The requests waiting for a connection.
+   */
+  public int getWaitingRequests() {
+    return waitingRequests.get();
+  }
+
+  /**
+   * Clears the figures, but the requests in progress or waiting.
+   */
+  public void reset() {
+
+    peakActiveRequests.set(activeRequests.get());
+    requests.reset();
+    connectionWaitTime.reset();
+  }
+
+  public Map<String, Object> toMap() {
+
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("maxConnections", maxConnections);
+    map.put("requests", requests.sum());
+    map.put("activeRequests", getActiveRequests());
+    map.put("peakActiveRequests", getPeakActiveRequests());
+    map.put("waitingRequests", getWaitingRequests());
+    map.put("connectionWaitTime", connectionWaitTime.toMap());
+    return map;
+  }
+}
@@ -0,0 +1,280 @@
+package org.mule.extension.webcrawler.internal.crawler.metrics;
+
+import org.mule.extension.webcrawler.internal.crawler.frontier.HostPolitenessScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the crawls run with a configuration: pages and bytes fetched, fetch latency per host, parse and content
+ * conversion times, pages queued and errors by class. Crawls record into it while running, so figures can be read
+ * from JMX or the get-crawl-stats operation during a crawl.
+ */
+public class CrawlMetrics implements CrawlStatsMXBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CrawlMetrics.class);
+
+  private static final String OBJECT_NAME_PREFIX = "org.mule.extension.webcrawler:type=CrawlStats,name=";
+
+  // Hosts beyond this number share a histogram, to keep memory bounded on crawls spanning many hosts
+  private static final int MAX_TRACKED_HOSTS = 256;
+  private static final String OTHER_HOSTS = "(other)";
+
+  private final LongAdder pagesFetched = new LongAdder();
+  private final LongAdder bytesDownloaded = new LongAdder();
+  private final LongAdder bytesReceived = new LongAdder();
+  private final LatencyHistogram fetchLatency = new LatencyHistogram();
+  private final Map<String, LatencyHistogram> fetchLatencyPerHost = new ConcurrentHashMap<>();
+  private final LatencyHistogram parseTime = new LatencyHistogram();
+  private final LatencyHistogram convertTime = new LatencyHistogram();
+  private final Map<String, LongAdder> errorCounts = new ConcurrentHashMap<>();
+  private final Map<Object, Integer> queueDepths = new ConcurrentHashMap<>();
+  private volatile ConnectionPoolUsage connectionPoolUsage;
+  private volatile long startNanos = System.nanoTime();
+  private ObjectName objectName;
+
+  /**
+   * Registers the metrics as an MBean, replacing the MBean of a previous configuration with the same name.
+   */
+  public synchronized void registerMBean(String configName) {
+
+    try {
+
+      MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(configName != null ? configName : "config"));
+      if (mBeanServer.isRegistered(name)) mBeanServer.unregisterMBean(name);
+      mBeanServer.registerMBean(this, name);
+      objectName = name;
+
+    } catch (JMException e) {
+      LOGGER.warn(String.format("Unable to register crawl metrics of %s with JMX: %s", configName, e.getMessage()));
+    }
+  }
+
+  public synchronized void unregisterMBean() {
+
+    if (objectName == null) return;
+    try {
+
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+
+    } catch (JMException e) {
+      LOGGER.debug(String.format("Unable to unregister %s", objectName), e);
+    } finally {
+      objectName = null;
+    }
+  }
+
+  public void crawlStarted(Object crawl) {
+    queueDepths.put(crawl, 0);
+  }
+
+  public void crawlFinished(Object crawl) {
+    queueDepths.remove(crawl);
+  }
+
+  /**
+   * Sets the usage of the connection pool crawls run over, reported along with the crawl metrics.
+   */
+  public void setConnectionPoolUsage(ConnectionPoolUsage connectionPoolUsage) {
+    this.connectionPoolUsage = connectionPoolUsage;
+  }
+
+  /**
+   * @param crawl The running crawl, as passed to {@link #crawlStarted(Object)}.
+   * @param depth The number of pages it has queued.
+   */
+  public void recordQueueDepth(Object crawl, int depth) {
+    queueDepths.computeIfPresent(crawl, (k, v) -> depth);
+  }
+
+  /**
+   * Records a page fetched, from the request sent to the source read, without waiting on politeness delays.
+   *
+   * @param bytes         The size of the page source.
+   * @param bytesReceived The size of the page source as received, smaller than its size if compressed.
+   */
+  public void recordFetch(String url, long nanos, long bytes, long bytesReceived) {
+
+    pagesFetched.increment();
+    bytesDownloaded.add(bytes);
+    this.bytesReceived.add(bytesReceived);
+    fetchLatency.recordNanos(nanos);
+
+    String host = HostPolitenessScheduler.getHost(url);
+    LatencyHistogram hostLatency = fetchLatencyPerHost.get(host);
+    if (hostLatency == null) {
+      hostLatency = fetchLatencyPerHost.computeIfAbsent(
+          fetchLatencyPerHost.size() < MAX_TRACKED_HOSTS ? host : OTHER_HOSTS, h -> new LatencyHistogram());
+    }
+    hostLatency.recordNanos(nanos);
+  }
+
+  public void recordParse(long nanos) {
+    parseTime.recordNanos(nanos);
+  }
+
+  /**
+   * Records the time spent getting the content of a page in the output format.
+   */
+  public void recordConvert(long nanos) {
+    convertTime.recordNanos(nanos);
+  }
+
+  public void recordError(Throwable error) {
+    errorCounts.computeIfAbsent(error.getClass().getName(), k -> new LongAdder()).increment();
+  }
+
+  @Override
+  public int getActiveCrawls() {
+    return queueDepths.size();
+  }
+
+  @Override
+  public long getPagesFetched() {
+    return pagesFetched.sum();
+  }
+
+  /**
+   * @return The pages fetched per second since the metrics were created or reset.
+   */
+  @Override
+  public double getPagesPerSecond() {
+
+    double seconds = (System.nanoTime() - startNanos) / 1e9;
+    return seconds > 0 ? Math.round(pagesFetched.sum() / seconds * 100) / 100.0 : 0;
+  }
+
+  @Override
+  public long getBytesDownloaded() {
+    return bytesDownloaded.sum();
+  }
+
+  @Override
+  public long getBytesReceived() {
+    return bytesReceived.sum();
+  }
+
+  /**
+   * @return The pages queued by all running crawls.
+   */
+  @Override
+  public int getQueueDepth() {
+
+    int depth = 0;
+    for (int crawlDepth : queueDepths.values()) {
+      depth += crawlDepth;
+    }
+    return depth;
+  }
+
+  @Override
+  public long getErrorCount() {
+
+    long count = 0;
+    for (LongAdder errorCount : errorCounts.values()) {
+      count += errorCount.sum();
+    }
+    return count;
+  }
+
+  @Override
+  public Map<String, Long> getErrorCounts() {
+
+    Map<String, Long> counts = new TreeMap<>();
+    errorCounts.forEach((errorClass, count) -> counts.put(errorClass, count.sum()));
+    return counts;
+  }
+
+  @Override
+  public double getFetchLatencyP50Millis() {
+    return fetchLatency.getPercentileMillis(50);
+  }
+
+  @Override
+  public double getFetchLatencyP99Millis() {
+    return fetchLatency.getPercentileMillis(99);
+  }
+
+  @Override
+  public Map<String, Double> getFetchLatencyP99MillisPerHost() {
+
+    Map<String, Double> latencies = new TreeMap<>();
+    fetchLatencyPerHost.forEach((host, histogram) -> latencies.put(host, histogram.getPercentileMillis(99)));
+    return latencies;
+  }
+
+  @Override
+  public double getParseTimeP50Millis() {
+    return parseTime.getPercentileMillis(50);
+  }
+
+  @Override
+  public double getConvertTimeP50Millis() {
+    return convertTime.getPercentileMillis(50);
+  }
+
+  @Override
+  public int getActiveRequests() {
+    return connectionPoolUsage != null ? connectionPoolUsage.getActiveRequests() : 0;
+  }
+
+  @Override
+  public int getPeakActiveRequests() {
+    return connectionPoolUsage != null ? connectionPoolUsage.getPeakActiveRequests() : 0;
+  }
+
+  @Override
+  public int getRequestsWaitingForConnection() {
+    return connectionPoolUsage != null ? connectionPoolUsage.getWaitingRequests() : 0;
+  }
+
+  /**
+   * Clears all figures but the pages queued by running crawls.
+   */
+  @Override
+  public void reset() {
+
+    pagesFetched.reset();
+    bytesDownloaded.reset();
+    bytesReceived.reset();
+    fetchLatency.reset();
+    fetchLatencyPerHost.clear();
+    parseTime.reset();
+    convertTime.reset();
+    errorCounts.clear();
+    if (connectionPoolUsage != null) connectionPoolUsage.reset();
+    startNanos = System.nanoTime();
+  }
+
+  public Map<String, Object> toMap() {
+
+    Map<String, Object> hosts = new TreeMap<>();
+    fetchLatencyPerHost.forEach((host, histogram) -> hosts.put(host, histogram.toMap()));
+
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("activeCrawls", getActiveCrawls());
+    map.put("pagesFetched", getPagesFetched());
+    map.put("pagesPerSecond", getPagesPerSecond());
+    map.put("bytesDownloaded", getBytesDownloaded());
+    map.put("bytesReceived", getBytesReceived());
+    map.put("queueDepth", getQueueDepth());
+    map.put("errorCount", getErrorCount());
+    map.put("errors", getErrorCounts());
+    map.put("fetchLatency", fetchLatency.toMap());
+    map.put("fetchLatencyPerHost", hosts);
+    map.put("parseTime", parseTime.toMap());
+    map.put("convertTime", convertTime.toMap());
+    if (connectionPoolUsage != null) map.put("connectionPool", connectionPoolUsage.toMap());
+    return map;
+  }
+}
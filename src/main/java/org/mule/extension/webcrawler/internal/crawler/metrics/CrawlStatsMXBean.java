@@ -0,0 +1,53 @@
+package org.mule.extension.webcrawler.internal.crawler.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of the crawl metrics of a configuration, registered under
+ * {@code org.mule.extension.webcrawler:type=CrawlStats,name=<config name>}. Durations are in milliseconds.
+ */
+public interface CrawlStatsMXBean {
+
+  int getActiveCrawls();
+
+  long getPagesFetched();
+
+  double getPagesPerSecond();
+
+  long getBytesDownloaded();
+
+  /**
+   * @return The bytes received for the pages fetched, fewer than downloaded when pages are compressed.
+   */
+  long getBytesReceived();
+
+  int getQueueDepth();
+
+  long getErrorCount();
+
+  Map<String, Long> getErrorCounts();
+
+  double getFetchLatencyP50Millis();
+
+  double getFetchLatencyP99Millis();
+
+  Map<String, Double> getFetchLatencyP99MillisPerHost();
+
+  double getParseTimeP50Millis();
+
+  double getConvertTimeP50Millis();
+
+  /**
+   * @return The HTTP requests in progress over the connections crawls run over.
+   */
+  int getActiveRequests();
+
+  int getPeakActiveRequests();
+
+  /**
+   * @return The HTTP requests waiting for the maximum number of connections.
+   */
+  int getRequestsWaitingForConnection();
+
+  void reset();
+}
@@ -0,0 +1,112 @@
+package org.mule.extension.webcrawler.internal.crawler.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in the manner of HdrHistogram: values are counted in buckets whose width doubles with each
+ * power of two, each split into {@value #SUB_BUCKET_COUNT} sub-buckets, so that percentiles are within about 2% of the
+ * recorded values from a microsecond up to an hour, in fixed memory and without locking.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 6;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final long MAX_VALUE_MICROS = 3_600_000_000L;
+  private static final int BUCKET_COUNT = getIndex(MAX_VALUE_MICROS) + 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalMicros = new LongAdder();
+  private final AtomicLong maxMicros = new AtomicLong();
+
+  public void recordNanos(long nanos) {
+
+    long micros = Math.min(MAX_VALUE_MICROS, Math.max(0, nanos / 1_000));
+    counts.incrementAndGet(getIndex(micros));
+    count.increment();
+    totalMicros.add(micros);
+    maxMicros.accumulateAndGet(micros, Math::max);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public double getMeanMillis() {
+
+    long n = count.sum();
+    return n > 0 ? totalMicros.sum() / 1_000.0 / n : 0;
+  }
+
+  public double getMaxMillis() {
+    return maxMicros.get() / 1_000.0;
+  }
+
+  /**
+   * @param percentile The percentile, between 0 and 100.
+   * @return The value below which the given percentage of recorded values fall, 0 if none was recorded.
+   */
+  public double getPercentileMillis(double percentile) {
+
+    long n = count.sum();
+    if (n == 0) return 0;
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+
+      seen += counts.get(i);
+      if (seen >= rank) return Math.min(getHighestValue(i), maxMicros.get()) / 1_000.0;
+    }
+    return getMaxMillis();
+  }
+
+  public void reset() {
+
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts.set(i, 0);
+    }
+    count.reset();
+    totalMicros.reset();
+    maxMicros.set(0);
+  }
+
+  public Map<String, Object> toMap() {
+
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("count", getCount());
+    map.put("meanMillis", round(getMeanMillis()));
+    map.put("p50Millis", round(getPercentileMillis(50)));
+    map.put("p90Millis", round(getPercentileMillis(90)));
+    map.put("p99Millis", round(getPercentileMillis(99)));
+    map.put("maxMillis", round(getMaxMillis()));
+    return map;
+  }
+
+  /**
+   * Values below twice the sub-bucket count have a bucket each, larger values share buckets {@code 2^shift} wide.
+   */
+  private static int getIndex(long micros) {
+
+    if (micros < 2 * SUB_BUCKET_COUNT) return (int) micros;
+
+    int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKET_COUNT + (int) (micros >>> shift) - SUB_BUCKET_COUNT;
+  }
+
+  private static long getHighestValue(int index) {
+
+    if (index < 2 * SUB_BUCKET_COUNT) return index;
+
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    return ((long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift) + (1L << shift) - 1;
+  }
+
+  private static double round(double millis) {
+    return Math.round(millis * 100) / 100.0;
+  }
+}
@@ -3,22 +3,49 @@ package org.mule.extension.webcrawler.internal.crawler.mule;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.jsoup.nodes.Document;
+import org.mule.extension.webcrawler.api.metadata.PageTimings;
+import org.mule.extension.webcrawler.internal.config.CrawlerOptions;
 import org.mule.extension.webcrawler.internal.config.PageLoadOptions;
 import org.mule.extension.webcrawler.internal.config.WebCrawlerConfiguration;
+import org.mule.extension.webcrawler.internal.connection.PageSource;
 import org.mule.extension.webcrawler.internal.connection.WebCrawlerConnection;
 import org.mule.extension.webcrawler.internal.constant.Constants;
 import org.mule.extension.webcrawler.internal.constant.Constants.RegexUrlsFilterLogic;
+import org.mule.extension.webcrawler.internal.crawler.CrawlBudget;
 import org.mule.extension.webcrawler.internal.crawler.Crawler;
+import org.mule.extension.webcrawler.internal.crawler.checkpoint.CrawlCheckpoint;
+import org.mule.extension.webcrawler.internal.crawler.CrawlerTrapDetector;
+import org.mule.extension.webcrawler.internal.crawler.checkpoint.CheckpointOptions;
+import org.mule.extension.webcrawler.internal.crawler.distributed.DistributedCrawlCoordinator;
+import org.mule.extension.webcrawler.internal.crawler.distributed.DistributedFrontier;
+import org.mule.extension.webcrawler.internal.crawler.distributed.SharedVisitedUrlSet;
+import org.mule.extension.webcrawler.internal.crawler.frontier.FrontierPolicy;
+import org.mule.extension.webcrawler.internal.crawler.frontier.HostAwareFrontier;
+import org.mule.extension.webcrawler.internal.crawler.frontier.HostConcurrencyLimiter;
+import org.mule.extension.webcrawler.internal.crawler.frontier.SpillableFrontier;
+import org.mule.extension.webcrawler.internal.crawler.frontier.VisitedUrlSet;
+import org.mule.extension.webcrawler.internal.crawler.pipeline.CrawlPipeline;
+import org.mule.extension.webcrawler.internal.crawler.pipeline.StageHandler;
+import org.mule.extension.webcrawler.internal.crawler.sitemap.SitemapReader;
+import org.mule.extension.webcrawler.internal.crawler.state.PageStateStore;
 import org.mule.extension.webcrawler.internal.error.WebCrawlerErrorType;
 import org.mule.extension.webcrawler.internal.helper.page.PageHelper;
+import org.mule.extension.webcrawler.internal.util.URLCanonicalizer;
+import org.mule.extension.webcrawler.internal.util.ExecutorUtils;
 import org.mule.extension.webcrawler.internal.util.URLUtils;
-import org.mule.extension.webcrawler.internal.util.Utils;
 import org.mule.runtime.extension.api.exception.ModuleException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.*;
 
 public class MuleCrawler extends Crawler {
 
@@ -27,6 +54,13 @@ public class MuleCrawler extends Crawler {
   private static final String CRAWLED_IMAGES_FOLDER = "images/";
   private static final String CRAWLED_DOCUMENTS_FOLDER = "docs/";
 
+  // Pages at max depth validated per batch, as a multiple of the validation concurrency
+  private static final int LEAF_BATCH_FACTOR = 8;
+
+  private int pagesSinceCheckpoint;
+  private FrontierPolicy frontierPolicy;
+  private final HostConcurrencyLimiter hostConcurrencyLimiter;
+
   public MuleCrawler(WebCrawlerConfiguration configuration, WebCrawlerConnection connection, String originalUrl, Long waitOnPageLoad,
                      String waitForXPath, boolean extractShadowDom, String shadowHostXPath, int maxDepth, boolean restrictToPath,
                      boolean downloadImages, int maxImageNumber, boolean downloadDocuments, int maxDocumentNumber, String downloadPath,
@@ -36,122 +70,889 @@ public class MuleCrawler extends Crawler {
     super(configuration, connection, originalUrl, waitOnPageLoad, waitForXPath,  extractShadowDom, shadowHostXPath,
           maxDepth, restrictToPath, downloadImages, maxImageNumber, downloadDocuments, maxDocumentNumber, downloadPath,
           contentTags, outputFormat, getMetaTags, regexUrlsFilterLogic, regexUrls);
+    this.hostConcurrencyLimiter = new HostConcurrencyLimiter(configuration.getCrawlerOptions().getMaxConcurrencyPerHost());
   }
 
   @Override
   public SiteNode crawl() {
 
-    siteNodeQueue = new LinkedList<>();
-    visitedLinksGlobal = new HashSet<>();
+    if (distributedCrawl != null) return crawlDistributed();
 
-    String rootURLCleaned = URLUtils.cleanURL(rootURL);
+    siteNodeQueue = newFrontier(downloadPath);
+    visitedLinksGlobal = newVisitedLinks();
+    pagesSinceCheckpoint = 0;
+    pageStateStore = incremental ? loadPageStateStore() : null;
+    unchangedPageCount.set(0);
+    pipelineStats = null;
+    budget.start();
+    trapDetector.start();
 
-    SiteNode rootNode = new SiteNode(rootURLCleaned, 0, connection.getReferrer());
-    siteNodeQueue.add(rootNode);
-    visitedLinksGlobal.add(rootURLCleaned);
+    SiteNode rootNode = resumeFromCheckpoint();
+    if (rootNode == null) {
+
+      String rootURLCleaned = urlCanonicalizer.canonicalize(rootURL);
+
+      rootNode = new SiteNode(rootURLCleaned, 0, connection.getReferrer());
+      siteNodeQueue.add(rootNode);
+      visitedLinksGlobal.add(rootURLCleaned);
+      seedFromSitemaps(rootNode);
+    }
 
     // Restart the driver for each new crawl, mainly to keep memory usage as low
     // as possible for Chrome and reduce chances of a container OOM kill
     connection.restartDriver();
 
-    while(!siteNodeQueue.isEmpty()) {
+    crawlStarted();
+    try {
 
-      try {
+      int concurrency = getEffectiveConcurrency();
+      if (configuration.getCrawlerOptions().isPipelined() && connection.isConcurrentFetchSupported()) {
 
-        SiteNode currentNode = siteNodeQueue.poll();
+        LOGGER.debug("Crawling with a pipeline of stages");
+        crawlPipelined(rootNode);
+      } else if (concurrency > 1) {
 
-        if(configuration.getCrawlerOptions().isEnforceRobotsTxt() && !PageHelper.canCrawl(currentNode.getUrl(), connection.getUserAgent())) {
-          LOGGER.debug("SKIPPING url due to robots.txt: " + currentNode.getUrl());
-          continue;
+        LOGGER.debug(String.format("Crawling with %d concurrent workers", concurrency));
+        crawlConcurrently(concurrency, rootNode);
+      } else {
+
+        SiteNode currentNode;
+        while((currentNode = nextPage()) != null) {
+
+          crawlPage(currentNode);
+          pagesSinceCheckpoint++;
+          if (isCheckpointDue()) writeCheckpoint(rootNode);
         }
+      }
+      savePageStateStore();
+      if (budget.getExhausted() != null) {
+
+        LOGGER.info(String.format("Crawl budget %s exhausted after %d pages, returning pages crawled so far.",
+                                  budget.getExhausted(), budget.getPages()));
+        // Pages left can still be crawled by resuming from the checkpoint
+        if (checkpointOptions.getInterval() > 0) writeCheckpoint(rootNode);
+      } else {
+
+        deleteCheckpoint();
+      }
+    } finally {
+
+      configuration.getMetrics().crawlFinished(this);
+      closeFrontier();
+    }
+    return rootNode;
+  }
+
+  /**
+   * Crawls as one of the workers of a distributed crawl: links found are written to the shared frontier, and each
+   * thread of this worker crawls the pages of the partitions it leases until no page is left in any partition. The
+   * crawl budget applies to this worker only, incremental crawls and checkpoints are not supported.
+   *
+   * @return The tree of the pages crawled by all workers.
+   */
+  private SiteNode crawlDistributed() {
+
+    siteNodeQueue = new DistributedFrontier(distributedCrawl);
+    visitedLinksGlobal = new SharedVisitedUrlSet(distributedCrawl);
+    pageStateStore = null;
+    unchangedPageCount.set(0);
+    pipelineStats = null;
+    budget.start();
+    trapDetector.start();
+
+    String rootURLCleaned = urlCanonicalizer.canonicalize(rootURL);
+    frontierPolicy = FrontierPolicy.of(crawlOrder, rootURLCleaned);
+
+    // The first worker to start seeds the frontier, the others pick up from there
+    if (visitedLinksGlobal.add(rootURLCleaned)) {
+
+      SiteNode rootNode = new SiteNode(rootURLCleaned, 0, connection.getReferrer());
+      siteNodeQueue.add(rootNode);
+      seedFromSitemaps(rootNode);
+    }
 
-        LOGGER.debug("CRAWLING url: " + currentNode.getUrl());
+    connection.restartDriver();
+
+    int concurrency = getEffectiveConcurrency();
+    LOGGER.debug(String.format("Crawling as worker %s with %d threads", distributedCrawl.getWorkerId(), concurrency));
+
+    ExecutorService executor = ExecutorUtils.newExecutor(configuration.getCrawlerOptions().getExecutionMode(), concurrency,
+                                                         "webcrawler-distributed-");
+    crawlStarted();
+    try {
+
+      List<Future<?>> workers = new ArrayList<>();
+      for (int i = 0; i < concurrency; i++) {
+        workers.add(executor.submit(() -> crawlPartitions(rootURLCleaned)));
+      }
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+    } catch (InterruptedException e) {
 
-        // add delay
-        Utils.addDelay(configuration.getCrawlerOptions().getDelayMillis());
+      LOGGER.warn("Crawl interrupted, returning pages crawled so far.");
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
 
-        Document document = PageHelper.getDocument(configuration, connection, currentNode.getUrl(), currentNode.getReferrer(),
-                                                   new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath));
+      throw new ModuleException(
+          String.format("Error while crawling %s as worker %s.", rootURLCleaned, distributedCrawl.getWorkerId()),
+          WebCrawlerErrorType.CRAWL_OPERATIONS_FAILURE,
+          e.getCause());
+    } finally {
+
+      configuration.getMetrics().crawlFinished(this);
+      executor.shutdownNow();
+    }
+
+    if (budget.getExhausted() != null) {
+
+      LOGGER.info(String.format("Crawl budget %s exhausted after %d pages, leaving pages left to other workers.",
+                                budget.getExhausted(), budget.getPages()));
+    }
+    return distributedCrawl.mergeTree(rootURLCleaned);
+  }
+
+  /**
+   * Crawls the pages of leased partitions, waiting for partitions to be available or for pages to be found by other
+   * workers, until the crawl is over or the budget of this worker is exhausted.
+   */
+  private void crawlPartitions(String rootURL) {
+
+    while (!budget.checkExhausted()) {
+
+      Integer partition = distributedCrawl.claimPartition();
+      if (partition == null) {
+
+        if (distributedCrawl.isDone(rootURL)) return;
+        try {
+
+          Thread.sleep(distributedCrawl.getPollIntervalMillis());
+
+        } catch (InterruptedException e) {
+
+          Thread.currentThread().interrupt();
+          return;
+        }
+        continue;
+      }
+
+      try {
 
-        // Create Map to hold all data for the current page - this will be serialized to
-        // JSON and saved to file
-        JSONObject pageData = new JSONObject();
+        for (DistributedCrawlCoordinator.WorkItem workItem : distributedCrawl.getPendingItems(partition)) {
 
-        pageData.put("url", currentNode.getUrl());
-        pageData.put("title", document.title());
+          if (budget.checkExhausted()) break;
 
-        if (downloadImages) {
+          budget.countPage();
+          SiteNode currentNode = workItem.toSiteNode();
+          crawlPage(currentNode);
+          distributedCrawl.complete(workItem, currentNode);
 
-          LOGGER.debug("Downloading images for : " + currentNode.getUrl());
-          pageData.put("imageFiles", PageHelper.downloadWebsiteImages(document, downloadPath, CRAWLED_IMAGES_FOLDER, maxImageNumber));
+          // Pages left are crawled by the worker taking over the partition
+          if (!distributedCrawl.renewLease(partition)) break;
         }
+      } finally {
 
-        if (downloadDocuments) {
+        distributedCrawl.releasePartition(partition);
+      }
+    }
+  }
+
+  /**
+   * Keeps up to {@code concurrency} pages in flight. Workers expand links straight into the shared frontier,
+   * so the crawl is over once nothing is in flight and the frontier is empty. When a checkpoint is due, no more
+   * pages are dispatched until the ones in flight are done, so that the checkpoint is consistent.
+   */
+  private void crawlConcurrently(int concurrency, SiteNode rootNode) {
+
+    ExecutorService executor = ExecutorUtils.newExecutor(configuration.getCrawlerOptions().getExecutionMode(), concurrency,
+                                                         "webcrawler-worker-");
+    CompletionService<SiteNode> completionService = new ExecutorCompletionService<>(executor);
+    int inFlight = 0;
+
+    try {
 
-          LOGGER.debug("Downloading documents for : " + currentNode.getUrl());
-          pageData.put("documentFiles", PageHelper.downloadFiles(document, downloadPath, CRAWLED_DOCUMENTS_FOLDER, maxDocumentNumber));
+      while (true) {
+
+        SiteNode nextNode;
+        while (inFlight < concurrency && !isCheckpointDue() && (nextNode = nextPage()) != null) {
+
+          SiteNode currentNode = nextNode;
+          completionService.submit(() -> crawlPage(currentNode), currentNode);
+          inFlight++;
         }
 
-        // get all meta tags from the document
-        if (getMetaTags) {
+        if (inFlight == 0) {
 
-          JSONArray pageMetaTags = PageHelper.getPageMetaTags(document);
-          pageData.put("metaTags", pageMetaTags);
+          if (!isCheckpointDue()) break;
+          writeCheckpoint(rootNode);
+          continue;
         }
 
-        // get page contents
-        pageData.put("content", PageHelper.getPageContent(document, contentTags, outputFormat));
+        completionService.take();
+        inFlight--;
+        pagesSinceCheckpoint++;
+      }
+    } catch (InterruptedException e) {
 
-        // save gathered data of page to file
-        String filename = PageHelper.savePageContents(pageData, downloadPath, document.title());
+      LOGGER.warn("Crawl interrupted, returning pages crawled so far.");
+      Thread.currentThread().interrupt();
+    } finally {
 
-        // Update filename in the current node
-        currentNode.setFilename(filename);
+      executor.shutdownNow();
+    }
+  }
 
-        // If not at max depth, find and crawl the links on the page
-        if (currentNode.getCurrentDepth() < maxDepth) {
+  private void crawlPage(SiteNode currentNode) {
 
-          // get all links on the current page
-          Set<String> links = getPageLinks(document);
-          if (links != null && !links.isEmpty()) {
+    CrawlTask task = new CrawlTask(currentNode);
+    try {
 
-            LOGGER.debug(String.format("Found %d links on page: %s", links.size(), currentNode.getUrl()));
+      boolean parsed;
+      try {
+        parsed = fetchPage(task) && parsePage(task);
+      } finally {
+        releaseHost(task);
+      }
+      if (parsed && extractPage(task)) persistPage(task);
 
-            for (String childURL : links) {
+    } catch (InterruptedException e) {
 
-              String childURLCleaned = URLUtils.cleanURL(childURL);
+      // Crawl stopping, the page is left out
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
 
-              // Check if this URL has already been visited at this depth
-              if (!visitedLinksGlobal.contains(childURLCleaned)) {
+      configuration.getMetrics().recordError(e);
+      LOGGER.error(e.getMessage(), e);
+    }
+  }
 
-                visitedLinksGlobal.add(childURLCleaned);
-                SiteNode childNode = new SiteNode(childURLCleaned, currentNode.getCurrentDepth() + 1, currentNode.getUrl());
-                siteNodeQueue.add(childNode);
-                currentNode.getChildren().add(childNode);
-              }
-            }
-          }
+  /**
+   * Runs the stages of {@link #crawlPage(SiteNode)} on separate workers joined by bounded queues, so that fetching
+   * pages overlaps with parsing, extracting and saving the ones already fetched. As with concurrent crawls, no more
+   * pages are dispatched while a checkpoint is due until the pipeline is drained.
+   */
+  private void crawlPipelined(SiteNode rootNode) {
+
+    CrawlerOptions crawlerOptions = configuration.getCrawlerOptions();
+    BlockingQueue<CrawlTask> completed = new LinkedBlockingQueue<>();
+    CrawlPipeline<CrawlTask> pipeline = new CrawlPipeline<CrawlTask>(crawlerOptions.getExecutionMode(),
+                                                                     crawlerOptions.getStageQueueCapacity(), completed::add)
+        .stage("fetch", getEffectiveConcurrency(), countingErrors(this::fetchAndBufferPage))
+        .stage("parse", crawlerOptions.getParseWorkers(), countingErrors(this::parsePage))
+        .stage("extract", crawlerOptions.getExtractWorkers(), countingErrors(this::extractPage))
+        .stage("persist", crawlerOptions.getPersistWorkers(), countingErrors(this::persistPage))
+        .start();
+
+    // Dispatching no more than the pipeline holds, submitting never blocks
+    int capacity = pipeline.getCapacity();
+    int inFlight = 0;
+
+    try {
+
+      while (true) {
+
+        SiteNode nextNode;
+        while (inFlight < capacity && !isCheckpointDue() && (nextNode = nextPage()) != null) {
+
+          pipeline.submit(new CrawlTask(nextNode));
+          inFlight++;
+        }
+
+        if (inFlight == 0) {
+
+          if (!isCheckpointDue()) break;
+          writeCheckpoint(rootNode);
+          continue;
         }
+
+        completed.take();
+        inFlight--;
+        pagesSinceCheckpoint++;
+      }
+    } catch (InterruptedException e) {
+
+      LOGGER.warn("Crawl interrupted, returning pages crawled so far.");
+      Thread.currentThread().interrupt();
+    } finally {
+
+      pipelineStats = pipeline.getStats();
+      LOGGER.debug(String.format("Crawl pipeline stages: %s", pipelineStats));
+      pipeline.close();
+    }
+  }
+
+  /**
+   * Registers the crawl in the metrics, along with the usage of the connection pool it runs over.
+   */
+  private void crawlStarted() {
+
+    if (connection.getConnectionPoolUsage() != null) {
+      configuration.getMetrics().setConnectionPoolUsage(connection.getConnectionPoolUsage());
+    }
+    configuration.getMetrics().crawlStarted(this);
+  }
+
+  /**
+   * Counts the errors of a stage in the crawl metrics, the pipeline logging them.
+   */
+  private StageHandler<CrawlTask> countingErrors(StageHandler<CrawlTask> handler) {
+
+    return task -> {
+      try {
+
+        return handler.process(task);
+
+      } catch (InterruptedException e) {
+        throw e;
       } catch (Exception e) {
-        LOGGER.error(e.getMessage(), e);
+
+        configuration.getMetrics().recordError(e);
+        throw e;
       }
+    };
+  }
+
+  /**
+   * Fetch stage of pipelined crawls, completing the transfer so that the host is free for further pages.
+   */
+  private boolean fetchAndBufferPage(CrawlTask task) throws IOException, InterruptedException {
+
+    try {
+      return fetchPage(task) && bufferPage(task);
+    } finally {
+      releaseHost(task);
+    }
+  }
+
+  /**
+   * Fetch stage: checks robots.txt, waits for the host and requests the page source, left to be read by the parse
+   * stage. The host stays acquired until {@link #releaseHost(CrawlTask)} is called, once the page source is read.
+   *
+   * @return {@code false} if the page is done, being disallowed or not modified since the previous crawl.
+   */
+  private boolean fetchPage(CrawlTask task) throws IOException, InterruptedException {
+
+    SiteNode currentNode = task.siteNode;
+
+    if(configuration.getCrawlerOptions().isEnforceRobotsTxt() && !PageHelper.canCrawl(currentNode.getUrl(), connection.getUserAgent())) {
+      LOGGER.debug("SKIPPING url due to robots.txt: " + currentNode.getUrl());
+      return false;
+    }
+
+    LOGGER.debug("CRAWLING url: " + currentNode.getUrl());
+
+    hostConcurrencyLimiter.acquire(currentNode.getUrl());
+    task.hostAcquired = true;
+
+    // wait for the host of this page to be ready
+    politenessScheduler.acquire(currentNode.getUrl());
+
+    task.pageLoadOptions = new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath);
+
+    if (pageStateStore != null) {
+
+      task.previousState = pageStateStore.get(currentNode.getUrl());
+
+      // Only send validators when the previous version can be reused as is
+      boolean reusable = isReusable(currentNode, task.previousState);
+      if (reusable && currentNode.getSitemapLastmod() != null &&
+          currentNode.getSitemapLastmod().equals(task.previousState.getSitemapLastmod())) {
+
+        LOGGER.debug("NOT MODIFIED according to sitemap url: " + currentNode.getUrl());
+        markUnchanged(currentNode, task.previousState);
+        expandLinks(currentNode, task.previousState.getLinks());
+        return false;
+      }
+
+      long fetchStart = System.nanoTime();
+      PageSource pageSource = PageHelper.getConditionalPageSource(connection, currentNode.getUrl(), currentNode.getReferrer(),
+                                                                  task.pageLoadOptions,
+                                                                  reusable ? task.previousState.getEtag() : null,
+                                                                  reusable ? task.previousState.getLastModified() : null);
+      if (reusable && pageSource.isNotModified()) {
+
+        configuration.getMetrics().recordFetch(currentNode.getUrl(), System.nanoTime() - fetchStart, 0, 0);
+        LOGGER.debug("NOT MODIFIED url: " + currentNode.getUrl());
+        markUnchanged(currentNode, task.previousState);
+        expandLinks(currentNode, task.previousState.getLinks());
+        return false;
+      }
+
+      task.etag = pageSource.getHeader("ETag");
+      task.lastModified = pageSource.getHeader("Last-Modified");
+      task.pageSource = pageSource;
+      task.fetchNanos = System.nanoTime() - fetchStart;
+    } else {
+
+      long fetchStart = System.nanoTime();
+      task.pageSource = PageHelper.getPageSource(configuration, connection, currentNode.getUrl(),
+                                                 currentNode.getReferrer(), task.pageLoadOptions);
+      task.fetchNanos = System.nanoTime() - fetchStart;
+    }
+    return true;
+  }
+
+  /**
+   * Reads the page source into memory, for the fetch stage of pipelined crawls to complete the transfer before
+   * handing the page over to the parse stage.
+   */
+  private boolean bufferPage(CrawlTask task) throws IOException {
+
+    long readStart = System.nanoTime();
+    try (InputStream content = task.pageSource.getContent()) {
+      task.bufferedPageSource = content.readAllBytes();
+    }
+    task.fetchNanos += System.nanoTime() - readStart;
+    recordPageSourceRead(task);
+    return true;
+  }
+
+  /**
+   * Parse stage: builds the document from the page source, streamed from the connection unless buffered by
+   * {@link #bufferPage(CrawlTask)}.
+   */
+  private boolean parsePage(CrawlTask task) throws IOException {
+
+    boolean buffered = task.bufferedPageSource != null;
+    long parseStart = System.nanoTime();
+    try (InputStream content = buffered ? new ByteArrayInputStream(task.bufferedPageSource) : task.pageSource.getContent()) {
+
+      task.document = PageHelper.parseDocument(connection, content, PageHelper.getCharset(task.pageSource),
+                                               task.siteNode.getUrl(), task.pageLoadOptions);
+    }
+    configuration.getMetrics().recordParse(System.nanoTime() - parseStart);
+
+    // Streamed page sources are only fully read once parsed
+    if (!buffered) recordPageSourceRead(task);
+    task.bufferedPageSource = null;
+    task.pageSource = null;
+    return true;
+  }
+
+  private void releaseHost(CrawlTask task) {
+
+    if (task.hostAcquired) {
+
+      task.hostAcquired = false;
+      hostConcurrencyLimiter.release(task.siteNode.getUrl());
+    }
+  }
+
+  private void recordPageSourceRead(CrawlTask task) {
+
+    configuration.getMetrics().recordFetch(task.siteNode.getUrl(), task.fetchNanos,
+                                           task.pageSource.getContentByteCount(),
+                                           task.pageSource.getReceivedByteCount());
+    budget.addBytes(task.pageSource.getContentByteCount());
+  }
+
+  /**
+   * Extract stage: gets the content, links and meta tags of the page and queues its links.
+   *
+   * @return {@code false} if the page is done, its content being unchanged since the previous crawl.
+   */
+  private boolean extractPage(CrawlTask task) {
+
+    SiteNode currentNode = task.siteNode;
+    Document document = task.document;
+
+    // get page contents
+    long convertStart = System.nanoTime();
+    String pageContent = PageHelper.getPageContent(document, contentTags, outputFormat);
+    configuration.getMetrics().recordConvert(System.nanoTime() - convertStart);
+
+    // get all links on the current page, if not at max depth
+    Set<String> links = followsLinks(currentNode) ? getPageLinks(document) : null;
+    task.links = links != null ? new ArrayList<>(links) : null;
+
+    if (nearDuplicateIndex != null) {
+
+      String duplicateOf = nearDuplicateIndex.findOrAdd(currentNode.getUrl(), document.title() + "\n" + pageContent);
+      if (duplicateOf != null) {
+
+        LOGGER.debug(String.format("NEAR-DUPLICATE url: %s of %s", currentNode.getUrl(), duplicateOf));
+        currentNode.setDuplicateOf(duplicateOf);
+        if (followNearDuplicateLinks) expandLinks(currentNode, links);
+        return false;
+      }
+    }
+
+    if (pageStateStore != null) {
+
+      task.contentHash = PageStateStore.hash(document.title() + "\n" + pageContent);
+      if (isReusable(currentNode, task.previousState) && task.contentHash.equals(task.previousState.getContentHash())) {
+
+        LOGGER.debug("UNCHANGED url: " + currentNode.getUrl());
+        pageStateStore.put(currentNode.getUrl(), new PageStateStore.PageState(task.etag, task.lastModified, task.contentHash,
+                                                                             task.previousState.getFilename(), task.links,
+                                                                             currentNode.getSitemapLastmod()));
+        markUnchanged(currentNode, task.previousState);
+        expandLinks(currentNode, task.links);
+        return false;
+      }
+    }
+
+    // Create Map to hold all data for the current page - this will be serialized to
+    // JSON and saved to file
+    JSONObject pageData = new JSONObject();
+
+    pageData.put("url", currentNode.getUrl());
+    pageData.put("title", document.title());
+
+    // get all meta tags from the document
+    if (getMetaTags) {
+
+      JSONArray pageMetaTags = PageHelper.getPageMetaTags(document);
+      pageData.put("metaTags", pageMetaTags);
+    }
+
+    pageData.put("content", pageContent);
+    task.pageData = pageData;
+
+    // Links are queued before the page is saved so that the frontier fills up as early as possible
+    expandLinks(currentNode, links);
+    return true;
+  }
+
+  /**
+   * Persist stage: downloads images and documents of the page and saves it.
+   */
+  private boolean persistPage(CrawlTask task) throws IOException {
+
+    SiteNode currentNode = task.siteNode;
+    JSONObject pageData = task.pageData;
+
+    if (downloadImages) {
+
+      LOGGER.debug("Downloading images for : " + currentNode.getUrl());
+      pageData.put("imageFiles", PageHelper.downloadWebsiteImages(task.document, downloadPath, CRAWLED_IMAGES_FOLDER, maxImageNumber));
+    }
+
+    if (downloadDocuments) {
+
+      LOGGER.debug("Downloading documents for : " + currentNode.getUrl());
+      pageData.put("documentFiles", PageHelper.downloadFiles(task.document, downloadPath, CRAWLED_DOCUMENTS_FOLDER, maxDocumentNumber));
+    }
+
+    // save gathered data of page to file
+    String filename = PageHelper.savePageContents(pageData, downloadPath, task.document.title());
+
+    // Update filename in the current node
+    currentNode.setFilename(filename);
+
+    if (pageStateStore != null) {
+
+      // The new version replaces the one saved by the previous crawl
+      PageStateStore.PageState previousState = task.previousState;
+      if (previousState != null && previousState.getFilename() != null && !previousState.getFilename().equals(filename)) {
+        Files.deleteIfExists(Paths.get(downloadPath, previousState.getFilename()));
+      }
+      pageStateStore.put(currentNode.getUrl(), new PageStateStore.PageState(task.etag, task.lastModified, task.contentHash,
+                                                                           filename, task.links,
+                                                                           currentNode.getSitemapLastmod()));
+    }
+
+    task.document = null;
+    task.pageData = null;
+    return true;
+  }
+
+  /**
+   * Queues the links found on a page, if not at max depth and not visited yet.
+   */
+  private void expandLinks(SiteNode currentNode, Collection<String> links) {
+
+    if (!followsLinks(currentNode) || links == null || links.isEmpty()) return;
+
+    LOGGER.debug(String.format("Found %d links on page: %s", links.size(), currentNode.getUrl()));
+
+    for (String childURL : links) {
+
+      String childURLCleaned = urlCanonicalizer.canonicalize(childURL);
+
+      // Check if this URL has already been visited at this depth. The check and the
+      // insertion are a single operation so that concurrent workers never enqueue it twice
+      if (visitedLinksGlobal.add(childURLCleaned)) {
+
+        if (isTrap(childURLCleaned)) continue;
+
+        // The child joins the tree once polled, see nextPage()
+        siteNodeQueue.add(new SiteNode(childURLCleaned, currentNode.getCurrentDepth() + 1, currentNode.getUrl(), currentNode));
+      } else {
+
+        frontierPolicy.linkFound(childURLCleaned);
+      }
+    }
+  }
+
+  /**
+   * Tells whether a newly found link is skipped as part of a crawler trap. Skipped links stay marked as visited.
+   */
+  private boolean isTrap(String url) {
+
+    if (trapDetector.admit(url)) return false;
+
+    LOGGER.debug("SKIPPING url as a crawler trap: " + url);
+    return true;
+  }
+
+  /**
+   * Tells whether the version of a page saved by a previous crawl can be kept: its file is still there and, if links
+   * need to be followed, they were recorded.
+   */
+  private boolean isReusable(SiteNode currentNode, PageStateStore.PageState previousState) {
+
+    return previousState != null && previousState.getFilename() != null &&
+        (!followsLinks(currentNode) || previousState.getLinks() != null) &&
+        Files.exists(Paths.get(downloadPath, previousState.getFilename()));
+  }
+
+  /**
+   * Tells whether the links found on a page are followed. Pages at max depth are leaves, and so are all pages when
+   * only pages listed by sitemaps are visited.
+   */
+  private boolean followsLinks(SiteNode currentNode) {
+
+    return sitemapDiscovery != Constants.SitemapDiscovery.SITEMAP_ONLY && currentNode.getCurrentDepth() < maxDepth;
+  }
+
+  /**
+   * Queues the pages listed by the sitemaps of the website as children of the root page.
+   */
+  private void seedFromSitemaps(SiteNode rootNode) {
+
+    if (sitemapDiscovery == null || sitemapDiscovery == Constants.SitemapDiscovery.DISABLED ||
+        (sitemapDiscovery == Constants.SitemapDiscovery.SEED_FRONTIER && maxDepth < 1)) return;
+
+    int queuedBefore = siteNodeQueue.size();
+    SitemapReader sitemapReader = new SitemapReader(connection.getUserAgent(), entry -> {
+
+      String url = urlCanonicalizer.canonicalize(entry.getLoc());
+      if (url == null || !isSitemapUrlAllowed(url)) return;
+
+      if (visitedLinksGlobal.add(url)) {
+
+        SiteNode siteNode = new SiteNode(url, 1, rootNode.getUrl(), rootNode);
+        siteNode.setSitemapPriority(entry.getPriority());
+        siteNode.setSitemapLastmod(entry.getLastmod());
+        siteNodeQueue.add(siteNode);
+      }
+    });
+
+    for (String sitemapUrl : PageHelper.getSitemapUrls(rootNode.getUrl())) {
+      sitemapReader.read(sitemapUrl);
+    }
+    LOGGER.info(String.format("Queued %d pages out of %d sitemap entries for %s", siteNodeQueue.size() - queuedBefore,
+                              sitemapReader.getEntryCount(), rootNode.getUrl()));
+  }
+
+  /**
+   * Applies to sitemap URLs the filters applied to links found on pages.
+   */
+  private boolean isSitemapUrlAllowed(String url) {
+
+    if (PageHelper.skipUrl(url, regexUrlsFilterLogic, regexUrls) || URLUtils.isDocumentUrl(url)) return false;
+    try {
+
+      return !restrictToPath || !URLUtils.isExternalLink(rootURL, url);
+
+    } catch (MalformedURLException e) {
+      return false;
+    }
+  }
+
+  private void markUnchanged(SiteNode currentNode, PageStateStore.PageState previousState) {
+
+    currentNode.setFilename(previousState.getFilename());
+    currentNode.setUnchanged(true);
+    unchangedPageCount.incrementAndGet();
+  }
+
+  /**
+   * Polls the next page to crawl and adds it to the children of the page it was found on. Children are attached
+   * only once polled so that pages spilled by the frontier are not kept in memory through the tree.
+   *
+   * @return The next page, or {@code null} if there is none left or the crawl budget is exhausted.
+   */
+  private SiteNode nextPage() {
+
+    if (budget.checkExhausted()) return null;
+
+    SiteNode nextNode = siteNodeQueue.poll();
+    configuration.getMetrics().recordQueueDepth(this, siteNodeQueue.size());
+    if (nextNode == null) return null;
+
+    budget.countPage();
+    if (nextNode.getParent() != null) {
+      nextNode.getParent().addChild(nextNode);
+    }
+    return nextNode;
+  }
+
+  /**
+   * Creates the queue of pages to visit, ordered according to the crawl order. When a delay between requests is
+   * configured, pages are queued per host so that the delay only throttles the host it applies to. When the in-memory
+   * size of the queue is bounded, pages beyond the bound are spilled under {@code spillLocation}, or the temporary
+   * directory if not set. Spilled pages are read back in discovery order, so a bounded queue is only allowed for
+   * breadth-first crawls.
+   */
+  private Queue<SiteNode> newFrontier(String spillLocation) {
+
+    frontierPolicy = FrontierPolicy.of(crawlOrder, urlCanonicalizer.canonicalize(rootURL));
+    Queue<SiteNode> frontier = politenessScheduler.getDelayMillis() > 0 ?
+        new HostAwareFrontier(politenessScheduler, frontierPolicy) : frontierPolicy.newQueue();
+
+    int maxInMemoryFrontierSize = configuration.getCrawlerOptions().getMaxInMemoryFrontierSize();
+    if (maxInMemoryFrontierSize > 0) {
+
+      // Spilled pages are read back in discovery order, best-first would only order the in-memory head
+      if (crawlOrder == Constants.CrawlOrder.BEST_FIRST) {
+        throw new ModuleException(
+            "The BEST_FIRST crawl order requires all queued pages to be kept in memory, " +
+                "set the max pages queued in memory to 0 or use the BREADTH_FIRST crawl order.",
+            WebCrawlerErrorType.INVALID_PARAMETERS_ERROR);
+      }
+
+      Path spillPath = spillLocation != null && !spillLocation.isEmpty() ?
+          Paths.get(spillLocation) : Paths.get(System.getProperty("java.io.tmpdir"));
+      frontier = new SpillableFrontier(frontier, maxInMemoryFrontierSize, spillPath);
+    }
+    return frontier;
+  }
+
+  /**
+   * Restores the frontier, visited URLs and crawled pages of the checkpoint to resume from, if any.
+   *
+   * @return The root of the restored tree, or {@code null} to start from the root URL.
+   */
+  private SiteNode resumeFromCheckpoint() {
+
+    String resumeFrom = checkpointOptions.getResumeFrom();
+    if (resumeFrom == null || resumeFrom.isEmpty()) return null;
+
+    Path checkpointPath = Paths.get(resumeFrom);
+    if (!Files.exists(checkpointPath)) {
+
+      LOGGER.info(String.format("No checkpoint found at %s, starting a new crawl.", resumeFrom));
+      return null;
+    }
+
+    try {
+
+      SiteNode rootNode = CrawlCheckpoint.read(checkpointPath, siteNodeQueue, visitedLinksGlobal);
+      LOGGER.info(String.format("Resuming crawl of %s from %s with %d URLs seen and %d pages left.",
+                                rootNode.getUrl(), resumeFrom, visitedLinksGlobal.size(), siteNodeQueue.size()));
+      return rootNode;
+
+    } catch (IOException e) {
+
+      throw new ModuleException(
+          String.format("Error while resuming crawl from checkpoint %s.", resumeFrom),
+          WebCrawlerErrorType.INVALID_PARAMETERS_ERROR,
+          e);
+    }
+  }
+
+  private PageStateStore loadPageStateStore() {
+
+    try {
+
+      return PageStateStore.load(downloadPath);
+
+    } catch (IOException e) {
+
+      LOGGER.warn(String.format("Unable to read the state of previously crawled pages in %s, all pages will be fetched: %s",
+                                downloadPath, e.getMessage()));
+      return PageStateStore.empty(downloadPath);
+    }
+  }
+
+  private void savePageStateStore() {
+
+    if (pageStateStore == null) return;
+
+    try {
+      pageStateStore.save();
+    } catch (IOException e) {
+      LOGGER.warn(String.format("Error while saving the state of crawled pages in %s: %s", downloadPath, e.getMessage()));
+    }
+  }
+
+  private boolean isCheckpointDue() {
+    return checkpointOptions.getInterval() > 0 && pagesSinceCheckpoint >= checkpointOptions.getInterval();
+  }
+
+  private Path getCheckpointPath() {
+    return Paths.get(downloadPath, CrawlCheckpoint.CHECKPOINT_FILENAME);
+  }
+
+  private void writeCheckpoint(SiteNode rootNode) {
+
+    pagesSinceCheckpoint = 0;
+    try {
+
+      // Saved first so that pages of the checkpoint are known to the store on resume
+      if (pageStateStore != null) pageStateStore.save();
+      CrawlCheckpoint.write(getCheckpointPath(), rootNode, siteNodeQueue, visitedLinksGlobal);
+      LOGGER.debug(String.format("Crawl checkpoint written to %s", getCheckpointPath()));
+
+    } catch (IOException e) {
+
+      // A failed checkpoint must not fail the crawl, the previous one is left untouched
+      LOGGER.warn(String.format("Error while writing crawl checkpoint %s: %s", getCheckpointPath(), e.getMessage()));
+    }
+  }
+
+  private void deleteCheckpoint() {
+
+    if (checkpointOptions.getInterval() <= 0) return;
+
+    try {
+      Files.deleteIfExists(getCheckpointPath());
+    } catch (IOException e) {
+      LOGGER.debug(String.format("Unable to delete crawl checkpoint %s", getCheckpointPath()), e);
+    }
+  }
+
+  private VisitedUrlSet newVisitedLinks() {
+
+    return visitedUrlOptions.newVisitedUrlSet(configuration.getCrawlerOptions().isVerifyVisitedUrls());
+  }
+
+  private void closeFrontier() {
+
+    if (siteNodeQueue instanceof SpillableFrontier) {
+      ((SpillableFrontier) siteNodeQueue).close();
     }
-    return rootNode;
+  }
+
+  private int getEffectiveConcurrency() {
+
+    int maxConcurrency = configuration.getCrawlerOptions().getMaxConcurrency();
+    if (maxConcurrency > 1 && !connection.isConcurrentFetchSupported()) {
+
+      LOGGER.debug(String.format("Connection does not support concurrent requests, ignoring max concurrency %d", maxConcurrency));
+      return 1;
+    }
+    return Math.max(1, maxConcurrency);
   }
 
   @Override
   public SiteNode map() {
 
-    siteNodeQueue = new LinkedList<>();
-    visitedLinksGlobal = new HashSet<>();
+    siteNodeQueue = newFrontier(null);
+    visitedLinksGlobal = newVisitedLinks();
+    budget.start();
+    trapDetector.start();
 
-    String rootURLCleaned = URLUtils.cleanURL(rootURL);
+    String rootURLCleaned = urlCanonicalizer.canonicalize(rootURL);
 
     SiteNode rootNode = new SiteNode(rootURLCleaned, 0, connection.getReferrer());
     siteNodeQueue.add(rootNode);
     visitedLinksGlobal.add(rootURLCleaned);
+    seedFromSitemaps(rootNode);
 
-    if(maxDepth == 0) {
+    if(maxDepth == 0 && sitemapDiscovery != Constants.SitemapDiscovery.SITEMAP_ONLY) {
 
       if (!PageHelper.isURLValid(configuration, connection, rootNode.getUrl(), rootNode.getReferrer())) {
 
@@ -159,82 +960,238 @@ public class MuleCrawler extends Crawler {
       }
     }
 
-    while(!siteNodeQueue.isEmpty()) {
+    int validationConcurrency = getEffectiveValidationConcurrency();
+    ExecutorService validationExecutor = validationConcurrency > 1 ?
+        ExecutorUtils.newExecutor(configuration.getCrawlerOptions().getExecutionMode(), validationConcurrency,
+                                  "webcrawler-validator-") : null;
+    // Virtual thread executors do not bound the checks running at once
+    Semaphore validationPermits = new Semaphore(validationConcurrency);
+    List<SiteNode> leaves = new ArrayList<>();
 
-      SiteNode currentNode = null;
-      try {
+    crawlStarted();
+    try {
 
-        currentNode = siteNodeQueue.poll();
+      while(!siteNodeQueue.isEmpty() && !budget.checkExhausted()) {
 
-        if(configuration.getCrawlerOptions().isEnforceRobotsTxt() && !PageHelper.canCrawl(currentNode.getUrl(), connection.getUserAgent())) {
-          LOGGER.debug("SKIPPING url due to robots.txt: " + currentNode.getUrl());
-          continue;
-        }
+        SiteNode currentNode = null;
+        try {
 
-        LOGGER.debug("MAPPING url: " + currentNode.getUrl());
+          currentNode = siteNodeQueue.poll();
+          configuration.getMetrics().recordQueueDepth(this, siteNodeQueue.size());
+          budget.countPage();
 
-        // add delay
-        Utils.addDelay(configuration.getCrawlerOptions().getDelayMillis());
+          if(configuration.getCrawlerOptions().isEnforceRobotsTxt() && !PageHelper.canCrawl(currentNode.getUrl(), connection.getUserAgent())) {
+            LOGGER.debug("SKIPPING url due to robots.txt: " + currentNode.getUrl());
+            continue;
+          }
 
-        if(currentNode.getCurrentDepth() == maxDepth) {
+          LOGGER.debug("MAPPING url: " + currentNode.getUrl());
 
-          if(PageHelper.isURLValid(configuration, connection, currentNode.getUrl(), currentNode.getReferrer())) {
+          if(validationExecutor != null && !followsLinks(currentNode)) {
+
+            // Validated in batches, see validateLeaves()
+            leaves.add(currentNode);
+            if (leaves.size() >= validationConcurrency * LEAF_BATCH_FACTOR) {
+              validateLeaves(leaves, validationExecutor, validationPermits);
+            }
+            continue;
+          }
+
+          // wait for the host of this page to be ready
+          politenessScheduler.acquire(currentNode.getUrl());
+
+          if(!followsLinks(currentNode)) {
+
+            if(PageHelper.isURLValid(configuration, connection, currentNode.getUrl(), currentNode.getReferrer())) {
+
+              // Add as child to parent node only if valid
+              SiteNode parentNode = currentNode.getParent();
+              if(parentNode != null) parentNode.addChild(currentNode);
+            } else {
+
+              LOGGER.debug(String.format("SKIPPING %s due to invalid URL", currentNode.getUrl()));
+            }
+          }
+
+          // If not at max depth, find and crawl the links on the page
+          if (followsLinks(currentNode)) {
+
+            Document document = getDocument(currentNode, null);
 
             // Add as child to parent node only if valid
             SiteNode parentNode = currentNode.getParent();
             if(parentNode != null) parentNode.addChild(currentNode);
-          } else {
 
-            LOGGER.debug(String.format("SKIPPING %s due to invalid URL", currentNode.getUrl()));
+            // get all links on the current page
+            Set<String> links = getPageLinks(document);
+            if (links != null && !links.isEmpty()) {
+
+              LOGGER.debug(String.format("Found %d links on page: %s", links.size(), currentNode.getUrl()));
+
+              for (String childURL : links) {
+
+                String childURLCleaned = urlCanonicalizer.canonicalize(childURL);
+
+                // Check if this URL has already been visited at this depth
+                if (visitedLinksGlobal.add(childURLCleaned)) {
+
+                  if (isTrap(childURLCleaned)) continue;
+
+                  SiteNode childNode = new SiteNode(childURLCleaned,
+                                                    currentNode.getCurrentDepth() + 1,
+                                                    currentNode.getUrl(),
+                                                    currentNode);
+
+                  siteNodeQueue.add(childNode);
+                } else {
+
+                  frontierPolicy.linkFound(childURLCleaned);
+                }
+              }
+            }
+          }
+        } catch (Exception e) {
+          configuration.getMetrics().recordError(e);
+          LOGGER.error(e.toString());
+          if(currentNode == null || currentNode.getCurrentDepth() == 0) {
+
+              throw new ModuleException(
+                  e.toString(),
+                  WebCrawlerErrorType.WEBCRAWLER_OPERATIONS_FAILURE,
+                  e);
           }
         }
+      }
 
-        // If not at max depth, find and crawl the links on the page
-        if (currentNode.getCurrentDepth() < maxDepth) {
+      if (validationExecutor != null) validateLeaves(leaves, validationExecutor, validationPermits);
 
-          Document document = PageHelper.getDocument(configuration, connection, currentNode.getUrl(), currentNode.getReferrer(),
-             new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath));
+    } finally {
 
-          // Add as child to parent node only if valid
-          SiteNode parentNode = currentNode.getParent();
-          if(parentNode != null) parentNode.addChild(currentNode);
+      configuration.getMetrics().crawlFinished(this);
+      if (validationExecutor != null) validationExecutor.shutdownNow();
+      closeFrontier();
+    }
 
-          // get all links on the current page
-          Set<String> links = getPageLinks(document);
-          if (links != null && !links.isEmpty()) {
+    if (budget.getExhausted() != null) {
+      LOGGER.info(String.format("Crawl budget %s exhausted after %d pages, returning pages mapped so far.",
+                                budget.getExhausted(), budget.getPages()));
+    }
+    return rootNode;
+  }
 
-            LOGGER.debug(String.format("Found %d links on page: %s", links.size(), currentNode.getUrl()));
+  /**
+   * Checks the status of a batch of pages at max depth in parallel, then adds the valid ones to their parent in the
+   * order they were queued, so that the tree is the same as when checking them one at a time. All checks of a batch
+   * are submitted at once, {@code permits} bounds the ones in progress.
+   */
+  private void validateLeaves(List<SiteNode> leaves, ExecutorService executor, Semaphore permits) {
 
-            for (String childURL : links) {
+    if (leaves.isEmpty()) return;
 
-              String childURLCleaned = URLUtils.cleanURL(childURL);
+    List<Future<Boolean>> validations = new ArrayList<>(leaves.size());
+    for (SiteNode leaf : leaves) {
 
-              // Check if this URL has already been visited at this depth
-              if (!visitedLinksGlobal.contains(childURLCleaned)) {
+      validations.add(executor.submit(() -> {
 
-                visitedLinksGlobal.add(childURLCleaned);
-                SiteNode childNode = new SiteNode(childURLCleaned,
-                                                  currentNode.getCurrentDepth() + 1,
-                                                  currentNode.getUrl(),
-                                                  currentNode);
+        permits.acquire();
+        try {
 
-                siteNodeQueue.add(childNode);
-              }
-            }
+          hostConcurrencyLimiter.acquire(leaf.getUrl());
+          try {
+
+            // wait for the host of this page to be ready
+            politenessScheduler.acquire(leaf.getUrl());
+            return PageHelper.isURLValid(configuration, connection, leaf.getUrl(), leaf.getReferrer());
+
+          } finally {
+            hostConcurrencyLimiter.release(leaf.getUrl());
           }
+        } finally {
+          permits.release();
         }
-      } catch (Exception e) {
-        LOGGER.error(e.toString());
-        if(currentNode == null || currentNode.getCurrentDepth() == 0) {
+      }));
+    }
+
+    try {
 
-            throw new ModuleException(
-                e.toString(),
-                WebCrawlerErrorType.WEBCRAWLER_OPERATIONS_FAILURE,
-                e);
+      for (int i = 0; i < leaves.size(); i++) {
+
+        SiteNode leaf = leaves.get(i);
+        boolean valid;
+        try {
+
+          valid = validations.get(i).get();
+
+        } catch (ExecutionException e) {
+
+          configuration.getMetrics().recordError(e.getCause());
+          LOGGER.error(String.format("Error while checking status for url %s", leaf.getUrl()), e.getCause());
+          valid = false;
+        }
+
+        if (valid) {
+
+          // Add as child to parent node only if valid
+          SiteNode parentNode = leaf.getParent();
+          if (parentNode != null) parentNode.addChild(leaf);
+        } else {
+
+          LOGGER.debug(String.format("SKIPPING %s due to invalid URL", leaf.getUrl()));
         }
       }
+    } catch (InterruptedException e) {
+
+      LOGGER.warn("Sitemap interrupted, returning pages validated so far.");
+      Thread.currentThread().interrupt();
+    } finally {
+
+      leaves.clear();
+    }
+  }
+
+  private int getEffectiveValidationConcurrency() {
+
+    int concurrency = configuration.getCrawlerOptions().getLinkValidationConcurrency();
+    if (concurrency > 1 && !connection.isConcurrentStatusCheckSupported()) {
+
+      LOGGER.debug(String.format("Connection does not support concurrent status checks, ignoring link validation concurrency %d",
+                                 concurrency));
+      return 1;
+    }
+    return Math.max(1, concurrency);
+  }
+
+  /**
+   * Fetches and parses a page, counting its source against the crawl budget.
+   *
+   * @param timings The timings to record into, {@code null} if not needed.
+   */
+  private Document getDocument(SiteNode currentNode, PageTimings timings) throws IOException {
+
+    PageLoadOptions pageLoadOptions = new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath);
+    pageLoadOptions.setTimings(timings);
+    long fetchStart = System.nanoTime();
+    PageSource pageSource = PageHelper.getPageSource(configuration, connection, currentNode.getUrl(),
+                                                     currentNode.getReferrer(), pageLoadOptions);
+    long fetchNanos = System.nanoTime() - fetchStart;
+
+    // The response body is parsed as it is read, its size is only known once parsed
+    long parseStart = System.nanoTime();
+    try (InputStream content = pageSource.getContent()) {
+
+      Document document = PageHelper.parseDocument(connection, content, PageHelper.getCharset(pageSource),
+                                                   currentNode.getUrl(), pageLoadOptions);
+      configuration.getMetrics().recordParse(System.nanoTime() - parseStart);
+      configuration.getMetrics().recordFetch(currentNode.getUrl(), fetchNanos, pageSource.getContentByteCount(),
+                                             pageSource.getReceivedByteCount());
+      budget.addBytes(pageSource.getContentByteCount());
+      if (timings != null) {
+
+        timings.setBytesIn(pageSource.getContentByteCount());
+        timings.setBytesReceived(pageSource.getReceivedByteCount());
+      }
+      return document;
     }
-    return rootNode;
   }
 
   private Set<String> getPageLinks(Document document) {
@@ -303,29 +1260,54 @@ public class MuleCrawler extends Crawler {
 
   public class DocumentIterator extends Crawler.DocumentIterator {
 
+    private PageTimings pageTimings;
+    private SiteNode nextNode;
+    private boolean finished;
+
     public DocumentIterator () {
 
         super();
 
-        String rootURLCleaned = URLUtils.cleanURL(rootURL);
+        siteNodeQueue = newFrontier(null);
+
+        String rootURLCleaned = urlCanonicalizer.canonicalize(rootURL);
 
-        visitedLinksGlobal = new HashSet<>();
+        visitedLinksGlobal = newVisitedLinks();
+        budget.start();
+        trapDetector.start();
 
         // Mark the URL as visited for this depth
         visitedLinksGlobal.add(rootURLCleaned);
 
         if(rootURLCleaned != null) {
-          siteNodeQueue.add(new SiteNode(rootURLCleaned, 0, connection.getReferrer()));
+          SiteNode rootNode = new SiteNode(rootURLCleaned, 0, connection.getReferrer());
+          siteNodeQueue.add(rootNode);
+          seedFromSitemaps(rootNode);
+          crawlStarted();
         } else {
           throw new IllegalArgumentException("Root URL cannot be null.");
         }
     }
 
-    // Override hasNext to check if there are files left to process
+    // Polls the page next() visits, so that calling hasNext() again does not move the crawl forward
     @Override
     public boolean hasNext() {
 
-      return !siteNodeQueue.isEmpty();
+      if (nextNode != null) return true;
+      if (finished) return false;
+
+      if (!budget.checkExhausted()) {
+        nextNode = siteNodeQueue.poll();
+      }
+      if (nextNode == null) {
+
+        finished = true;
+        configuration.getMetrics().crawlFinished(MuleCrawler.this);
+        closeFrontier();
+        return false;
+      }
+      configuration.getMetrics().recordQueueDepth(MuleCrawler.this, siteNodeQueue.size());
+      return true;
     }
 
     // Override next to return the next document
@@ -335,8 +1317,12 @@ public class MuleCrawler extends Crawler {
       if (!hasNext()) {
         throw new NoSuchElementException("No more documents to iterate.");
       }
-      SiteNode currentNode = siteNodeQueue.poll();
+      SiteNode currentNode = nextNode;
+      nextNode = null;
+      budget.countPage();
       Document document = null;
+      pageTimings = new PageTimings();
+      pageTimings.addQueueWaitNanos(System.nanoTime() - currentNode.getQueuedNanos());
       try {
 
         if(configuration.getCrawlerOptions().isEnforceRobotsTxt() && !PageHelper.canCrawl(currentNode.getUrl(), connection.getUserAgent())) {
@@ -345,10 +1331,12 @@ public class MuleCrawler extends Crawler {
           return null;
         }
 
-        document = PageHelper.getDocument(configuration, connection, currentNode.getUrl(), currentNode.getReferrer(),
-            new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath));
+        document = getDocument(currentNode, pageTimings);
+
+        // Records the budget reached by this page, so that it shows in the attributes of the last page returned
+        budget.checkExhausted();
 
-        if(currentNode.getCurrentDepth() < maxDepth) {
+        if(followsLinks(currentNode)) {
 
           // get all links on the current page
           Set<String> links = getPageLinks(document);
@@ -358,22 +1346,57 @@ public class MuleCrawler extends Crawler {
 
             for (String childURL : links) {
 
-              String childURLCleaned = URLUtils.cleanURL(childURL);
+              String childURLCleaned = urlCanonicalizer.canonicalize(childURL);
 
               // Check if this URL has already been visited at this depth
-              if (!visitedLinksGlobal.contains(childURLCleaned)) {
+              if (visitedLinksGlobal.add(childURLCleaned)) {
+
+                if (isTrap(childURLCleaned)) continue;
 
-                visitedLinksGlobal.add(childURLCleaned);
                 siteNodeQueue.add(new SiteNode(childURLCleaned, currentNode.getCurrentDepth() + 1, currentNode.getUrl()));
+              } else {
+
+                frontierPolicy.linkFound(childURLCleaned);
               }
             }
           }
         }
       } catch (IOException e) {
+
+        configuration.getMetrics().recordError(e);
         throw new RuntimeException(e);
       }
 
       return document;
     }
+
+    @Override
+    public PageTimings getPageTimings() {
+      return pageTimings;
+    }
+  }
+
+  /**
+   * State of a page moving through the stages of a crawl.
+   */
+  private static class CrawlTask {
+
+    private final SiteNode siteNode;
+    private PageLoadOptions pageLoadOptions;
+    private PageStateStore.PageState previousState;
+    private String etag;
+    private String lastModified;
+    private boolean hostAcquired;
+    private PageSource pageSource;
+    private long fetchNanos;
+    private byte[] bufferedPageSource;
+    private Document document;
+    private List<String> links;
+    private String contentHash;
+    private JSONObject pageData;
+
+    private CrawlTask(SiteNode siteNode) {
+      this.siteNode = siteNode;
+    }
   }
 }
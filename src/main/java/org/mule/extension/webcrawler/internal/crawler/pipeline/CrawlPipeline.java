@@ -0,0 +1,186 @@
+package org.mule.extension.webcrawler.internal.crawler.pipeline;
+
+import org.mule.extension.webcrawler.internal.constant.Constants;
+import org.mule.extension.webcrawler.internal.util.ExecutorUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Chain of stages joined by bounded queues, each stage running its own workers. A full queue blocks the workers of
+ * the previous stage, so a slow stage throttles the ones before it instead of letting tasks pile up in memory.
+ * <p>
+ * Every task submitted is eventually handed to the completion callback exactly once: after the last stage, when a
+ * stage reports it done, or when a stage fails on it.
+ *
+ * @param <T> The type of tasks flowing through the pipeline.
+ */
+public class CrawlPipeline<T> implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CrawlPipeline.class);
+
+  private final Constants.ExecutionMode executionMode;
+  private final int queueCapacity;
+  private final Consumer<T> onComplete;
+  private final List<Stage> stages = new ArrayList<>();
+  private long startNanos;
+
+  /**
+   * @param executionMode The kind of threads running the workers.
+   * @param queueCapacity The number of tasks each stage can hold waiting.
+   * @param onComplete    Called with each task leaving the pipeline, from the thread of the last stage it went through.
+   */
+  public CrawlPipeline(Constants.ExecutionMode executionMode, int queueCapacity, Consumer<T> onComplete) {
+
+    this.executionMode = executionMode;
+    this.queueCapacity = Math.max(1, queueCapacity);
+    this.onComplete = onComplete;
+  }
+
+  /**
+   * Appends a stage. Stages must be added before the pipeline is started.
+   */
+  public CrawlPipeline<T> stage(String name, int workers, StageHandler<T> handler) {
+
+    stages.add(new Stage(name, Math.max(1, workers), handler));
+    return this;
+  }
+
+  public CrawlPipeline<T> start() {
+
+    startNanos = System.nanoTime();
+    for (int i = 0; i < stages.size(); i++) {
+      stages.get(i).start(i + 1 < stages.size() ? stages.get(i + 1) : null);
+    }
+    return this;
+  }
+
+  /**
+   * Queues a task to the first stage, blocking while it is full.
+   */
+  public void submit(T task) throws InterruptedException {
+    stages.get(0).enqueue(task);
+  }
+
+  /**
+   * @return The number of tasks the pipeline holds at most, waiting or being processed.
+   */
+  public int getCapacity() {
+
+    int capacity = 0;
+    for (Stage stage : stages) {
+      capacity += stage.workers + queueCapacity;
+    }
+    return capacity;
+  }
+
+  public List<StageStats> getStats() {
+
+    long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+    List<StageStats> stats = new ArrayList<>(stages.size());
+    for (Stage stage : stages) {
+      stats.add(stage.getStats(elapsedMillis));
+    }
+    return stats;
+  }
+
+  /**
+   * Stops all workers, tasks still in the pipeline are dropped.
+   */
+  @Override
+  public void close() {
+
+    for (Stage stage : stages) {
+      stage.stop();
+    }
+  }
+
+  private class Stage {
+
+    private final String name;
+    private final int workers;
+    private final StageHandler<T> handler;
+    private final BlockingQueue<T> queue;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private ExecutorService executor;
+
+    private Stage(String name, int workers, StageHandler<T> handler) {
+
+      this.name = name;
+      this.workers = workers;
+      this.handler = handler;
+      this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    private void start(Stage next) {
+
+      executor = ExecutorUtils.newExecutor(executionMode, workers, "webcrawler-" + name + "-");
+      for (int i = 0; i < workers; i++) {
+        executor.execute(() -> work(next));
+      }
+    }
+
+    private void enqueue(T task) throws InterruptedException {
+
+      queue.put(task);
+      maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+    }
+
+    private void work(Stage next) {
+
+      try {
+
+        while (!Thread.currentThread().isInterrupted()) {
+
+          T task = queue.take();
+          boolean forward = false;
+          long start = System.nanoTime();
+          try {
+
+            forward = handler.process(task);
+
+          } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+          } catch (Exception e) {
+
+            LOGGER.error(String.format("Error in crawl stage %s: %s", name, e.getMessage()), e);
+          } finally {
+
+            busyNanos.addAndGet(System.nanoTime() - start);
+            processed.incrementAndGet();
+          }
+
+          if (forward && next != null) {
+            next.enqueue(task);
+          } else {
+            onComplete.accept(task);
+          }
+        }
+      } catch (InterruptedException e) {
+        // Pipeline closed
+      }
+    }
+
+    private StageStats getStats(long elapsedMillis) {
+
+      return new StageStats(name, workers, queue.size(), maxQueueDepth.get(), processed.get(),
+                            busyNanos.get() / 1_000_000, elapsedMillis);
+    }
+
+    private void stop() {
+
+      if (executor != null) executor.shutdownNow();
+    }
+  }
+}
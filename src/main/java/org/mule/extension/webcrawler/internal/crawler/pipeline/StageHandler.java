@@ -0,0 +1,16 @@
+package org.mule.extension.webcrawler.internal.crawler.pipeline;
+
+/**
+ * Work done by a stage of a {@link CrawlPipeline} on each task.
+ *
+ * @param <T> The type of tasks flowing through the pipeline.
+ */
+@FunctionalInterface
+public interface StageHandler<T> {
+
+  /**
+   * @param task The task to process.
+   * @return {@code true} to hand the task over to the next stage, {@code false} if the task is done.
+   */
+  boolean process(T task) throws Exception;
+}
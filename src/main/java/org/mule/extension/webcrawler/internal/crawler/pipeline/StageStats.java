@@ -0,0 +1,90 @@
+package org.mule.extension.webcrawler.internal.crawler.pipeline;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the activity of a stage of a {@link CrawlPipeline}.
+ */
+public class StageStats {
+
+  private final String name;
+  private final int workers;
+  private final int queueDepth;
+  private final int maxQueueDepth;
+  private final long processed;
+  private final long busyMillis;
+  private final long elapsedMillis;
+
+  StageStats(String name, int workers, int queueDepth, int maxQueueDepth, long processed, long busyMillis,
+             long elapsedMillis) {
+
+    this.name = name;
+    this.workers = workers;
+    this.queueDepth = queueDepth;
+    this.maxQueueDepth = maxQueueDepth;
+    this.processed = processed;
+    this.busyMillis = busyMillis;
+    this.elapsedMillis = elapsedMillis;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getWorkers() {
+    return workers;
+  }
+
+  /**
+   * @return The number of tasks waiting for this stage.
+   */
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  public int getMaxQueueDepth() {
+    return maxQueueDepth;
+  }
+
+  public long getProcessed() {
+    return processed;
+  }
+
+  public long getBusyMillis() {
+    return busyMillis;
+  }
+
+  /**
+   * @return The number of tasks processed per second since the pipeline started.
+   */
+  public double getThroughput() {
+    return elapsedMillis > 0 ? processed * 1000.0 / elapsedMillis : 0;
+  }
+
+  /**
+   * @return The share of the time workers of this stage spent processing tasks, close to 1 for the bottleneck.
+   */
+  public double getUtilization() {
+    return elapsedMillis > 0 ? Math.min(1.0, (double) busyMillis / (elapsedMillis * workers)) : 0;
+  }
+
+  public Map<String, Object> toMap() {
+
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("name", name);
+    map.put("workers", workers);
+    map.put("queueDepth", queueDepth);
+    map.put("maxQueueDepth", maxQueueDepth);
+    map.put("processed", processed);
+    map.put("throughput", getThroughput());
+    map.put("utilization", getUtilization());
+    return map;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s{workers=%d, queueDepth=%d, maxQueueDepth=%d, processed=%d, throughput=%.1f/s, utilization=%.0f%%}",
+                         name, workers, queueDepth, maxQueueDepth, processed, getThroughput(), getUtilization() * 100);
+  }
+}
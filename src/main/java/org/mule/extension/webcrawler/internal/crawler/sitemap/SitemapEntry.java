@@ -0,0 +1,45 @@
+package org.mule.extension.webcrawler.internal.crawler.sitemap;
+
+/**
+ * A {@code <url>} entry of a sitemap.
+ */
+public class SitemapEntry {
+
+  private final String loc;
+  private final String lastmod;
+  private final Double priority;
+
+  public SitemapEntry(String loc, String lastmod, Double priority) {
+
+    this.loc = loc;
+    this.lastmod = lastmod;
+    this.priority = priority;
+  }
+
+  public String getLoc() {
+    return loc;
+  }
+
+  /**
+   * @return The last modification date as published, {@code null} if not set.
+   */
+  public String getLastmod() {
+    return lastmod;
+  }
+
+  /**
+   * @return The priority between 0 and 1, {@code null} if not set or invalid.
+   */
+  public Double getPriority() {
+    return priority;
+  }
+
+  @Override
+  public String toString() {
+    return "SitemapEntry{" +
+        "loc='" + loc + '\'' +
+        ", lastmod='" + lastmod + '\'' +
+        ", priority=" + priority +
+        '}';
+  }
+}
@@ -0,0 +1,192 @@
+package org.mule.extension.webcrawler.internal.crawler.sitemap;
+
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads sitemaps and sitemap indexes with a streaming XML parser, handing each URL entry over as soon as it is
+ * parsed so that sitemaps of any size are read in constant memory. Sitemaps referenced by an index are read in turn,
+ * gzip-compressed sitemaps are supported.
+ */
+public class SitemapReader {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SitemapReader.class);
+
+  private static final int MAX_INDEX_DEPTH = 2;
+  private static final int MAX_SITEMAPS = 1000;
+  private static final int TIMEOUT_MILLIS = 30000;
+
+  private static final XMLInputFactory XML_INPUT_FACTORY = newXMLInputFactory();
+
+  private final String userAgent;
+  private final Consumer<SitemapEntry> entryConsumer;
+  private final Set<String> readSitemaps = new HashSet<>();
+  private int entryCount;
+
+  /**
+   * @param userAgent     The user agent sitemaps are requested with.
+   * @param entryConsumer Receives the URL entries of all sitemaps read.
+   */
+  public SitemapReader(String userAgent, Consumer<SitemapEntry> entryConsumer) {
+
+    this.userAgent = userAgent;
+    this.entryConsumer = entryConsumer;
+  }
+
+  /**
+   * Reads a sitemap or sitemap index. Sitemaps that cannot be retrieved or parsed are skipped.
+   */
+  public void read(String sitemapUrl) {
+    read(sitemapUrl, 0);
+  }
+
+  /**
+   * @return The number of URL entries read so far.
+   */
+  public int getEntryCount() {
+    return entryCount;
+  }
+
+  private void read(String sitemapUrl, int depth) {
+
+    if (!readSitemaps.add(sitemapUrl)) return;
+    if (readSitemaps.size() > MAX_SITEMAPS) {
+
+      LOGGER.warn(String.format("More than %d sitemaps referenced, skipping %s", MAX_SITEMAPS, sitemapUrl));
+      return;
+    }
+
+    LOGGER.debug(String.format("Reading sitemap %s", sitemapUrl));
+    try (InputStream inputStream = open(sitemapUrl)) {
+
+      parse(inputStream,
+            entry -> {
+              entryCount++;
+              entryConsumer.accept(entry);
+            },
+            childSitemapUrl -> {
+              if (depth < MAX_INDEX_DEPTH) {
+                read(childSitemapUrl, depth + 1);
+              } else {
+                LOGGER.debug(String.format("Skipping sitemap %s nested too deep", childSitemapUrl));
+              }
+            });
+
+    } catch (IOException | XMLStreamException e) {
+      LOGGER.debug(String.format("Unable to read sitemap %s: %s", sitemapUrl, e.getMessage()));
+    }
+  }
+
+  private InputStream open(String sitemapUrl) throws IOException {
+
+    Connection.Response response = Jsoup.connect(sitemapUrl)
+        .userAgent(userAgent != null ? userAgent : "")
+        .ignoreContentType(true)
+        .maxBodySize(0)
+        .timeout(TIMEOUT_MILLIS)
+        .execute();
+
+    InputStream inputStream = new BufferedInputStream(response.bodyStream());
+
+    // .xml.gz files are usually served as is rather than with a gzip content encoding
+    inputStream.mark(2);
+    int first = inputStream.read();
+    int second = inputStream.read();
+    inputStream.reset();
+    return first == 0x1f && second == 0x8b ? new GZIPInputStream(inputStream) : inputStream;
+  }
+
+  /**
+   * Parses a sitemap or sitemap index.
+   *
+   * @param urlConsumer     Receives {@code <url>} entries of a sitemap.
+   * @param sitemapConsumer Receives the locations of {@code <sitemap>} entries of a sitemap index.
+   */
+  static void parse(InputStream inputStream, Consumer<SitemapEntry> urlConsumer, Consumer<String> sitemapConsumer)
+      throws XMLStreamException {
+
+    XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+    try {
+
+      String loc = null;
+      String lastmod = null;
+      String priority = null;
+
+      while (reader.hasNext()) {
+
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+
+          switch (reader.getLocalName()) {
+            case "url":
+            case "sitemap":
+              loc = null;
+              lastmod = null;
+              priority = null;
+              break;
+            case "loc":
+              loc = reader.getElementText().trim();
+              break;
+            case "lastmod":
+              lastmod = reader.getElementText().trim();
+              break;
+            case "priority":
+              priority = reader.getElementText().trim();
+              break;
+            default:
+              break;
+          }
+        } else if (event == XMLStreamConstants.END_ELEMENT && loc != null && !loc.isEmpty()) {
+
+          if ("url".equals(reader.getLocalName())) {
+
+            urlConsumer.accept(new SitemapEntry(loc, lastmod, parsePriority(priority)));
+            loc = null;
+          } else if ("sitemap".equals(reader.getLocalName())) {
+
+            sitemapConsumer.accept(loc);
+            loc = null;
+          }
+        }
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  private static Double parsePriority(String priority) {
+
+    if (priority == null || priority.isEmpty()) return null;
+    try {
+
+      double value = Double.parseDouble(priority);
+      return value >= 0 && value <= 1 ? value : null;
+
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static XMLInputFactory newXMLInputFactory() {
+
+    // Sitemaps come from untrusted sites, no DTD nor external entity is resolved
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+}
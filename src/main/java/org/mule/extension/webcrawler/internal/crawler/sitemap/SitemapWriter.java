@@ -0,0 +1,216 @@
+package org.mule.extension.webcrawler.internal.crawler.sitemap;
+
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+import org.mule.extension.webcrawler.internal.util.TempFileInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a sitemap to a temporary file one URL at a time, so that the sitemap never exists as a whole in memory.
+ * <p>
+ * When a parts directory is given, a sitemap reaching the limits of the protocol (50,000 URLs or 50MB) is split into
+ * gzip-compressed parts written to that directory, and the sitemap returned is an index of the parts. Without parts
+ * directory, a single sitemap is returned whatever its size.
+ */
+public class SitemapWriter implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SitemapWriter.class);
+
+  public static final int MAX_URLS_PER_SITEMAP = 50_000;
+  public static final long MAX_BYTES_PER_SITEMAP = 50L * 1024 * 1024;
+
+  private static final String NAMESPACE = "http://www.sitemaps.org/schemas/sitemap/0.9";
+  private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+  private static final String URLSET_START = "<urlset xmlns=\"" + NAMESPACE + "\">\n";
+  private static final String URLSET_END = "</urlset>";
+  private static final String PART_FILENAME = "sitemap-%d.xml.gz";
+
+  private final Path partsDirectory;
+  private final String partsBaseUrl;
+  private final Path outputFile;
+
+  private Writer writer;
+  private int urlCount;
+  private int partCount;
+  private int partUrlCount;
+  private long partBytes;
+  private boolean finished;
+
+  /**
+   * @param partsDirectory The directory parts are written to when the sitemap must be split, {@code null} to never
+   *                       split it.
+   * @param partsBaseUrl   The URL parts are published under, referenced by the sitemap index. Defaults to the URI of
+   *                       the parts directory.
+   */
+  public SitemapWriter(Path partsDirectory, String partsBaseUrl) throws IOException {
+
+    this.partsDirectory = partsDirectory;
+    String baseUrl = partsBaseUrl != null ? partsBaseUrl : partsDirectory != null ? partsDirectory.toUri().toString() : "";
+    this.partsBaseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    this.outputFile = Files.createTempFile("webcrawler-sitemap-", ".xml");
+    this.writer = startUrlset(Files.newOutputStream(outputFile));
+  }
+
+  /**
+   * Writes the pages of a tree, in pre-order.
+   */
+  public void writeTree(SiteNode rootNode) throws IOException {
+
+    // Iterative so that deep trees do not overflow the stack
+    Deque<SiteNode> stack = new ArrayDeque<>();
+    stack.push(rootNode);
+    while (!stack.isEmpty()) {
+
+      SiteNode node = stack.pop();
+      writeUrl(node.getUrl(), calculatePriority(node.getCurrentDepth()));
+      List<SiteNode> children = node.getChildren();
+      for (int i = children.size() - 1; i >= 0; i--) {
+        stack.push(children.get(i));
+      }
+    }
+  }
+
+  public void writeUrl(String loc, String priority) throws IOException {
+
+    String entry = "  <url>\n" +
+        "    <loc>" + escapeXml(loc) + "</loc>\n" +
+        "    <priority>" + priority + "</priority>\n" +
+        "  </url>\n";
+    int entryBytes = entry.getBytes(StandardCharsets.UTF_8).length;
+
+    if (partUrlCount >= MAX_URLS_PER_SITEMAP ||
+        partBytes + entryBytes + URLSET_END.length() > MAX_BYTES_PER_SITEMAP) {
+
+      if (partsDirectory != null) {
+
+        nextPart();
+      } else if (partUrlCount == MAX_URLS_PER_SITEMAP) {
+
+        LOGGER.warn(String.format("Sitemap exceeds %d URLs, set a parts directory to split it.", MAX_URLS_PER_SITEMAP));
+      }
+    }
+
+    writer.write(entry);
+    urlCount++;
+    partUrlCount++;
+    partBytes += entryBytes;
+  }
+
+  /**
+   * Completes the sitemap.
+   *
+   * @return A stream over the sitemap, or over the sitemap index if it was split, deleting the file once closed or
+   *         garbage collected.
+   */
+  public InputStream finish() throws IOException {
+
+    endUrlset();
+    if (partCount > 0) writeIndex();
+
+    finished = true;
+    return TempFileInputStream.open(outputFile);
+  }
+
+  public int getUrlCount() {
+    return urlCount;
+  }
+
+  /**
+   * @return The number of parts written, 0 if the sitemap was not split.
+   */
+  public int getPartCount() {
+    return partCount;
+  }
+
+  @Override
+  public void close() throws IOException {
+
+    if (finished) return;
+
+    // Failed before completion
+    if (writer != null) writer.close();
+    Files.deleteIfExists(outputFile);
+  }
+
+  private void nextPart() throws IOException {
+
+    endUrlset();
+    if (partCount == 0) {
+
+      // The sitemap written so far becomes the first part
+      Files.createDirectories(partsDirectory);
+      try (OutputStream part = new GZIPOutputStream(Files.newOutputStream(partPath(++partCount)))) {
+        Files.copy(outputFile, part);
+      }
+    }
+    writer = startUrlset(new GZIPOutputStream(Files.newOutputStream(partPath(++partCount))));
+  }
+
+  private void writeIndex() throws IOException {
+
+    try (Writer indexWriter = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(outputFile),
+                                                                         StandardCharsets.UTF_8))) {
+
+      indexWriter.write(XML_DECLARATION);
+      indexWriter.write("<sitemapindex xmlns=\"" + NAMESPACE + "\">\n");
+      for (int part = 1; part <= partCount; part++) {
+
+        indexWriter.write("  <sitemap>\n");
+        indexWriter.write("    <loc>" + escapeXml(partsBaseUrl + String.format(PART_FILENAME, part)) + "</loc>\n");
+        indexWriter.write("  </sitemap>\n");
+      }
+      indexWriter.write("</sitemapindex>");
+    }
+    LOGGER.debug(String.format("Sitemap of %d URLs split into %d parts in %s", urlCount, partCount, partsDirectory));
+  }
+
+  private Writer startUrlset(OutputStream outputStream) throws IOException {
+
+    Writer urlsetWriter = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    urlsetWriter.write(XML_DECLARATION);
+    urlsetWriter.write(URLSET_START);
+    partUrlCount = 0;
+    partBytes = XML_DECLARATION.length() + URLSET_START.length();
+    return urlsetWriter;
+  }
+
+  private void endUrlset() throws IOException {
+
+    writer.write(URLSET_END);
+    writer.close();
+    writer = null;
+  }
+
+  private Path partPath(int part) {
+    return partsDirectory.resolve(String.format(PART_FILENAME, part));
+  }
+
+  private static String escapeXml(String text) {
+    return text.replace("&", "&amp;")
+        .replace("<", "&lt;")
+        .replace(">", "&gt;")
+        .replace("\"", "&quot;")
+        .replace("'", "&apos;");
+  }
+
+  private static String calculatePriority(int depth) {
+    double priority = Math.max(0.0, Math.min(1.0, 1.0 - (depth * 0.1)));
+    return String.format(Locale.ROOT, "%.1f", priority);
+  }
+}
@@ -0,0 +1,151 @@
+package org.mule.extension.webcrawler.internal.crawler.state;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State of the pages saved by previous crawls into a download location, keyed by cleaned URL. Used to fetch pages
+ * conditionally and to leave unchanged pages untouched on recrawl.
+ */
+public class PageStateStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PageStateStore.class);
+
+  public static final String STATE_FILENAME = "page-state.json";
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final Path file;
+  private final Map<String, PageState> states;
+
+  private PageStateStore(Path file, Map<String, PageState> states) {
+
+    this.file = file;
+    this.states = states;
+  }
+
+  /**
+   * Loads the store of a download location, empty if no crawl saved state there yet.
+   *
+   * @param downloadPath The download location.
+   */
+  public static PageStateStore load(String downloadPath) throws IOException {
+
+    Path file = Paths.get(downloadPath, STATE_FILENAME);
+    Map<String, PageState> states = new ConcurrentHashMap<>();
+    if (Files.exists(file)) {
+
+      states.putAll(OBJECT_MAPPER.readValue(file.toFile(), new TypeReference<Map<String, PageState>>() {}));
+      LOGGER.debug(String.format("Loaded state of %d pages from %s", states.size(), file));
+    }
+    return new PageStateStore(file, states);
+  }
+
+  public static PageStateStore empty(String downloadPath) {
+    return new PageStateStore(Paths.get(downloadPath, STATE_FILENAME), new ConcurrentHashMap<>());
+  }
+
+  public PageState get(String url) {
+    return states.get(url);
+  }
+
+  public void put(String url, PageState state) {
+    states.put(url, state);
+  }
+
+  /**
+   * Writes the store to a temporary file moved over the previous one.
+   */
+  public void save() throws IOException {
+
+    Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+    Files.createDirectories(file.getParent());
+    OBJECT_MAPPER.writeValue(tempFile.toFile(), states);
+    try {
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * @return The hex SHA-256 of the given content.
+   */
+  public static String hash(String content) {
+
+    try {
+
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static class PageState {
+
+    private String etag;
+    private String lastModified;
+    private String contentHash;
+    private String filename;
+    private List<String> links;
+    private String sitemapLastmod;
+
+    public PageState() {}
+
+    public PageState(String etag, String lastModified, String contentHash, String filename, List<String> links,
+                     String sitemapLastmod) {
+
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.contentHash = contentHash;
+      this.filename = filename;
+      this.links = links;
+      this.sitemapLastmod = sitemapLastmod;
+    }
+
+    public String getEtag() { return etag; }
+
+    public void setEtag(String etag) { this.etag = etag; }
+
+    public String getLastModified() { return lastModified; }
+
+    public void setLastModified(String lastModified) { this.lastModified = lastModified; }
+
+    public String getContentHash() { return contentHash; }
+
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public String getFilename() { return filename; }
+
+    public void setFilename(String filename) { this.filename = filename; }
+
+    public List<String> getLinks() { return links; }
+
+    public void setLinks(List<String> links) { this.links = links; }
+
+    public String getSitemapLastmod() { return sitemapLastmod; }
+
+    public void setSitemapLastmod(String sitemapLastmod) { this.sitemapLastmod = sitemapLastmod; }
+  }
+}
@@ -1,6 +1,7 @@
 package org.mule.extension.webcrawler.internal.helper;
 
 import org.mule.extension.webcrawler.api.metadata.PageResponseAttributes;
+import org.mule.extension.webcrawler.api.metadata.PageTimings;
 import org.mule.extension.webcrawler.api.metadata.ResponseAttributes;
 import org.mule.extension.webcrawler.api.metadata.SearchResponseAttributes;
 import org.mule.extension.webcrawler.api.metadata.SitemapResponseAttributes;
@@ -9,6 +10,7 @@ import org.mule.runtime.api.streaming.CursorProvider;
 import org.mule.runtime.extension.api.runtime.operation.Result;
 import org.mule.runtime.extension.api.runtime.streaming.StreamingHelper;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
@@ -36,10 +38,25 @@ public class ResponseHelper {
       String output,
       Map<String, Object> pageAttributes) {
 
+    byte[] outputBytes = output.getBytes(StandardCharsets.UTF_8);
+    setBytesOut(pageAttributes, outputBytes.length);
+
     return Result.<InputStream, PageResponseAttributes>builder()
         .attributes(new PageResponseAttributes((HashMap<String, Object>) pageAttributes))
         .attributesMediaType(MediaType.APPLICATION_JAVA)
-        .output(toInputStream(output, StandardCharsets.UTF_8))
+        .output(new ByteArrayInputStream(outputBytes))
+        .mediaType(MediaType.APPLICATION_JSON)
+        .build();
+  }
+
+  public static Result<InputStream, PageResponseAttributes> createPageResponse(
+      InputStream output,
+      Map<String, Object> pageAttributes) {
+
+    return Result.<InputStream, PageResponseAttributes>builder()
+        .attributes(new PageResponseAttributes((HashMap<String, Object>) pageAttributes))
+        .attributesMediaType(MediaType.APPLICATION_JAVA)
+        .output(output)
         .mediaType(MediaType.APPLICATION_JSON)
         .build();
   }
@@ -56,6 +73,18 @@ public class ResponseHelper {
         .build();
   }
 
+  public static Result<InputStream, SitemapResponseAttributes> createSitemapResponse(
+      InputStream output,
+      Map<String, Object> sitemapAttributes) {
+
+    return Result.<InputStream, SitemapResponseAttributes>builder()
+        .attributes(new SitemapResponseAttributes((HashMap<String, Object>) sitemapAttributes))
+        .attributesMediaType(MediaType.APPLICATION_JAVA)
+        .output(output)
+        .mediaType(MediaType.APPLICATION_XML)
+        .build();
+  }
+
   public static Result<InputStream, SearchResponseAttributes> createSearchResponse(
       String output,
       Map<String, Object> searchAttributes) {
@@ -75,13 +104,25 @@ public class ResponseHelper {
 
     List<Result<CursorProvider, PageResponseAttributes>> page =  new LinkedList();
 
+    byte[] responseBytes = response.getBytes(StandardCharsets.UTF_8);
+    setBytesOut(documentAttributes, responseBytes.length);
+
     page.add(Result.<CursorProvider, PageResponseAttributes>builder()
                  .attributes(new PageResponseAttributes((HashMap<String, Object>) documentAttributes))
-                 .output((CursorProvider) streamingHelper.resolveCursorProvider(toInputStream(response, StandardCharsets.UTF_8)))
+                 .output((CursorProvider) streamingHelper.resolveCursorProvider(new ByteArrayInputStream(responseBytes)))
                  .mediaType(org.mule.runtime.api.metadata.MediaType.APPLICATION_JSON)
                  .attributesMediaType(org.mule.runtime.api.metadata.MediaType.APPLICATION_JAVA)
                  .build());
 
     return page;
   }
+
+  /**
+   * Records the size of the output in the page timings, if any.
+   */
+  private static void setBytesOut(Map<String, Object> pageAttributes, long bytesOut) {
+
+    Object timings = pageAttributes.get("timings");
+    if (timings instanceof PageTimings) ((PageTimings) timings).setBytesOut(bytesOut);
+  }
 }
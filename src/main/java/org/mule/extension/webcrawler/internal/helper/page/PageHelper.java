@@ -2,12 +2,14 @@ package org.mule.extension.webcrawler.internal.helper.page;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.mule.extension.webcrawler.api.metadata.PageTimings;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.mule.extension.webcrawler.internal.config.PageLoadOptions;
 import org.mule.extension.webcrawler.internal.config.WebCrawlerConfiguration;
+import org.mule.extension.webcrawler.internal.connection.PageSource;
 import org.mule.extension.webcrawler.internal.connection.WebCrawlerConnection;
 import org.mule.extension.webcrawler.internal.connection.webdriver.WebDriverConnection;
 import org.mule.extension.webcrawler.internal.constant.Constants;
@@ -26,6 +28,8 @@ import java.net.URLDecoder;
 import java.net.HttpURLConnection;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
@@ -54,16 +58,42 @@ public class PageHelper {
                                      PageLoadOptions pageLoadOptions) throws IOException {
 
     LOGGER.debug(String.format("Retrieving JSoup Document for url %s and referer %s", url, referrer));
-    try (InputStream pageSourceInputStream = connection.getPageSource(url, referrer, pageLoadOptions).get()) { // Blocks until complete
-      String pageSource = new String(pageSourceInputStream.readAllBytes(), StandardCharsets.UTF_8);
-      Document document = Jsoup.parse(pageSource, url);
+    PageSource pageSource = getPageSource(webCrawlerConfiguration, connection, url, referrer, pageLoadOptions);
 
-      // Apply page load options to WebDriver connections
-      if (connection instanceof WebDriverConnection && pageLoadOptions.isExtractShadowDom()) {
-        ((WebDriverConnection) connection).injectAllShadowDOMs(document, pageLoadOptions.getShadowHostXPath());
-      }
+    // The response body is parsed as it is read, without being buffered first
+    try (InputStream content = pageSource.getContent()) {
+
+      Document document = parseDocument(connection, content, getCharset(pageSource), url, pageLoadOptions);
+      if (pageLoadOptions.getTimings() != null) {
 
+        pageLoadOptions.getTimings().setBytesIn(pageSource.getContentByteCount());
+        pageLoadOptions.getTimings().setBytesReceived(pageSource.getReceivedByteCount());
+      }
       return document;
+    }
+  }
+
+  /**
+   * Retrieves the page source without reading it, so that fetching and parsing can run on different threads.
+   *
+   * @return The page source, along with the response headers giving its charset when known.
+   */
+  public static PageSource getPageSource(WebCrawlerConfiguration webCrawlerConfiguration,
+                                         WebCrawlerConnection connection,
+                                         String url,
+                                         String referrer,
+                                         PageLoadOptions pageLoadOptions) throws IOException {
+
+    LOGGER.debug(String.format("Retrieving page source for url %s and referer %s", url, referrer));
+    PageTimings timings = pageLoadOptions.getTimings();
+    long start = System.nanoTime();
+    try {
+
+      PageSource pageSource = connection.getPageSourceWithHeaders(url, referrer, pageLoadOptions,
+                                                                  webCrawlerConfiguration.getPageLoadExecutor()).get(); // Blocks until complete
+      if (timings != null) timings.addFetchNanos(System.nanoTime() - start);
+      return pageSource;
+
     } catch (ModuleException me) {
       throw me;
 
@@ -72,6 +102,90 @@ public class PageHelper {
     }
   }
 
+  /**
+   * Gets the charset of a page source from the {@code charset} parameter of its {@code Content-Type} header.
+   *
+   * @return The charset name, {@code null} if not given or not supported.
+   */
+  public static String getCharset(PageSource pageSource) {
+
+    String contentType = pageSource.getHeader("Content-Type");
+    if (contentType == null) return null;
+
+    for (String parameter : contentType.split(";")) {
+
+      int separator = parameter.indexOf('=');
+      if (separator == -1 || !parameter.substring(0, separator).trim().equalsIgnoreCase("charset")) continue;
+
+      String charsetName = parameter.substring(separator + 1).trim().replace("\"", "").replace("'", "");
+      try {
+
+        if (!charsetName.isEmpty() && Charset.isSupported(charsetName)) return charsetName;
+
+      } catch (IllegalCharsetNameException e) {
+        LOGGER.debug(String.format("Ignoring invalid charset %s", charsetName));
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Retrieves the page source sending validators of a previously fetched version of the page.
+   *
+   * @param etag         The ETag of the previous version, if any.
+   * @param lastModified The Last-Modified date of the previous version, if any.
+   * @return The page source, not modified if the previous version is still current.
+   */
+  public static PageSource getConditionalPageSource(WebCrawlerConnection connection,
+                                                    String url,
+                                                    String referrer,
+                                                    PageLoadOptions pageLoadOptions,
+                                                    String etag,
+                                                    String lastModified) throws IOException {
+
+    Map<String, String> requestHeaders = new HashMap<>();
+    if (etag != null) requestHeaders.put("If-None-Match", etag);
+    if (lastModified != null) requestHeaders.put("If-Modified-Since", lastModified);
+
+    LOGGER.debug(String.format("Retrieving page source for url %s with validators %s", url, requestHeaders));
+    try {
+
+      return connection.getConditionalPageSource(url, referrer, pageLoadOptions, requestHeaders).get(); // Blocks until complete
+
+    } catch (InterruptedException | ExecutionException e) {
+      throw new IOException(String.format("Error fetching page source for %s", url), e);
+    }
+  }
+
+  /**
+   * Parses a page source as it is read.
+   *
+   * @param charsetName The charset of the page source, from the response headers. If {@code null}, the charset is
+   *                    detected from the byte order mark, then from the meta tags, falling back to UTF-8. A byte order
+   *                    mark overrides the charset given.
+   */
+  public static Document parseDocument(WebCrawlerConnection connection,
+                                       InputStream pageSourceInputStream,
+                                       String charsetName,
+                                       String url,
+                                       PageLoadOptions pageLoadOptions) throws IOException {
+
+    PageTimings timings = pageLoadOptions.getTimings();
+    long start = System.nanoTime();
+    Document document = Jsoup.parse(pageSourceInputStream, charsetName, url);
+    if (timings != null) timings.addParseNanos(System.nanoTime() - start);
+
+    // Apply page load options to WebDriver connections
+    if (connection instanceof WebDriverConnection && pageLoadOptions.isExtractShadowDom()) {
+
+      start = System.nanoTime();
+      ((WebDriverConnection) connection).injectAllShadowDOMs(document, pageLoadOptions.getShadowHostXPath());
+      if (timings != null) timings.addShadowDomNanos(System.nanoTime() - start);
+    }
+
+    return document;
+  }
+
   public static boolean isURLValid(WebCrawlerConfiguration webCrawlerConfiguration,
                                    WebCrawlerConnection connection,
                                    String url,
@@ -80,7 +194,7 @@ public class PageHelper {
     LOGGER.debug(String.format("Retrieving status code for url %s and referer %s", url, referrer));
     try {
 
-      Integer urlStatusCode = connection.getUrlStatusCode(url, referrer).get();
+      Integer urlStatusCode = connection.getUrlStatusCode(url, referrer, webCrawlerConfiguration.getPageLoadExecutor()).get();
       if(urlStatusCode != 200) {
         LOGGER.debug(String.format("URL %s is not valid. Status code: %d", url, urlStatusCode));
       }
@@ -302,7 +416,7 @@ public class PageHelper {
    * @param regexUrls            A list of regex patterns to match against the URL.
    * @return {@code true} if the URL should be skipped according to the filter logic, {@code false} otherwise.
    */
-  private static boolean skipUrl(String url, Constants.RegexUrlsFilterLogic regexUrlsFilterLogic, List<String> regexUrls) {
+  public static boolean skipUrl(String url, Constants.RegexUrlsFilterLogic regexUrlsFilterLogic, List<String> regexUrls) {
     if (regexUrlsFilterLogic != null && regexUrls != null && !regexUrls.isEmpty()) {
       boolean matchesPattern = regexUrls.stream().anyMatch(pattern -> Pattern.matches(pattern, url));
       if ((regexUrlsFilterLogic == Constants.RegexUrlsFilterLogic.INCLUDE && !matchesPattern) ||
@@ -718,7 +832,7 @@ public class PageHelper {
     String baseUrl;
     try {
       URL base = new URL(url);
-      baseUrl = base.getProtocol() + "://" + base.getHost();
+      baseUrl = base.getProtocol() + "://" + base.getHost() + (base.getPort() != -1 ? ":" + base.getPort() : "");
     } catch (MalformedURLException e) {
       LOGGER.error("Invalid URL: " + url, e);
       return false;
@@ -758,10 +872,42 @@ public class PageHelper {
     return isAllowed;
   }
 
+  /**
+   * Gets the sitemaps of a website, as declared by the Sitemap entries of its robots.txt.
+   *
+   * @return The sitemap URLs declared, or the default /sitemap.xml location if none is.
+   */
+  public static List<String> getSitemapUrls(String url) {
+
+    List<String> sitemapUrls = new ArrayList<>();
+    String robotsTxtContent = getRobotsTxt(url);
+    if (robotsTxtContent != null) {
+
+      // Sitemap entries apply to all user agents, wherever they are in the file
+      for (String line : robotsTxtContent.split("\n")) {
+
+        line = line.trim();
+        if (line.toLowerCase().startsWith("sitemap:")) {
+
+          String sitemapUrl = line.substring(8).trim();
+          if (!sitemapUrl.isEmpty()) sitemapUrls.add(sitemapUrl);
+        }
+      }
+    }
+
+    if (sitemapUrls.isEmpty()) {
+
+      String rootURL = URLUtils.getRootURL(url);
+      if (rootURL != null) sitemapUrls.add(rootURL + "sitemap.xml");
+    }
+    return sitemapUrls;
+  }
+
   public static String getRobotsTxt(String url) {
     try {
       URL baseUrl = new URL(url);
-      String baseUrlString = baseUrl.getProtocol() + "://" + baseUrl.getHost();
+      String baseUrlString = baseUrl.getProtocol() + "://" + baseUrl.getHost() +
+          (baseUrl.getPort() != -1 ? ":" + baseUrl.getPort() : "");
 
       // Check if the robots.txt content is already cached
       if (robotsTxtCache.containsKey(baseUrlString)) {
@@ -769,7 +915,6 @@ public class PageHelper {
       }
 
       String robotsTxtUrl = baseUrlString + "/robots.txt";
-      Document document = Jsoup.connect(robotsTxtUrl).get();
       String robotsTxtContent = Jsoup.connect(robotsTxtUrl)
           .ignoreContentType(true) // Ensures it handles plain text
           .execute()
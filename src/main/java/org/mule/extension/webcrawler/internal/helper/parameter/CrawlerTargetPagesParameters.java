@@ -1,6 +1,9 @@
 package org.mule.extension.webcrawler.internal.helper.parameter;
 
 import org.mule.extension.webcrawler.internal.constant.Constants;
+import org.mule.extension.webcrawler.internal.crawler.CrawlBudget;
+import org.mule.extension.webcrawler.internal.crawler.CrawlerTrapDetector;
+import org.mule.extension.webcrawler.internal.crawler.frontier.VisitedUrlOptions;
 import org.mule.runtime.api.meta.ExpressionSupport;
 import org.mule.runtime.extension.api.annotation.Alias;
 import org.mule.runtime.extension.api.annotation.Expression;
@@ -51,6 +54,121 @@ public class CrawlerTargetPagesParameters {
   @Optional(defaultValue = "#[[\"https://www\\.googletagmanager\\.com/.*\"]]")
   private List<String> regexUrls;
 
+  @Parameter
+  @Alias("dedupStrategy")
+  @DisplayName("Visited URLs tracking")
+  @Summary("How visited URLs are tracked. BLOOM_FILTER uses a fixed amount of memory but may skip a small share of " +
+      "unvisited pages.")
+  @Placement(order = 5)
+  @Optional(defaultValue = "EXACT")
+  private Constants.DedupStrategy dedupStrategy;
+
+  @Parameter
+  @Alias("expectedUrlCount")
+  @DisplayName("Expected URL count")
+  @Summary("The number of URLs the Bloom filter is sized for (BLOOM_FILTER only).")
+  @Placement(order = 6)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("100000")
+  @Optional(defaultValue = "100000")
+  private int expectedUrlCount;
+
+  @Parameter
+  @Alias("falsePositiveRate")
+  @DisplayName("False positive rate")
+  @Summary("The share of unvisited URLs the Bloom filter may report as visited once the expected URL count is " +
+      "reached (BLOOM_FILTER only).")
+  @Placement(order = 7)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("0.01")
+  @Optional(defaultValue = "0.01")
+  private double falsePositiveRate;
+
+  @Parameter
+  @Alias("crawlOrder")
+  @DisplayName("Crawl order")
+  @Summary("The order in which discovered pages are visited. BEST_FIRST visits first the pages closest to the root, " +
+      "most linked, under the root path and with the highest sitemap priority. BEST_FIRST requires all queued " +
+      "pages to be kept in memory. With BEST_FIRST, a page keeps the depth of the link it was first found " +
+      "through, even if a shorter path to it is found before it is visited.")
+  @Placement(order = 8)
+  @Optional(defaultValue = "BREADTH_FIRST")
+  private Constants.CrawlOrder crawlOrder;
+
+  @Parameter
+  @Alias("maxPages")
+  @DisplayName("Maximum pages")
+  @Summary("The maximum number of pages visited. The crawl stops once reached and returns the pages visited so far. " +
+      "0 means no limit.")
+  @Placement(order = 9)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("1000")
+  @Optional(defaultValue = "0")
+  private int maxPages;
+
+  @Parameter
+  @Alias("maxTotalBytes")
+  @DisplayName("Maximum total bytes")
+  @Summary("The maximum number of bytes of page sources fetched. The crawl stops once reached and returns the pages " +
+      "visited so far. 0 means no limit.")
+  @Placement(order = 10)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("104857600")
+  @Optional(defaultValue = "0")
+  private long maxTotalBytes;
+
+  @Parameter
+  @Alias("maxDurationMillis")
+  @DisplayName("Maximum duration (millisecs)")
+  @Summary("The maximum time spent crawling. The crawl stops once reached and returns the pages visited so far. " +
+      "0 means no limit.")
+  @Placement(order = 11)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("600000")
+  @Optional(defaultValue = "0")
+  private long maxDurationMillis;
+
+  @Parameter
+  @Alias("sitemapDiscovery")
+  @DisplayName("Sitemap discovery")
+  @Summary("SEED_FRONTIER queues the pages listed by the sitemaps of the website (declared in robots.txt, or " +
+      "/sitemap.xml) in addition to the links found on pages. SITEMAP_ONLY visits the root page and the pages listed " +
+      "by sitemaps only, without extracting links from pages.")
+  @Placement(order = 12)
+  @Optional(defaultValue = "DISABLED")
+  private Constants.SitemapDiscovery sitemapDiscovery;
+
+  @Parameter
+  @Alias("stripTrackingParameters")
+  @DisplayName("Strip tracking parameters")
+  @Summary("If true, tracking query parameters (utm_*, gclid, fbclid...) are removed from links, so that pages " +
+      "linked from different campaigns are visited once.")
+  @Placement(order = 13)
+  @Optional(defaultValue = "false")
+  private boolean stripTrackingParameters;
+
+  @Parameter
+  @Alias("maxPagesPerUrlPattern")
+  @DisplayName("Maximum pages per URL pattern")
+  @Summary("The maximum number of pages visited per URL pattern, i.e. URLs differing only by numbers in their path " +
+      "and by query parameter values (calendars, faceted search). 0 means no limit.")
+  @Placement(order = 14)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("500")
+  @Optional(defaultValue = "0")
+  private int maxPagesPerUrlPattern;
+
+  @Parameter
+  @Alias("maxRepeatedPathSegments")
+  @DisplayName("Maximum repeated path segments")
+  @Summary("The maximum number of times a same segment can appear in the path of a URL, URLs such as /a/b/a/b/a/b " +
+      "being skipped beyond. 0 means no limit.")
+  @Placement(order = 15)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("2")
+  @Optional(defaultValue = "0")
+  private int maxRepeatedPathSegments;
+
   public boolean isRestrictToPath() {
     return restrictToPath;
   }
@@ -75,6 +193,61 @@ public class CrawlerTargetPagesParameters {
 
   public void setRegexUrls(List<String> regexUrls) { this.regexUrls = regexUrls; }
 
+  public Constants.DedupStrategy getDedupStrategy() { return dedupStrategy; }
+
+  public void setDedupStrategy(Constants.DedupStrategy dedupStrategy) { this.dedupStrategy = dedupStrategy; }
+
+  public int getExpectedUrlCount() { return expectedUrlCount; }
+
+  public void setExpectedUrlCount(int expectedUrlCount) { this.expectedUrlCount = expectedUrlCount; }
+
+  public double getFalsePositiveRate() { return falsePositiveRate; }
+
+  public void setFalsePositiveRate(double falsePositiveRate) { this.falsePositiveRate = falsePositiveRate; }
+
+  public Constants.CrawlOrder getCrawlOrder() { return crawlOrder; }
+
+  public void setCrawlOrder(Constants.CrawlOrder crawlOrder) { this.crawlOrder = crawlOrder; }
+
+  public int getMaxPages() { return maxPages; }
+
+  public void setMaxPages(int maxPages) { this.maxPages = maxPages; }
+
+  public long getMaxTotalBytes() { return maxTotalBytes; }
+
+  public void setMaxTotalBytes(long maxTotalBytes) { this.maxTotalBytes = maxTotalBytes; }
+
+  public long getMaxDurationMillis() { return maxDurationMillis; }
+
+  public void setMaxDurationMillis(long maxDurationMillis) { this.maxDurationMillis = maxDurationMillis; }
+
+  public Constants.SitemapDiscovery getSitemapDiscovery() { return sitemapDiscovery; }
+
+  public void setSitemapDiscovery(Constants.SitemapDiscovery sitemapDiscovery) { this.sitemapDiscovery = sitemapDiscovery; }
+
+  public boolean isStripTrackingParameters() { return stripTrackingParameters; }
+
+  public void setStripTrackingParameters(boolean stripTrackingParameters) { this.stripTrackingParameters = stripTrackingParameters; }
+
+  public int getMaxPagesPerUrlPattern() { return maxPagesPerUrlPattern; }
+
+  public void setMaxPagesPerUrlPattern(int maxPagesPerUrlPattern) { this.maxPagesPerUrlPattern = maxPagesPerUrlPattern; }
+
+  public int getMaxRepeatedPathSegments() { return maxRepeatedPathSegments; }
+
+  public void setMaxRepeatedPathSegments(int maxRepeatedPathSegments) { this.maxRepeatedPathSegments = maxRepeatedPathSegments; }
+
+  public VisitedUrlOptions toVisitedUrlOptions() {
+    return new VisitedUrlOptions(dedupStrategy, expectedUrlCount, falsePositiveRate);
+  }
+
+  public CrawlBudget toCrawlBudget() {
+    return new CrawlBudget(maxPages, maxTotalBytes, maxDurationMillis);
+  }
+
+  public CrawlerTrapDetector toTrapDetector() {
+    return new CrawlerTrapDetector(maxPagesPerUrlPattern, maxRepeatedPathSegments);
+  }
 
   @Override
   public String toString() {
@@ -83,6 +256,17 @@ public class CrawlerTargetPagesParameters {
         ", restrictToPath=" + restrictToPath +
         ", urlFilterType=" + regexUrlsFilterLogic +
         ", regexUrls=" + regexUrls +
+        ", dedupStrategy=" + dedupStrategy +
+        ", expectedUrlCount=" + expectedUrlCount +
+        ", falsePositiveRate=" + falsePositiveRate +
+        ", crawlOrder=" + crawlOrder +
+        ", maxPages=" + maxPages +
+        ", maxTotalBytes=" + maxTotalBytes +
+        ", maxDurationMillis=" + maxDurationMillis +
+        ", sitemapDiscovery=" + sitemapDiscovery +
+        ", stripTrackingParameters=" + stripTrackingParameters +
+        ", maxPagesPerUrlPattern=" + maxPagesPerUrlPattern +
+        ", maxRepeatedPathSegments=" + maxRepeatedPathSegments +
         '}';
   }
 }
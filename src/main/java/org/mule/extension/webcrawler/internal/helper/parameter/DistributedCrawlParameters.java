@@ -0,0 +1,135 @@
+package org.mule.extension.webcrawler.internal.helper.parameter;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.extension.api.annotation.Alias;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Example;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+import org.mule.runtime.extension.api.annotation.param.reference.ObjectStoreReference;
+
+import java.io.Serializable;
+
+public class DistributedCrawlParameters {
+
+  @Parameter
+  @Alias("crawlId")
+  @DisplayName("Crawl id")
+  @Summary("Id shared by all workers of the crawl. Reusing the id of a finished crawl returns its pages.")
+  @Placement(order = 1)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("docs-crawl-2024-05-01")
+  private String crawlId;
+
+  @Parameter
+  @Alias("objectStore")
+  @DisplayName("Object store")
+  @Summary("Object store shared by all workers, holding the frontier, visited URLs and partition leases. Must be " +
+      "persistent, so that it is shared by the workers of a clustered or CloudHub application.")
+  @Placement(order = 2)
+  @ObjectStoreReference
+  private ObjectStore<Serializable> objectStore;
+
+  @Parameter
+  @Alias("workerId")
+  @DisplayName("Worker id")
+  @Summary("Id of this worker, unique among workers. A random id is used if not set.")
+  @Placement(order = 3)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Optional
+  private String workerId;
+
+  @Parameter
+  @Alias("partitionCount")
+  @DisplayName("Partition count")
+  @Summary("Number of partitions the frontier is split into by host. Must be the same for all workers.")
+  @Placement(order = 4)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("16")
+  @Optional(defaultValue = "16")
+  private int partitionCount;
+
+  @Parameter
+  @Alias("leaseMillis")
+  @DisplayName("Partition lease (millisecs)")
+  @Summary("Time after which a partition held by a worker that stopped crawling it is taken over by another worker.")
+  @Placement(order = 5)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("300000")
+  @Optional(defaultValue = "300000")
+  private long leaseMillis;
+
+  @Parameter
+  @Alias("pollIntervalMillis")
+  @DisplayName("Poll interval (millisecs)")
+  @Summary("Time to wait before looking for pages again when all partitions with pages left are held by other workers.")
+  @Placement(order = 6)
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("1000")
+  @Optional(defaultValue = "1000")
+  private long pollIntervalMillis;
+
+  public String getCrawlId() {
+    return crawlId;
+  }
+
+  public void setCrawlId(String crawlId) {
+    this.crawlId = crawlId;
+  }
+
+  public ObjectStore<Serializable> getObjectStore() {
+    return objectStore;
+  }
+
+  public void setObjectStore(ObjectStore<Serializable> objectStore) {
+    this.objectStore = objectStore;
+  }
+
+  public String getWorkerId() {
+    return workerId;
+  }
+
+  public void setWorkerId(String workerId) {
+    this.workerId = workerId;
+  }
+
+  public int getPartitionCount() {
+    return partitionCount;
+  }
+
+  public void setPartitionCount(int partitionCount) {
+    this.partitionCount = partitionCount;
+  }
+
+  public long getLeaseMillis() {
+    return leaseMillis;
+  }
+
+  public void setLeaseMillis(long leaseMillis) {
+    this.leaseMillis = leaseMillis;
+  }
+
+  public long getPollIntervalMillis() {
+    return pollIntervalMillis;
+  }
+
+  public void setPollIntervalMillis(long pollIntervalMillis) {
+    this.pollIntervalMillis = pollIntervalMillis;
+  }
+
+  @Override
+  public String toString() {
+    return "DistributedCrawlParameters{" +
+        "crawlId='" + crawlId + '\'' +
+        ", objectStore=" + objectStore +
+        ", workerId='" + workerId + '\'' +
+        ", partitionCount=" + partitionCount +
+        ", leaseMillis=" + leaseMillis +
+        ", pollIntervalMillis=" + pollIntervalMillis +
+        '}';
+  }
+}
@@ -1,19 +1,29 @@
 package org.mule.extension.webcrawler.internal.operation;
 
 import org.mule.extension.webcrawler.api.metadata.PageResponseAttributes;
+import org.mule.extension.webcrawler.api.metadata.ResponseAttributes;
 import org.mule.extension.webcrawler.api.metadata.SitemapResponseAttributes;
 import org.mule.extension.webcrawler.internal.config.WebCrawlerConfiguration;
 import org.mule.extension.webcrawler.internal.connection.WebCrawlerConnection;
 import org.mule.extension.webcrawler.internal.constant.Constants;
 import org.mule.extension.webcrawler.internal.crawler.Crawler;
+import org.mule.extension.webcrawler.internal.crawler.checkpoint.CheckpointOptions;
+import org.mule.extension.webcrawler.internal.crawler.dedup.NearDuplicateOptions;
+import org.mule.extension.webcrawler.internal.crawler.distributed.CrawlStore;
+import org.mule.extension.webcrawler.internal.crawler.distributed.DistributedCrawlCoordinator;
+import org.mule.extension.webcrawler.internal.crawler.distributed.ObjectStoreCrawlStore;
+import org.mule.extension.webcrawler.internal.crawler.metrics.CrawlMetrics;
+import org.mule.extension.webcrawler.internal.crawler.sitemap.SitemapWriter;
 import org.mule.extension.webcrawler.internal.error.WebCrawlerErrorType;
 import org.mule.extension.webcrawler.internal.error.provider.WebCrawlerErrorTypeProvider;
 import org.mule.extension.webcrawler.internal.helper.ResponseHelper;
 import org.mule.extension.webcrawler.internal.helper.parameter.CrawlerTargetContentParameters;
 import org.mule.extension.webcrawler.internal.helper.parameter.CrawlerTargetPagesParameters;
+import org.mule.extension.webcrawler.internal.helper.parameter.DistributedCrawlParameters;
 import org.mule.extension.webcrawler.internal.metadata.CrawlWebSiteStreamingOutputTypeMetadataResolver;
 import org.mule.extension.webcrawler.internal.pagination.CrawlerPagingProvider;
 import org.mule.extension.webcrawler.internal.util.JSONUtils;
+import org.mule.extension.webcrawler.internal.util.URLUtils;
 import org.mule.runtime.api.meta.ExpressionSupport;
 import org.mule.runtime.api.streaming.CursorProvider;
 import org.mule.runtime.extension.api.annotation.Alias;
@@ -34,8 +44,10 @@ import org.mule.runtime.extension.api.runtime.streaming.StreamingHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
 import java.util.HashMap;
 
 import static org.mule.runtime.extension.api.annotation.param.MediaType.*;
@@ -86,8 +98,32 @@ public class CrawlOperations {
       @DisplayName("Website URL") @Placement(order = 1) @Example("https://mac-project.ai/docs") String url,
       @DisplayName("Output format") @Placement(order = 2) Constants.OutputFormat outputFormat,
       @DisplayName("Download location") @Placement(order = 3) @Example("/users/mulesoft/downloads") String downloadPath,
+      @Alias("incremental") @DisplayName("Skip unchanged pages")
+          @Summary("If true, pages saved into the download location by a previous crawl are requested conditionally and " +
+              "are not saved again when unchanged.")
+          @Placement(order = 4) @Optional(defaultValue = "false") boolean incremental,
       @ParameterGroup(name = "Target Pages") CrawlerTargetPagesParameters targetPagesParameters,
-      @ParameterGroup(name = "Target Content") CrawlerTargetContentParameters targetContentParameters) {
+      @ParameterGroup(name = "Target Content") CrawlerTargetContentParameters targetContentParameters,
+      @Alias("checkpointInterval") @DisplayName("Checkpoint interval (pages)")
+          @Summary("Number of pages crawled between checkpoints written to the download location. 0 disables checkpoints.")
+          @Placement(order = 1, tab = "Checkpoint") @Expression(ExpressionSupport.SUPPORTED) @Example("100")
+          @Optional(defaultValue = "0") int checkpointInterval,
+      @Alias("resumeFrom") @DisplayName("Resume from")
+          @Summary("Checkpoint file to resume the crawl from. A new crawl is started if the file does not exist.")
+          @Placement(order = 2, tab = "Checkpoint") @Expression(ExpressionSupport.SUPPORTED)
+          @Example("/users/mulesoft/downloads/crawl-checkpoint.bin") @Optional String resumeFrom,
+      @Alias("skipNearDuplicates") @DisplayName("Skip near-duplicate pages")
+          @Summary("If true, pages whose text is nearly the same as a page already crawled (print views, locale or " +
+              "sort order variants) are not saved. They are listed with the page they duplicate.")
+          @Placement(order = 1, tab = "Near Duplicates") @Optional(defaultValue = "false") boolean skipNearDuplicates,
+      @Alias("nearDuplicateDistance") @DisplayName("Near-duplicate distance (bits)")
+          @Summary("The maximum number of differing bits, out of 64, between the text fingerprints of two pages for " +
+              "them to be near-duplicates. 0 only matches pages with the same text, up to 16.")
+          @Placement(order = 2, tab = "Near Duplicates") @Expression(ExpressionSupport.SUPPORTED) @Example("3")
+          @Optional(defaultValue = "3") int nearDuplicateDistance,
+      @Alias("followNearDuplicateLinks") @DisplayName("Follow links of near-duplicates")
+          @Summary("If false, links found on near-duplicate pages are not followed.")
+          @Placement(order = 3, tab = "Near Duplicates") @Optional(defaultValue = "true") boolean followNearDuplicateLinks) {
 
     try {
 
@@ -110,6 +146,16 @@ public class CrawlOperations {
           .maxDocumentNumber(targetContentParameters.getMaxDocumentNumber())
           .regexUrlsFilterLogic(targetPagesParameters.getRegexUrlsFilterLogic())
           .regexUrls(targetPagesParameters.getRegexUrls())
+          .visitedUrls(targetPagesParameters.toVisitedUrlOptions())
+          .crawlOrder(targetPagesParameters.getCrawlOrder())
+          .budget(targetPagesParameters.toCrawlBudget())
+          .sitemapDiscovery(targetPagesParameters.getSitemapDiscovery())
+          .stripTrackingParameters(targetPagesParameters.isStripTrackingParameters())
+          .trapDetector(targetPagesParameters.toTrapDetector())
+          .checkpoint(new CheckpointOptions(checkpointInterval, resumeFrom))
+          .incremental(incremental)
+          .nearDuplicates(skipNearDuplicates ?
+                              new NearDuplicateOptions(nearDuplicateDistance, followNearDuplicateLinks) : null)
           .build();
 
       LOGGER.debug("Start website crawling");
@@ -117,11 +163,114 @@ public class CrawlOperations {
 
       Crawler.SiteNode rootNode = crawler.crawl();
 
+      HashMap<String, Object> attributes = new HashMap<String, Object>() {{
+        put("url", url);
+      }};
+      crawler.addResponseAttributes(attributes);
+
+      return ResponseHelper.createPageResponse(
+          JSONUtils.convertToJSONStream(rootNode, true),
+          attributes
+      );
+
+    } catch (ModuleException me) {
+      throw me;
+
+    } catch (Exception e) {
+      throw new ModuleException(
+          String.format("Error while crawling website '%s'.", url),
+          WebCrawlerErrorType.WEBCRAWLER_OPERATIONS_FAILURE,
+          e);
+    }
+  }
+
+  /**
+   * Crawl a website with several workers, typically the replicas of a clustered or CloudHub application, sharing
+   * the frontier and visited URLs through an object store. Each worker saves the pages it crawls to its download
+   * location and returns the tree of the pages crawled by all workers.
+   */
+  @MediaType(value = APPLICATION_JSON, strict = false)
+  @Alias("crawl-website-distributed")
+  @DisplayName("[Crawl] Website (Distributed)")
+  @Throws(WebCrawlerErrorTypeProvider.class)
+  @OutputJsonType(schema = "api/metadata/CrawlWebSiteFullScan.json")
+  public org.mule.runtime.extension.api.runtime.operation.Result<InputStream, PageResponseAttributes>
+      crawlWebsiteDistributed(
+      @Config WebCrawlerConfiguration configuration,
+      @Connection WebCrawlerConnection connection,
+      @DisplayName("Website URL") @Placement(order = 1) @Example("https://mac-project.ai/docs") String url,
+      @DisplayName("Output format") @Placement(order = 2) Constants.OutputFormat outputFormat,
+      @DisplayName("Download location") @Placement(order = 3) @Example("/users/mulesoft/downloads") String downloadPath,
+      @ConfigOverride
+          @Alias("waitOnPageLoad") @DisplayName("Wait on page load (millisecs)") @Summary("The time to wait on page load (not available for HTTP connection)")
+          @Placement(order = 1, tab = "Page Load Options (WebDriver)") @Expression(ExpressionSupport.SUPPORTED) @Example("1000") @Optional Long waitOnPageLoad,
+      @ConfigOverride
+          @Alias("waitForXPath") @DisplayName("Wait for XPath") @Summary("The XPath to wait for (not available for HTTP connection)")
+          @Placement(order = 2, tab = "Page Load Options (WebDriver)") @Expression(ExpressionSupport.SUPPORTED) @Example("//body") @Optional String waitForXPath,
+      @ConfigOverride
+          @Alias("extractShadowDom") @DisplayName("Extract Shadow DOM") @Summary("Extract the Shadow DOM content (not available for HTTP connection)")
+          @Placement(order = 2, tab = "Page Load Options (WebDriver)") @Expression(ExpressionSupport.SUPPORTED) @Optional boolean extractShadowDom,
+      @ConfigOverride
+          @Alias("shadowHostXPath") @DisplayName("Shadow Host(s) XPath") @Summary("Shadow host(s) to extract by XPath (not available for HTTP connection)")
+          @Placement(order = 2, tab = "Page Load Options (WebDriver)") @Expression(ExpressionSupport.SUPPORTED) @Example("//results") @Optional String shadowHostXPath,
+      @ParameterGroup(name = "Distributed Crawl") DistributedCrawlParameters distributedCrawlParameters,
+      @ParameterGroup(name = "Target Pages") CrawlerTargetPagesParameters targetPagesParameters,
+      @ParameterGroup(name = "Target Content") CrawlerTargetContentParameters targetContentParameters) {
+
+    try {
+
+      LOGGER.debug("\n\n" + distributedCrawlParameters.toString() + "\n");
+      LOGGER.debug("\n\n" + targetPagesParameters.toString() + "\n");
+      LOGGER.debug("\n\n" + targetContentParameters.toString() + "\n");
+
+      CrawlStore crawlStore = new ObjectStoreCrawlStore(distributedCrawlParameters.getObjectStore());
+
+      Crawler crawler = Crawler.builder()
+          .configuration(configuration)
+          .connection(connection)
+          .outputFormat(outputFormat)
+          .rootURL(url)
+          .waitOnPageLoad(waitOnPageLoad)
+          .waitForXPath(waitForXPath)
+          .extractShadowDom(extractShadowDom)
+          .shadowHostXPath(shadowHostXPath)
+          .downloadPath(downloadPath)
+          .maxDepth(targetPagesParameters.getMaxDepth())
+          .restrictToPath(targetPagesParameters.isRestrictToPath())
+          .contentTags(targetContentParameters.getTags())
+          .getMetaTags(targetContentParameters.isGetMetaTags())
+          .downloadImages(targetContentParameters.isDownloadImages())
+          .maxImageNumber(targetContentParameters.getMaxImageNumber())
+          .downloadDocuments(targetContentParameters.isDownloadDocuments())
+          .maxDocumentNumber(targetContentParameters.getMaxDocumentNumber())
+          .regexUrlsFilterLogic(targetPagesParameters.getRegexUrlsFilterLogic())
+          .regexUrls(targetPagesParameters.getRegexUrls())
+          .crawlOrder(targetPagesParameters.getCrawlOrder())
+          .budget(targetPagesParameters.toCrawlBudget())
+          .sitemapDiscovery(targetPagesParameters.getSitemapDiscovery())
+          .stripTrackingParameters(targetPagesParameters.isStripTrackingParameters())
+          .trapDetector(targetPagesParameters.toTrapDetector())
+          .distributedCrawl(new DistributedCrawlCoordinator(crawlStore,
+                                                            distributedCrawlParameters.getCrawlId(),
+                                                            distributedCrawlParameters.getWorkerId(),
+                                                            distributedCrawlParameters.getPartitionCount(),
+                                                            distributedCrawlParameters.getLeaseMillis(),
+                                                            distributedCrawlParameters.getPollIntervalMillis()))
+          .build();
+
+      LOGGER.debug("Start distributed website crawling");
+      LOGGER.debug(crawler.toString());
+
+      Crawler.SiteNode rootNode = crawler.crawl();
+
+      HashMap<String, Object> attributes = new HashMap<String, Object>() {{
+        put("url", url);
+      }};
+      crawler.addResponseAttributes(attributes);
+
       return ResponseHelper.createPageResponse(
-          JSONUtils.convertToJSON(rootNode, true),
-          new HashMap<String, Object>() {{
-            put("url", url);
-          }}
+          JSONUtils.convertToJSONStream(rootNode, true),
+          attributes
       );
 
     } catch (ModuleException me) {
@@ -135,6 +284,39 @@ public class CrawlOperations {
     }
   }
 
+  /**
+   * Returns the metrics of the crawls run with the configuration since it started or the metrics were last reset:
+   * pages and bytes fetched, fetch latency percentiles overall and per host, parse and content conversion times,
+   * pages queued by running crawls and errors by class.
+   */
+  @MediaType(value = APPLICATION_JSON, strict = false)
+  @Alias("get-crawl-stats")
+  @DisplayName("[Crawl] Get crawl stats")
+  @Throws(WebCrawlerErrorTypeProvider.class)
+  @OutputJsonType(schema = "api/metadata/GetCrawlStats.json")
+  public org.mule.runtime.extension.api.runtime.operation.Result<InputStream, ResponseAttributes>
+      getCrawlStats(
+      @Config WebCrawlerConfiguration configuration,
+      @Alias("reset") @DisplayName("Reset")
+          @Summary("If true, figures are cleared once returned, so that the next call covers the crawls in between.")
+          @Placement(order = 1) @Optional(defaultValue = "false") boolean reset) {
+
+    try {
+
+      CrawlMetrics metrics = configuration.getMetrics();
+      String stats = JSONUtils.convertToJSON(metrics.toMap());
+      if (reset) metrics.reset();
+
+      return ResponseHelper.createResponse(stats, new HashMap<>());
+
+    } catch (Exception e) {
+      throw new ModuleException(
+          "Error while getting crawl stats.",
+          WebCrawlerErrorType.WEBCRAWLER_OPERATIONS_FAILURE,
+          e);
+    }
+  }
+
   @MediaType(value = ANY, strict = false)
   @Alias("crawl-website-streaming")
   @DisplayName("[Crawl] Website (Streaming)")
@@ -200,7 +382,15 @@ public class CrawlOperations {
           @Placement(order = 2, tab = "Page Load Options (WebDriver)") @Expression(ExpressionSupport.SUPPORTED) @Example("//results") @Optional String shadowHostXPath,
       @Connection WebCrawlerConnection connection,
       @DisplayName("Website URL") @Placement(order = 1) @Example("https://mac-project.ai/docs") String url,
-      @ParameterGroup(name = "Target Pages") CrawlerTargetPagesParameters targetPagesParameters) {
+      @ParameterGroup(name = "Target Pages") CrawlerTargetPagesParameters targetPagesParameters,
+      @Alias("sitemapPartsPath") @DisplayName("Sitemap parts location")
+          @Summary("Directory the sitemap is split into gzip-compressed parts of 50,000 URLs when larger, the output " +
+              "being then a sitemap index. If not set, a single sitemap is returned whatever its size.")
+          @Placement(order = 1, tab = "Sitemap Index") @Example("/users/mulesoft/sitemaps") @Optional String sitemapPartsPath,
+      @Alias("sitemapPartsBaseUrl") @DisplayName("Sitemap parts base URL")
+          @Summary("The URL sitemap parts are published under, referenced by the sitemap index. Defaults to the root " +
+              "of the website.")
+          @Placement(order = 2, tab = "Sitemap Index") @Example("https://mac-project.ai/") @Optional String sitemapPartsBaseUrl) {
 
     try{
 
@@ -214,19 +404,40 @@ public class CrawlOperations {
           .maxDepth(targetPagesParameters.getMaxDepth())
           .regexUrlsFilterLogic(targetPagesParameters.getRegexUrlsFilterLogic())
           .regexUrls(targetPagesParameters.getRegexUrls())
+          .visitedUrls(targetPagesParameters.toVisitedUrlOptions())
+          .crawlOrder(targetPagesParameters.getCrawlOrder())
+          .budget(targetPagesParameters.toCrawlBudget())
+          .sitemapDiscovery(targetPagesParameters.getSitemapDiscovery())
+          .stripTrackingParameters(targetPagesParameters.isStripTrackingParameters())
+          .trapDetector(targetPagesParameters.toTrapDetector())
           .build();
 
       Crawler.SiteNode root = crawler.map();
-      String sitemapXmlString = root != null ? Crawler.SitemapGenerator.generateSitemapXml(root) : "";
-      int count = sitemapXmlString.split("<url>", -1).length - 1;
+
+      InputStream sitemap;
+      int count;
+      int partCount;
+      try (SitemapWriter sitemapWriter = new SitemapWriter(
+          sitemapPartsPath != null && !sitemapPartsPath.isEmpty() ? Paths.get(sitemapPartsPath) : null,
+          sitemapPartsBaseUrl != null && !sitemapPartsBaseUrl.isEmpty() ? sitemapPartsBaseUrl : URLUtils.getRootURL(url))) {
+
+        if (root != null) sitemapWriter.writeTree(root);
+        sitemap = root != null ? sitemapWriter.finish() : new ByteArrayInputStream(new byte[0]);
+        count = sitemapWriter.getUrlCount();
+        partCount = sitemapWriter.getPartCount();
+      }
+
+      HashMap<String, Object> attributes = new HashMap<String, Object>() {{
+        put("url", url);
+        put("count", count);
+        put("depth", targetPagesParameters.getMaxDepth());
+      }};
+      if (partCount > 0) attributes.put("partCount", partCount);
+      crawler.addResponseAttributes(attributes);
 
       return ResponseHelper.createSitemapResponse(
-          sitemapXmlString,
-          new HashMap<String, Object>() {{
-            put("url", url);
-            put("count", count);
-            put("depth", targetPagesParameters.getMaxDepth());
-          }}
+          sitemap,
+          attributes
       );
 
     } catch (ModuleException me) {
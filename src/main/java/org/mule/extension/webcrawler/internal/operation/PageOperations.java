@@ -2,6 +2,7 @@ package org.mule.extension.webcrawler.internal.operation;
 
 import org.json.JSONArray;
 import org.mule.extension.webcrawler.api.metadata.PageResponseAttributes;
+import org.mule.extension.webcrawler.api.metadata.PageTimings;
 import org.mule.extension.webcrawler.internal.config.PageLoadOptions;
 import org.mule.extension.webcrawler.internal.config.WebCrawlerConfiguration;
 import org.mule.extension.webcrawler.internal.connection.WebCrawlerConnection;
@@ -83,16 +84,23 @@ public class PageOperations {
             WebCrawlerErrorType.CRAWL_ON_PAGE_DISALLOWED_ERROR);
       }
 
-      Document document = PageHelper.getDocument(configuration, connection, url,
-         new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath, javascript));
+      PageTimings timings = new PageTimings();
+      PageLoadOptions pageLoadOptions = new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath, javascript);
+      pageLoadOptions.setTimings(timings);
+      Document document = PageHelper.getDocument(configuration, connection, url, pageLoadOptions);
 
       LOGGER.debug(String.format("Returning page meta tags for url %s", url));
 
+      long convertStart = System.nanoTime();
+      String metaTags = PageHelper.getPageMetaTags(document).toString();
+      timings.addConvertNanos(System.nanoTime() - convertStart);
+
       return ResponseHelper.createPageResponse(
-          PageHelper.getPageMetaTags(document).toString(),
+          metaTags,
           new HashMap<String, Object>() {{
             put("url", url);
             put("title", document.title());
+            put("timings", timings);
           }}
       );
 
@@ -146,6 +154,7 @@ public class PageOperations {
       JSONArray imagesJSONArray = new JSONArray();
 
       Document document = null;
+      PageTimings timings = new PageTimings();
 
       try {
 
@@ -157,8 +166,9 @@ public class PageOperations {
               WebCrawlerErrorType.CRAWL_ON_PAGE_DISALLOWED_ERROR);
         }
 
-        document = PageHelper.getDocument(configuration, connection, url,
-            new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath, javascript));
+        PageLoadOptions pageLoadOptions = new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath, javascript);
+        pageLoadOptions.setTimings(timings);
+        document = PageHelper.getDocument(configuration, connection, url, pageLoadOptions);
 
 
         imagesJSONArray = PageHelper.downloadWebsiteImages(document, downloadPath, maxImageNumber);
@@ -173,7 +183,11 @@ public class PageOperations {
         put("url", url);
       }};
 
-      if(document != null) attributes.put("title", document.title());
+      if(document != null) {
+
+        attributes.put("title", document.title());
+        attributes.put("timings", timings);
+      }
 
       return ResponseHelper.createPageResponse(
           imagesJSONArray.toString(),
@@ -238,6 +252,7 @@ public class PageOperations {
       JSONArray documentsJSONArray = new JSONArray();
 
       Document document = null;
+      PageTimings timings = new PageTimings();
 
       try {
 
@@ -246,8 +261,9 @@ public class PageOperations {
           documentsJSONArray.put(PageHelper.downloadFile(url, downloadPath));
         } else {
 
-          document = PageHelper.getDocument(configuration, connection, url,
-                                            new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath, javascript));
+          PageLoadOptions pageLoadOptions = new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath, javascript);
+          pageLoadOptions.setTimings(timings);
+          document = PageHelper.getDocument(configuration, connection, url, pageLoadOptions);
 
           documentsJSONArray = PageHelper.downloadFiles(document, downloadPath, maxDocumentNumber);
         }
@@ -264,7 +280,11 @@ public class PageOperations {
         put("url", url);
       }};
 
-      if(document != null) attributes.put("title", document.title());
+      if(document != null) {
+
+        attributes.put("title", document.title());
+        attributes.put("timings", timings);
+      }
 
       return ResponseHelper.createPageResponse(
           documentsJSONArray.toString(),
@@ -325,16 +345,23 @@ public class PageOperations {
             WebCrawlerErrorType.CRAWL_ON_PAGE_DISALLOWED_ERROR);
       }
 
-      Document document = PageHelper.getDocument(configuration, connection, url,
-          new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath, javascript));
+      PageTimings timings = new PageTimings();
+      PageLoadOptions pageLoadOptions = new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath, javascript);
+      pageLoadOptions.setTimings(timings);
+      Document document = PageHelper.getDocument(configuration, connection, url, pageLoadOptions);
+
+      long convertStart = System.nanoTime();
+      String insights = JSONUtils.convertToJSON(
+          PageHelper.getPageInsights(document, targetContentParameters.getTags(), Constants.PageInsightType.ALL)
+      );
+      timings.addConvertNanos(System.nanoTime() - convertStart);
 
       return ResponseHelper.createPageResponse(
-          JSONUtils.convertToJSON(
-              PageHelper.getPageInsights(document, targetContentParameters.getTags(), Constants.PageInsightType.ALL)
-          ),
+          insights,
           new HashMap<String, Object>() {{
             put("url", url);
             put("title", document.title());
+            put("timings", timings);
           }}
       );
 
@@ -393,12 +420,16 @@ public class PageOperations {
 
       Map<String, String> contents = new HashMap<String, String>();
 
-      Document document = PageHelper.getDocument(configuration, connection, url,
-          new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath, javascript));
+      PageTimings timings = new PageTimings();
+      PageLoadOptions pageLoadOptions = new PageLoadOptions(waitOnPageLoad, waitForXPath, extractShadowDom, shadowHostXPath, javascript);
+      pageLoadOptions.setTimings(timings);
+      Document document = PageHelper.getDocument(configuration, connection, url, pageLoadOptions);
 
+      long convertStart = System.nanoTime();
       String content = PageHelper.getPageContent(document,
                                                  targetContentParameters.getTags(),
                                                  outputFormat);
+      timings.addConvertNanos(System.nanoTime() - convertStart);
 
       contents.put("url", document.baseUri());
       contents.put("title", document.title());
@@ -409,6 +440,7 @@ public class PageOperations {
           new HashMap<String, Object>() {{
             put("url", url);
             put("title", document.title());
+            put("timings", timings);
           }}
       );
 
@@ -2,6 +2,7 @@ package org.mule.extension.webcrawler.internal.pagination;
 
 import org.jsoup.nodes.Document;
 import org.mule.extension.webcrawler.api.metadata.PageResponseAttributes;
+import org.mule.extension.webcrawler.api.metadata.PageTimings;
 import org.mule.extension.webcrawler.internal.config.WebCrawlerConfiguration;
 import org.mule.extension.webcrawler.internal.connection.WebCrawlerConnection;
 import org.mule.extension.webcrawler.internal.constant.Constants;
@@ -28,7 +29,7 @@ public class CrawlerPagingProvider implements PagingProvider<WebCrawlerConnectio
   private static final Logger LOGGER = LoggerFactory.getLogger(CrawlerPagingProvider.class);
 
   private Crawler crawler;
-  private Iterator<Document> documentIterator;
+  private Crawler.DocumentIterator documentIterator;
   private WebCrawlerConfiguration configuration;
   private String url;
   private Constants.OutputFormat outputFormat;
@@ -64,6 +65,12 @@ public class CrawlerPagingProvider implements PagingProvider<WebCrawlerConnectio
             .restrictToPath(targetPagesParameters.isRestrictToPath())
             .regexUrlsFilterLogic(targetPagesParameters.getRegexUrlsFilterLogic())
             .regexUrls(targetPagesParameters.getRegexUrls())
+            .visitedUrls(targetPagesParameters.toVisitedUrlOptions())
+            .crawlOrder(targetPagesParameters.getCrawlOrder())
+            .budget(targetPagesParameters.toCrawlBudget())
+            .sitemapDiscovery(targetPagesParameters.getSitemapDiscovery())
+            .stripTrackingParameters(targetPagesParameters.isStripTrackingParameters())
+            .trapDetector(targetPagesParameters.toTrapDetector())
             .build();
 
         documentIterator = crawler.documentIterator();
@@ -78,18 +85,25 @@ public class CrawlerPagingProvider implements PagingProvider<WebCrawlerConnectio
             continue;
           }
 
+          PageTimings timings = documentIterator.getPageTimings();
+          long convertStart = System.nanoTime();
           String pageContent = getPageContent(document, null, outputFormat);
+          timings.addConvertNanos(System.nanoTime() - convertStart);
 
           Map<String, String> pageMap = new HashMap<String, String>();
           pageMap.put("url", document.baseUri());
           pageMap.put("title", document.title());
           pageMap.put("content", pageContent);
 
+          HashMap<String, Object> attributes = new HashMap<String, Object>() {{
+            put("url", url);
+            put("timings", timings);
+          }};
+          crawler.addResponseAttributes(attributes);
+
           return createPageResponse(
               JSONUtils.convertToJSON(pageMap, true),
-              new HashMap<String, Object>() {{
-                put("url", url);
-              }},
+              attributes,
               streamingHelper
           );
 
@@ -0,0 +1,90 @@
+package org.mule.extension.webcrawler.internal.util;
+
+import org.mule.extension.webcrawler.internal.constant.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExecutorUtils {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorUtils.class);
+
+  /**
+   * Creates an executor for crawl tasks.
+   * <p>
+   * With {@link Constants.ExecutionMode#VIRTUAL_THREADS} every task gets its own virtual thread and {@code maxThreads}
+   * is ignored, callers are expected to bound the number of submitted tasks themselves. Virtual threads are looked up
+   * reflectively as they are only available from Java 21 on; older runtimes fall back to platform threads.
+   *
+   * @param executionMode    The requested execution mode.
+   * @param maxThreads       The number of platform threads to use when running on platform threads.
+   * @param threadNamePrefix The prefix of the names of the created threads.
+   * @return A new executor, to be shut down by the caller.
+   */
+  public static ExecutorService newExecutor(Constants.ExecutionMode executionMode, int maxThreads, String threadNamePrefix) {
+
+    if (executionMode == Constants.ExecutionMode.VIRTUAL_THREADS) {
+
+      ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor(threadNamePrefix);
+      if (virtualThreadExecutor != null) {
+        return virtualThreadExecutor;
+      }
+      LOGGER.warn("Virtual threads require Java 21 or later, falling back to platform threads.");
+    }
+    return Executors.newFixedThreadPool(Math.max(1, maxThreads), new NamedThreadFactory(threadNamePrefix));
+  }
+
+  public static boolean isVirtualThreadSupported() {
+
+    try {
+      Thread.class.getMethod("ofVirtual");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static ExecutorService newVirtualThreadPerTaskExecutor(String threadNamePrefix) {
+
+    if (!isVirtualThreadSupported()) return null;
+
+    try {
+
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 1L);
+      ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+
+      Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+
+    } catch (ReflectiveOperationException e) {
+
+      LOGGER.debug("Unable to create virtual thread executor", e);
+      return null;
+    }
+  }
+
+  private static class NamedThreadFactory implements ThreadFactory {
+
+    private final String threadNamePrefix;
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    private NamedThreadFactory(String threadNamePrefix) {
+      this.threadNamePrefix = threadNamePrefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+
+      Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -1,12 +1,23 @@
 package org.mule.extension.webcrawler.internal.util;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
-import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class JSONUtils {
 
+  // Mappers are thread-safe once configured, sharing them keeps serializers cached across calls
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final ObjectMapper NON_EMPTY_OBJECT_MAPPER =
+      new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
+
   public static String convertToJSON(Object contentToSerialize) throws JsonProcessingException {
     return convertToJSON(contentToSerialize, false);
   }
@@ -14,8 +25,33 @@ public class JSONUtils {
   public static String convertToJSON(Object contentToSerialize, boolean excludeEmpty) throws JsonProcessingException {
 
     // Convert the result to JSON
-    ObjectMapper mapper = new ObjectMapper();
-    if(excludeEmpty) mapper.setSerializationInclusion(com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY);
-    return mapper.writeValueAsString(contentToSerialize);
+    return getObjectMapper(excludeEmpty).writeValueAsString(contentToSerialize);
+  }
+
+  /**
+   * Serializes to a temporary file, written incrementally so that the JSON never exists as a whole in memory.
+   *
+   * @return A stream over the JSON, deleting the file once closed or garbage collected.
+   */
+  public static InputStream convertToJSONStream(Object contentToSerialize, boolean excludeEmpty) throws IOException {
+
+    ObjectMapper mapper = getObjectMapper(excludeEmpty);
+    Path file = Files.createTempFile("webcrawler-", ".json");
+    try {
+
+      try (JsonGenerator generator = mapper.getFactory().createGenerator(Files.newOutputStream(file), JsonEncoding.UTF8)) {
+        mapper.writeValue(generator, contentToSerialize);
+      }
+      return TempFileInputStream.open(file);
+
+    } catch (IOException | RuntimeException e) {
+
+      Files.deleteIfExists(file);
+      throw e;
+    }
+  }
+
+  private static ObjectMapper getObjectMapper(boolean excludeEmpty) {
+    return excludeEmpty ? NON_EMPTY_OBJECT_MAPPER : OBJECT_MAPPER;
   }
 }
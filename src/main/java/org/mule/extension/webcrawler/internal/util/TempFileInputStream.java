@@ -0,0 +1,103 @@
+package org.mule.extension.webcrawler.internal.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stream over a temporary file, deleting the file once closed. Streams handed over to callers may never be closed, so
+ * the file of a stream garbage collected while still open is deleted the next time a stream is opened.
+ */
+public class TempFileInputStream extends FilterInputStream {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TempFileInputStream.class);
+
+  private static final ReferenceQueue<TempFileInputStream> COLLECTED = new ReferenceQueue<>();
+  // References must stay reachable themselves to be enqueued once their stream is collected
+  private static final Set<FileReference> OPEN = ConcurrentHashMap.newKeySet();
+
+  private final FileReference reference;
+
+  private TempFileInputStream(Path file, InputStream content) {
+
+    super(content);
+    this.reference = new FileReference(this, file, content);
+    OPEN.add(reference);
+  }
+
+  /**
+   * @param file The temporary file, owned by the returned stream.
+   * @return A stream over the file, deleting it once closed or garbage collected.
+   */
+  public static InputStream open(Path file) throws IOException {
+
+    deleteCollected();
+    try {
+      return new TempFileInputStream(file, Files.newInputStream(file));
+    } catch (IOException e) {
+
+      Files.deleteIfExists(file);
+      throw e;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    reference.delete();
+  }
+
+  private static void deleteCollected() {
+
+    Reference<? extends TempFileInputStream> collected;
+    while ((collected = COLLECTED.poll()) != null) {
+
+      FileReference reference = (FileReference) collected;
+      try {
+
+        reference.delete();
+        LOGGER.debug(String.format("Deleted temporary file %s of a stream never closed", reference.file));
+      } catch (IOException e) {
+
+        reference.file.toFile().deleteOnExit();
+        LOGGER.debug(String.format("Unable to delete temporary file %s", reference.file), e);
+      }
+    }
+  }
+
+  private static class FileReference extends PhantomReference<TempFileInputStream> {
+
+    private final Path file;
+    private final InputStream content;
+    private final AtomicBoolean deleted = new AtomicBoolean();
+
+    private FileReference(TempFileInputStream stream, Path file, InputStream content) {
+
+      super(stream, COLLECTED);
+      this.file = file;
+      this.content = content;
+    }
+
+    private void delete() throws IOException {
+
+      if (!deleted.compareAndSet(false, true)) return;
+
+      OPEN.remove(this);
+      try {
+        content.close();
+      } finally {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+}
@@ -0,0 +1,400 @@
+package org.mule.extension.webcrawler.internal.util;
+
+import java.net.IDN;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns the URLs found while crawling into a canonical form, so that the different spellings of a page are visited
+ * once:
+ * <ul>
+ *   <li>the fragment is dropped,</li>
+ *   <li>scheme and host are lowercased and the default port of the scheme is dropped,</li>
+ *   <li>an empty path becomes "/" and "." and ".." segments are resolved,</li>
+ *   <li>percent-encodings are uppercased, unreserved characters are decoded and characters not allowed in URLs are
+ *   encoded as UTF-8,</li>
+ *   <li>query parameters are sorted by name, empty ones are dropped and, optionally, tracking parameters (utm_*,
+ *   gclid...) too.</li>
+ * </ul>
+ * The URL is read in a single pass, without regular expressions nor {@link java.net.URI} instances. Results are
+ * memoized, links to the same pages (menus, footers) being found on most pages of a website. An instance is meant to
+ * be used for a single crawl and can be shared by concurrent workers.
+ */
+public class URLCanonicalizer {
+
+  private static final int DEFAULT_CACHE_SIZE = 16384;
+
+  private static final Set<String> TRACKING_PARAMETERS = new HashSet<>(Arrays.asList(
+      "gclid", "gclsrc", "dclid", "gbraid", "wbraid", "fbclid", "msclkid", "yclid", "twclid", "igshid", "mc_cid",
+      "mc_eid", "_ga", "_gl", "_hsenc", "_hsmi"));
+  private static final String TRACKING_PARAMETER_PREFIX = "utm_";
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  // Characters kept as is, besides unreserved ones, per URL component (RFC 3986)
+  private static final String SUB_DELIMS = "!$&'()*+,;=";
+  private static final String PATH_CHARS = SUB_DELIMS + ":@/";
+  private static final String QUERY_CHARS = SUB_DELIMS + ":@/?";
+  private static final String USERINFO_CHARS = SUB_DELIMS + ":";
+
+  private final boolean stripTrackingParameters;
+  private final int maxCacheSize;
+  private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+  public URLCanonicalizer(boolean stripTrackingParameters) {
+    this(stripTrackingParameters, DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * @param stripTrackingParameters Whether to drop tracking query parameters.
+   * @param maxCacheSize            The maximum number of URLs memoized, 0 to disable memoization.
+   */
+  public URLCanonicalizer(boolean stripTrackingParameters, int maxCacheSize) {
+
+    this.stripTrackingParameters = stripTrackingParameters;
+    this.maxCacheSize = maxCacheSize;
+  }
+
+  /**
+   * Canonicalizes a URL.
+   *
+   * @param url The URL string, absolute or relative.
+   * @return The canonical URL, {@code null} if {@code url} is {@code null}.
+   */
+  public String canonicalize(String url) {
+
+    if (url == null) return null;
+
+    String canonical = cache.get(url);
+    if (canonical == null) {
+
+      canonical = canonicalizeUncached(url);
+
+      // Once full, the cache keeps the URLs found first, typically the links shared by all pages
+      if (cache.size() < maxCacheSize) cache.put(url, canonical);
+    }
+    return canonical;
+  }
+
+  String canonicalizeUncached(String url) {
+
+    int start = 0;
+    int end = url.length();
+    while (start < end && url.charAt(start) <= ' ') start++;
+    while (end > start && url.charAt(end - 1) <= ' ') end--;
+
+    StringBuilder out = new StringBuilder(end - start + 16);
+    int position = start;
+
+    // Scheme
+    String scheme = null;
+    int schemeEnd = findSchemeEnd(url, start, end);
+    if (schemeEnd != -1) {
+
+      for (int i = start; i < schemeEnd; i++) {
+        out.append(toLowerCase(url.charAt(i)));
+      }
+      scheme = out.toString();
+      out.append(':');
+      position = schemeEnd + 1;
+    }
+
+    // Authority
+    boolean hasAuthority = position + 1 < end && url.charAt(position) == '/' && url.charAt(position + 1) == '/';
+    if (hasAuthority) {
+
+      out.append("//");
+      int authorityEnd = indexOfAny(url, position + 2, end, "/?#");
+      appendAuthority(url, position + 2, authorityEnd, scheme, out);
+      position = authorityEnd;
+    }
+
+    // Path
+    int pathEnd = indexOfAny(url, position, end, "?#");
+    if (position == pathEnd) {
+
+      if (hasAuthority) out.append('/');
+    } else {
+
+      int pathStart = out.length();
+      appendEncoded(url, position, pathEnd, PATH_CHARS, out);
+      if (hasDotSegments(out, pathStart)) {
+
+        String path = removeDotSegments(out.substring(pathStart));
+        out.setLength(pathStart);
+        out.append(path.isEmpty() && hasAuthority ? "/" : path);
+      }
+    }
+    position = pathEnd;
+
+    // Query, the fragment being dropped
+    if (position < end && url.charAt(position) == '?') {
+      appendQuery(url, position + 1, indexOfAny(url, position + 1, end, "#"), out);
+    }
+
+    return out.toString();
+  }
+
+  private void appendAuthority(String url, int start, int end, String scheme, StringBuilder out) {
+
+    int hostStart = start;
+    int at = url.lastIndexOf('@', end - 1);
+    if (at >= start) {
+
+      appendEncoded(url, start, at, USERINFO_CHARS, out);
+      out.append('@');
+      hostStart = at + 1;
+    }
+
+    // IPv6 literals contain colons, the port follows the closing bracket
+    int hostEnd;
+    if (hostStart < end && url.charAt(hostStart) == '[') {
+
+      int closing = url.indexOf(']', hostStart);
+      hostEnd = closing != -1 && closing < end ? closing + 1 : end;
+    } else {
+
+      hostEnd = indexOfAny(url, hostStart, end, ":");
+    }
+
+    appendHost(url, hostStart, hostEnd, out);
+
+    if (hostEnd < end && url.charAt(hostEnd) == ':') {
+
+      String port = url.substring(hostEnd + 1, end);
+      if (!port.isEmpty() && !isDefaultPort(scheme, port)) out.append(':').append(port);
+    }
+  }
+
+  private static void appendHost(String url, int start, int end, StringBuilder out) {
+
+    for (int i = start; i < end; i++) {
+
+      if (url.charAt(i) >= 0x80) {
+
+        // Internationalized domain names are written in their ASCII form
+        try {
+          out.append(IDN.toASCII(url.substring(start, end), IDN.ALLOW_UNASSIGNED).toLowerCase(Locale.ROOT));
+          return;
+        } catch (IllegalArgumentException e) {
+          break;
+        }
+      }
+    }
+
+    for (int i = start; i < end; i++) {
+      out.append(toLowerCase(url.charAt(i)));
+    }
+  }
+
+  private void appendQuery(String url, int start, int end, StringBuilder out) {
+
+    List<String> parameters = null;
+    int parameterStart = start;
+    while (parameterStart <= end) {
+
+      int parameterEnd = indexOfAny(url, parameterStart, end, "&");
+      if (parameterEnd > parameterStart && !isStripped(url, parameterStart, parameterEnd)) {
+
+        StringBuilder parameter = new StringBuilder(parameterEnd - parameterStart);
+        appendEncoded(url, parameterStart, parameterEnd, QUERY_CHARS, parameter);
+        if (parameters == null) parameters = new ArrayList<>();
+        parameters.add(parameter.toString());
+      }
+      parameterStart = parameterEnd + 1;
+    }
+
+    if (parameters == null) return;
+
+    // Stable, so that repeated parameters keep their order
+    if (parameters.size() > 1) parameters.sort(URLCanonicalizer::compareNames);
+
+    out.append('?');
+    for (int i = 0; i < parameters.size(); i++) {
+
+      if (i > 0) out.append('&');
+      out.append(parameters.get(i));
+    }
+  }
+
+  private boolean isStripped(String url, int start, int end) {
+
+    if (!stripTrackingParameters) return false;
+
+    int nameEnd = indexOfAny(url, start, end, "=");
+    String name = url.substring(start, nameEnd).toLowerCase(Locale.ROOT);
+    return name.startsWith(TRACKING_PARAMETER_PREFIX) || TRACKING_PARAMETERS.contains(name);
+  }
+
+  private static int compareNames(String parameter1, String parameter2) {
+
+    int length1 = nameLength(parameter1);
+    int length2 = nameLength(parameter2);
+    int length = Math.min(length1, length2);
+    for (int i = 0; i < length; i++) {
+
+      int difference = parameter1.charAt(i) - parameter2.charAt(i);
+      if (difference != 0) return difference;
+    }
+    return length1 - length2;
+  }
+
+  private static int nameLength(String parameter) {
+
+    int equals = parameter.indexOf('=');
+    return equals != -1 ? equals : parameter.length();
+  }
+
+  /**
+   * Appends a URL component, keeping unreserved and allowed characters, normalizing percent-encodings and encoding
+   * anything else as UTF-8.
+   */
+  private static void appendEncoded(String url, int start, int end, String allowed, StringBuilder out) {
+
+    for (int i = start; i < end; i++) {
+
+      char c = url.charAt(i);
+      if (c == '%') {
+
+        int high = i + 2 < end ? Character.digit(url.charAt(i + 1), 16) : -1;
+        int low = high != -1 ? Character.digit(url.charAt(i + 2), 16) : -1;
+        if (low == -1) {
+
+          // Stray percent sign
+          out.append("%25");
+        } else {
+
+          char decoded = (char) ((high << 4) | low);
+          if (isUnreserved(decoded)) {
+            out.append(decoded);
+          } else {
+            appendPercentEncoded(decoded, out);
+          }
+          i += 2;
+        }
+      } else if (c < 0x80 && (isUnreserved(c) || allowed.indexOf(c) != -1)) {
+
+        out.append(c);
+      } else if (c < 0x80) {
+
+        appendPercentEncoded(c, out);
+      } else {
+
+        int codePointEnd = Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(url.charAt(i + 1)) ?
+            i + 2 : i + 1;
+        for (byte b : url.substring(i, codePointEnd).getBytes(StandardCharsets.UTF_8)) {
+          appendPercentEncoded(b & 0xff, out);
+        }
+        i = codePointEnd - 1;
+      }
+    }
+  }
+
+  private static void appendPercentEncoded(int value, StringBuilder out) {
+    out.append('%').append(HEX_DIGITS[value >> 4]).append(HEX_DIGITS[value & 0xf]);
+  }
+
+  private static boolean hasDotSegments(CharSequence path, int start) {
+
+    for (int i = start; i < path.length(); i++) {
+      if (path.charAt(i) == '.' && (i == start || path.charAt(i - 1) == '/')) {
+
+        int next = i + 1 < path.length() ? path.charAt(i + 1) : '/';
+        if (next == '/' || (next == '.' && (i + 2 == path.length() || path.charAt(i + 2) == '/'))) return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Resolves "." and ".." segments (RFC 3986, section 5.2.4).
+   */
+  static String removeDotSegments(String path) {
+
+    List<String> segments = new ArrayList<>();
+    boolean absolute = path.startsWith("/");
+    int segmentStart = absolute ? 1 : 0;
+    boolean trailingSlash = false;
+
+    while (segmentStart <= path.length()) {
+
+      int segmentEnd = path.indexOf('/', segmentStart);
+      if (segmentEnd == -1) segmentEnd = path.length();
+      String segment = path.substring(segmentStart, segmentEnd);
+
+      trailingSlash = false;
+      if (segment.equals(".")) {
+
+        trailingSlash = true;
+      } else if (segment.equals("..")) {
+
+        if (!segments.isEmpty()) segments.remove(segments.size() - 1);
+        trailingSlash = true;
+      } else {
+
+        segments.add(segment);
+      }
+      segmentStart = segmentEnd + 1;
+    }
+
+    StringBuilder result = new StringBuilder(path.length());
+    if (absolute) result.append('/');
+    for (int i = 0; i < segments.size(); i++) {
+
+      if (i > 0) result.append('/');
+      result.append(segments.get(i));
+    }
+    if (trailingSlash && result.length() > 0 && result.charAt(result.length() - 1) != '/') result.append('/');
+    return result.toString();
+  }
+
+  private static int findSchemeEnd(String url, int start, int end) {
+
+    if (start >= end || !isAsciiLetter(url.charAt(start))) return -1;
+
+    for (int i = start + 1; i < end; i++) {
+
+      char c = url.charAt(i);
+      if (c == ':') return i;
+      if (!isAsciiLetter(c) && !(c >= '0' && c <= '9') && c != '+' && c != '-' && c != '.') return -1;
+    }
+    return -1;
+  }
+
+  private static boolean isDefaultPort(String scheme, String port) {
+
+    return ("http".equals(scheme) && "80".equals(port)) || ("https".equals(scheme) && "443".equals(port));
+  }
+
+  private static int indexOfAny(String url, int start, int end, String characters) {
+
+    for (int i = start; i < end; i++) {
+      if (characters.indexOf(url.charAt(i)) != -1) return i;
+    }
+    return end;
+  }
+
+  private static boolean isUnreserved(char c) {
+    return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '-' || c == '.' || c == '_' || c == '~';
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static char toLowerCase(char c) {
+    return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+  }
+
+  @Override
+  public String toString() {
+    return "URLCanonicalizer{stripTrackingParameters=" + stripTrackingParameters + ", cached=" + cache.size() + '}';
+  }
+}
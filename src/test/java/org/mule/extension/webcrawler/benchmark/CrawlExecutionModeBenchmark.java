@@ -0,0 +1,180 @@
+package org.mule.extension.webcrawler.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import org.mule.extension.webcrawler.internal.config.CrawlerOptions;
+import org.mule.extension.webcrawler.internal.config.PageLoadOptions;
+import org.mule.extension.webcrawler.internal.config.WebCrawlerConfiguration;
+import org.mule.extension.webcrawler.internal.connection.WebCrawlerConnection;
+import org.mule.extension.webcrawler.internal.constant.Constants;
+import org.mule.extension.webcrawler.internal.crawler.Crawler;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Compares crawl throughput and platform thread usage of the two execution modes against a local site whose pages
+ * answer after a fixed latency, i.e. a crawl bound by network waits. Peak platform threads include the threads of the
+ * local site itself.
+ * <p>
+ * Not a unit test, run it from the IDE or with the test classpath:
+ * {@code java -cp <test classpath> org.mule.extension.webcrawler.benchmark.CrawlExecutionModeBenchmark [pages] [latencyMillis] [concurrency]}
+ */
+public class CrawlExecutionModeBenchmark {
+
+  private static final int FAN_OUT = 10;
+
+  public static void main(String[] args) throws Exception {
+
+    int pageCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    int latencyMillis = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+    HttpServer server = startSite(pageCount, latencyMillis);
+    String rootURL = "http://localhost:" + server.getAddress().getPort() + "/page/0";
+
+    try {
+
+      System.out.println(String.format("Crawling %d pages, %d ms latency, max concurrency %d", pageCount, latencyMillis,
+                                       concurrency));
+      for (Constants.ExecutionMode executionMode : Constants.ExecutionMode.values()) {
+        run(executionMode, rootURL, pageCount, concurrency);
+      }
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  private static void run(Constants.ExecutionMode executionMode, String rootURL, int pageCount, int concurrency)
+      throws Exception {
+
+    CrawlerOptions crawlerOptions = new CrawlerOptions();
+    crawlerOptions.setMaxConcurrency(concurrency);
+    crawlerOptions.setExecutionMode(executionMode);
+    WebCrawlerConfiguration configuration = new WebCrawlerConfiguration();
+    configuration.setCrawlerOptions(crawlerOptions);
+
+    Path downloadPath = Files.createTempDirectory("webcrawler-benchmark");
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    threadMXBean.resetPeakThreadCount();
+
+    try {
+
+      long start = System.nanoTime();
+      Crawler.SiteNode rootNode = Crawler.builder()
+          .configuration(configuration)
+          .connection(new BlockingHttpConnection())
+          .rootURL(rootURL)
+          .maxDepth(Integer.MAX_VALUE)
+          .downloadPath(downloadPath.toString())
+          .outputFormat(Constants.OutputFormat.TEXT)
+          .build()
+          .crawl();
+      long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+      int crawledPages = countCrawledPages(rootNode);
+
+      System.out.println(String.format("%-16s %6d pages %6d ms  %8.1f pages/s  peak platform threads %d", executionMode,
+                                       crawledPages, elapsedMillis, crawledPages * 1000.0 / Math.max(1, elapsedMillis),
+                                       threadMXBean.getPeakThreadCount()));
+    } finally {
+      deleteRecursively(downloadPath);
+    }
+  }
+
+  private static int countCrawledPages(Crawler.SiteNode node) {
+
+    int count = node.getFilename() != null ? 1 : 0;
+    for (Crawler.SiteNode child : node.getChildren()) {
+      count += countCrawledPages(child);
+    }
+    return count;
+  }
+
+  private static HttpServer startSite(int pageCount, int latencyMillis) throws IOException {
+
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/page/", exchange -> {
+
+      int pageNumber = Integer.parseInt(exchange.getRequestURI().getPath().substring("/page/".length()));
+      StringBuilder html = new StringBuilder("<html><head><title>Page ").append(pageNumber).append("</title></head><body>");
+      for (int child = pageNumber * FAN_OUT + 1; child <= pageNumber * FAN_OUT + FAN_OUT && child < pageCount; child++) {
+        html.append("<a href=\"/page/").append(child).append("\">Page ").append(child).append("</a>");
+      }
+      html.append("</body></html>");
+
+      try {
+        Thread.sleep(latencyMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      byte[] body = html.toString().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream responseBody = exchange.getResponseBody()) {
+        responseBody.write(body);
+      }
+    });
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+    return server;
+  }
+
+  private static void deleteRecursively(Path path) throws IOException {
+
+    try (Stream<Path> paths = Files.walk(path)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+    }
+  }
+
+  /**
+   * Fetches pages on the calling thread so that the cost of blocking lies with the crawler workers.
+   */
+  private static class BlockingHttpConnection implements WebCrawlerConnection {
+
+    @Override
+    public String getUserAgent() { return "webcrawler-benchmark"; }
+
+    @Override
+    public String getReferrer() { return null; }
+
+    @Override
+    public CompletableFuture<Integer> getUrlStatusCode(String url, String currentReferrer) {
+
+      try {
+        HttpURLConnection httpConnection = (HttpURLConnection) new URL(url).openConnection();
+        return CompletableFuture.completedFuture(httpConnection.getResponseCode());
+      } catch (IOException e) {
+        return CompletableFuture.completedFuture(500);
+      }
+    }
+
+    @Override
+    public CompletableFuture<InputStream> getPageSource(String url, String currentReferrer, PageLoadOptions pageLoadOptions) {
+
+      CompletableFuture<InputStream> future = new CompletableFuture<>();
+      try (InputStream inputStream = new URL(url).openStream()) {
+        future.complete(new ByteArrayInputStream(inputStream.readAllBytes()));
+      } catch (IOException e) {
+        future.completeExceptionally(e);
+      }
+      return future;
+    }
+
+    @Override
+    public boolean isConcurrentFetchSupported() { return true; }
+  }
+}
@@ -0,0 +1,187 @@
+package org.mule.extension.webcrawler.benchmark;
+
+import org.mule.extension.webcrawler.internal.util.URLCanonicalizer;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Compares the URL cleaning the crawler used before {@link URLCanonicalizer}, kept here as {@link #cleanURL(String)},
+ * with {@link URLCanonicalizer}, with and without memoization, over the
+ * links of a simulated crawl: every page repeats the same navigation links and adds a few links of its own, some with
+ * query parameters, fragments or characters to encode.
+ * <p>
+ * This is a plain timing loop with warmup, not a JMH benchmark: dead-code elimination, inlining and GC are not
+ * controlled, so the numbers are indicative and only meaningful relative to each other on the same machine.
+ * Correctness is covered by {@code URLCanonicalizerTestCase}.
+ * <p>
+ * Not a unit test, run it from the IDE or with the test classpath:
+ * {@code java -cp <test classpath> org.mule.extension.webcrawler.benchmark.URLCanonicalizationBenchmark [pages] [iterations]}
+ */
+public class URLCanonicalizationBenchmark {
+
+  private static final int NAVIGATION_LINKS = 60;
+  private static final int PAGE_LINKS = 20;
+  private static final int WARMUP_ITERATIONS = 5;
+  private static final Map<String, String> PRESERVE_CHARS = new LinkedHashMap<>();
+
+  static {
+    PRESERVE_CHARS.put("%2F", "/");
+    PRESERVE_CHARS.put("%3A", ":");
+    PRESERVE_CHARS.put("%40", "@");
+    PRESERVE_CHARS.put("%24", "$");
+    PRESERVE_CHARS.put("%2C", ",");
+    PRESERVE_CHARS.put("%3B", ";");
+    PRESERVE_CHARS.put("%28", "(");
+    PRESERVE_CHARS.put("%29", ")");
+    PRESERVE_CHARS.put("%7E", "~");
+    PRESERVE_CHARS.put("%21", "!");
+    PRESERVE_CHARS.put("%27", "'");
+    PRESERVE_CHARS.put("%2A", "*");
+    PRESERVE_CHARS.put("%2D", "-");
+    PRESERVE_CHARS.put("%2E", ".");
+    PRESERVE_CHARS.put("%5F", "_");
+  }
+
+  // Prevents the JIT from discarding results
+  private static long sink;
+
+  public static void main(String[] args) {
+
+    int pageCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+    List<String> links = generateLinks(pageCount);
+    System.out.println(String.format("%d links found on %d pages, %d iterations", links.size(), pageCount, iterations));
+
+    run("cleanURL", links, iterations, () -> URLCanonicalizationBenchmark::cleanURL);
+    run("URLCanonicalizer", links, iterations, () -> new URLCanonicalizer(false, 0)::canonicalize);
+    // A new instance per iteration, as each crawl starts with an empty cache
+    run("URLCanonicalizer memoized", links, iterations, () -> new URLCanonicalizer(false)::canonicalize);
+  }
+
+  private static void run(String name, List<String> links, int iterations,
+                          Supplier<Function<String, String>> canonicalizers) {
+
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      iterate(links, canonicalizers.get());
+    }
+
+    long best = Long.MAX_VALUE;
+    long total = 0;
+    for (int i = 0; i < iterations; i++) {
+
+      long elapsed = iterate(links, canonicalizers.get());
+      best = Math.min(best, elapsed);
+      total += elapsed;
+    }
+
+    System.out.println(String.format("%-28s %8.1f ns/link avg  %8.1f ns/link best", name,
+                                     (double) total / iterations / links.size(), (double) best / links.size()));
+  }
+
+  private static long iterate(List<String> links, Function<String, String> canonicalizer) {
+
+    long start = System.nanoTime();
+    for (String link : links) {
+      sink += canonicalizer.apply(link).length();
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * URL cleaning used by the crawler before {@link URLCanonicalizer}: drops the fragment, re-encoding each part of
+   * URLs that do not parse.
+   */
+  private static String cleanURL(String url) {
+
+    try {
+
+      if (url.contains("##")) {
+        url = url.replaceAll("##+", "#");
+      }
+
+      URI uri = new URI(url);
+      return new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), uri.getQuery(), null).toASCIIString();
+
+    } catch (URISyntaxException e1) {
+
+      try {
+
+        int schemeEnd = url.indexOf("://");
+        String scheme = schemeEnd != -1 ? url.substring(0, schemeEnd + 3) : "";
+        String rest = schemeEnd != -1 ? url.substring(schemeEnd + 3) : url;
+
+        StringBuilder combined = new StringBuilder(scheme);
+        for (String part : rest.split("(?<=[/?#])|(?=[/?#])")) {
+          if (part.equals("/") || part.equals("?") || part.equals("#")) {
+            combined.append(part);
+          } else {
+            combined.append(encodeURLComponent(part));
+          }
+        }
+        URI uri = new URI(combined.toString());
+        return new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), uri.getQuery(), null).toASCIIString();
+
+      } catch (URISyntaxException | UnsupportedEncodingException e2) {
+        throw new IllegalArgumentException("Invalid URL: " + url, e2);
+      }
+    }
+  }
+
+  private static String encodeURLComponent(String component) throws UnsupportedEncodingException {
+
+    String encoded = URLEncoder.encode(component, StandardCharsets.UTF_8.name()).replace("+", "%20");
+    for (Map.Entry<String, String> entry : PRESERVE_CHARS.entrySet()) {
+      encoded = encoded.replace(entry.getKey(), entry.getValue());
+    }
+    return encoded;
+  }
+
+  private static List<String> generateLinks(int pageCount) {
+
+    Random random = new Random(42);
+    List<String> navigation = new ArrayList<>();
+    for (int i = 0; i < NAVIGATION_LINKS; i++) {
+      navigation.add("https://docs.example.com/products/section-" + i + "/overview" + (i % 3 == 0 ? "#top" : ""));
+    }
+
+    List<String> links = new ArrayList<>(pageCount * (NAVIGATION_LINKS + PAGE_LINKS));
+    for (int page = 0; page < pageCount; page++) {
+
+      links.addAll(navigation);
+      for (int i = 0; i < PAGE_LINKS; i++) {
+
+        int target = random.nextInt(pageCount * 10);
+        switch (i % 5) {
+          case 0:
+            links.add("https://docs.example.com/articles/" + target + "/getting-started");
+            break;
+          case 1:
+            links.add("https://docs.example.com/search?sort=date&q=topic+" + target + "&page=" + (target % 7));
+            break;
+          case 2:
+            links.add("https://docs.example.com/articles/" + target + "##details");
+            break;
+          case 3:
+            links.add("https://docs.example.com/guides/" + target + "/release notes (" + target % 10 + ")");
+            break;
+          default:
+            links.add("https://docs.example.com/articles/" + target + "?utm_source=newsletter&utm_medium=email");
+            break;
+        }
+      }
+    }
+    return links;
+  }
+}
@@ -0,0 +1,117 @@
+package org.mule.extension.webcrawler.internal.connection.http;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ContentDecodingTestCase {
+
+  private static final String BODY = "<html><body>" +
+      String.join("", Collections.nCopies(200, "Compressible content. ")) + "</body></html>";
+
+  @Test
+  public void gzipBodyIsDecoded() throws IOException {
+
+    assertEquals(BODY, decode("gzip", gzip(bytes(BODY))));
+    assertEquals(BODY, decode("X-GZIP", gzip(bytes(BODY))));
+  }
+
+  @Test
+  public void codingsAreMatchedWhateverTheDefaultLocale() throws IOException {
+
+    Locale defaultLocale = Locale.getDefault();
+    Locale.setDefault(new Locale("tr", "TR"));
+    try {
+
+      // In Turkish, the lower case of I is a dotless i
+      assertEquals(BODY, decode("GZIP", gzip(bytes(BODY))));
+    } finally {
+      Locale.setDefault(defaultLocale);
+    }
+  }
+
+  @Test
+  public void zlibWrappedAndRawDeflateBodiesAreDecoded() throws IOException {
+
+    assertEquals(BODY, decode("deflate", deflate(bytes(BODY), false)));
+    assertEquals(BODY, decode("deflate", deflate(bytes(BODY), true)));
+  }
+
+  @Test
+  public void stackedCodingsAreDecodedInReverseOrder() throws IOException {
+
+    assertEquals(BODY, decode("deflate, gzip", gzip(deflate(bytes(BODY), false))));
+    assertEquals(BODY, decode("gzip,identity, gzip", gzip(gzip(bytes(BODY)))));
+  }
+
+  @Test
+  public void identityAndMissingCodingsLeaveTheBodyAsIs() throws IOException {
+
+    InputStream content = new ByteArrayInputStream(bytes(BODY));
+    assertSame(content, ContentDecoding.decode(null, content));
+    assertEquals(BODY, decode("identity", bytes(BODY)));
+    assertNull(ContentDecoding.decode("gzip", null));
+  }
+
+  @Test
+  public void emptyBodiesAreDecodedAsEmpty() throws IOException {
+
+    assertEquals("", decode("gzip", new byte[0]));
+    assertEquals("", decode("deflate", new byte[0]));
+  }
+
+  @Test(expected = IOException.class)
+  public void unsupportedCodingIsRejected() throws IOException {
+    ContentDecoding.decode("br", new ByteArrayInputStream(bytes(BODY)));
+  }
+
+  @Test(expected = IOException.class)
+  public void corruptBodyFailsWhenRead() throws IOException {
+    decode("gzip", bytes(BODY));
+  }
+
+  private static String decode(String contentEncoding, byte[] content) throws IOException {
+
+    try (InputStream decoded = ContentDecoding.decode(contentEncoding, new ByteArrayInputStream(content))) {
+      return new String(decoded.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] gzip(byte[] content) throws IOException {
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+      out.write(content);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static byte[] deflate(byte[] content, boolean raw) throws IOException {
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+    try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+      out.write(content);
+    } finally {
+      deflater.end();
+    }
+    return bytes.toByteArray();
+  }
+}
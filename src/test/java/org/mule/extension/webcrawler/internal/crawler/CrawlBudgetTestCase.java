@@ -0,0 +1,107 @@
+package org.mule.extension.webcrawler.internal.crawler;
+
+import org.junit.Test;
+import org.mule.extension.webcrawler.internal.constant.Constants;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CrawlBudgetTestCase {
+
+  @Test
+  public void unsetLimitsAreNotEnforced() {
+
+    CrawlBudget budget = new CrawlBudget(0, 0, 0);
+    budget.start();
+    for (int i = 0; i < 1000; i++) {
+
+      budget.countPage();
+      budget.addBytes(1_000_000);
+    }
+
+    assertFalse(budget.checkExhausted());
+    assertNull(budget.getExhausted());
+  }
+
+  @Test
+  public void pageLimitIsReachedOnceEnoughPagesAreCounted() {
+
+    CrawlBudget budget = new CrawlBudget(2, 0, 0);
+    budget.start();
+
+    budget.countPage();
+    assertFalse(budget.checkExhausted());
+    budget.countPage();
+    assertTrue(budget.checkExhausted());
+    assertEquals(Constants.CrawlBudgetType.MAX_PAGES, budget.getExhausted());
+    assertEquals(2, budget.getPages());
+  }
+
+  @Test
+  public void byteLimitIsReached() {
+
+    CrawlBudget budget = new CrawlBudget(0, 100, 0);
+    budget.start();
+
+    budget.addBytes(99);
+    assertFalse(budget.checkExhausted());
+    budget.addBytes(1);
+    assertTrue(budget.checkExhausted());
+    assertEquals(Constants.CrawlBudgetType.MAX_TOTAL_BYTES, budget.getExhausted());
+    assertEquals(100, budget.getTotalBytes());
+  }
+
+  @Test
+  public void durationLimitIsReached() throws InterruptedException {
+
+    CrawlBudget budget = new CrawlBudget(0, 0, 50);
+    budget.start();
+
+    assertFalse(budget.checkExhausted());
+    Thread.sleep(80);
+    assertTrue(budget.checkExhausted());
+    assertEquals(Constants.CrawlBudgetType.MAX_DURATION, budget.getExhausted());
+  }
+
+  @Test
+  public void firstLimitReachedIsKept() {
+
+    CrawlBudget budget = new CrawlBudget(1, 100, 0);
+    budget.start();
+
+    budget.countPage();
+    assertTrue(budget.checkExhausted());
+    budget.addBytes(1000);
+    assertTrue(budget.checkExhausted());
+    assertEquals(Constants.CrawlBudgetType.MAX_PAGES, budget.getExhausted());
+  }
+
+  @Test
+  public void isExhaustedOnlyReportsRecordedLimit() {
+
+    CrawlBudget budget = new CrawlBudget(1, 0, 0);
+    budget.start();
+    budget.countPage();
+
+    assertFalse(budget.isExhausted());
+    assertNull(budget.getExhausted());
+    assertTrue(budget.checkExhausted());
+    assertTrue(budget.isExhausted());
+  }
+
+  @Test
+  public void startResetsUsage() {
+
+    CrawlBudget budget = new CrawlBudget(1, 0, 0);
+    budget.start();
+    budget.countPage();
+    assertTrue(budget.checkExhausted());
+
+    budget.start();
+    assertFalse(budget.checkExhausted());
+    assertNull(budget.getExhausted());
+    assertEquals(0, budget.getPages());
+  }
+}
@@ -0,0 +1,90 @@
+package org.mule.extension.webcrawler.internal.crawler;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CrawlerTrapDetectorTestCase {
+
+  @Test
+  public void digitRunsAndQueryValuesCollapseIntoOneTemplate() {
+
+    assertEquals("example.com/events/{n}/{n}?page&view",
+                 CrawlerTrapDetector.getTemplate("https://example.com/events/2024/05?view=day&page=3"));
+    assertEquals("example.com/events/{n}/{n}?page&view",
+                 CrawlerTrapDetector.getTemplate("https://example.com/events/1999/12?page=1&view=month"));
+    assertEquals("example.com/item-{n}-v{n}",
+                 CrawlerTrapDetector.getTemplate("https://example.com/item-42-v7"));
+  }
+
+  @Test
+  public void repeatedAndValuelessQueryParametersAreNamedOnce() {
+
+    assertEquals("example.com/search?color&size",
+                 CrawlerTrapDetector.getTemplate("https://example.com/search?size=m&color=red&color=blue&size"));
+    assertEquals("example.com/search?q", CrawlerTrapDetector.getTemplate("https://example.com/search?&q=shoes&=x"));
+    assertEquals("example.com/", CrawlerTrapDetector.getTemplate("https://example.com/"));
+  }
+
+  @Test
+  public void urlsBeyondTheTemplateLimitAreSkipped() {
+
+    CrawlerTrapDetector detector = new CrawlerTrapDetector(3, 0);
+    detector.start();
+
+    for (int day = 1; day <= 3; day++) {
+      assertTrue(detector.admit("https://example.com/calendar?date=2024-01-0" + day));
+    }
+    assertFalse(detector.admit("https://example.com/calendar?date=2024-01-04"));
+    assertFalse(detector.admit("https://example.com/calendar?date=2031-12-31"));
+    assertTrue("Other templates have their own count", detector.admit("https://example.com/calendar/help"));
+
+    assertEquals(2, detector.getSkippedCount());
+    List<Map<String, Object>> templates = detector.getSkippedTemplates();
+    assertEquals(1, templates.size());
+    assertEquals("example.com/calendar?date", templates.get(0).get("template"));
+    assertEquals("URL_PATTERN", templates.get(0).get("reason"));
+    assertEquals(2, templates.get(0).get("skippedCount"));
+  }
+
+  @Test
+  public void repeatedPathSegmentsAreSkipped() {
+
+    CrawlerTrapDetector detector = new CrawlerTrapDetector(0, 2);
+    detector.start();
+
+    assertTrue(detector.admit("https://example.com/a/b/a/b"));
+    assertFalse(detector.admit("https://example.com/a/b/a/b/a/b"));
+    assertTrue("Query strings are not path segments", detector.admit("https://example.com/a/b/a?x=/a/a"));
+
+    assertEquals("REPEATED_PATH_SEGMENTS", detector.getSkippedTemplates().get(0).get("reason"));
+  }
+
+  @Test
+  public void startResetsCounts() {
+
+    CrawlerTrapDetector detector = new CrawlerTrapDetector(1, 0);
+    detector.start();
+    assertTrue(detector.admit("https://example.com/page/1"));
+    assertFalse(detector.admit("https://example.com/page/2"));
+
+    detector.start();
+    assertTrue(detector.admit("https://example.com/page/3"));
+    assertEquals(0, detector.getSkippedCount());
+  }
+
+  @Test
+  public void disabledDetectorAdmitsEverything() {
+
+    CrawlerTrapDetector detector = new CrawlerTrapDetector(0, 0);
+    assertFalse(detector.isEnabled());
+    for (int i = 0; i < 100; i++) {
+      assertTrue(detector.admit("https://example.com/a/a/a/a/" + i));
+    }
+  }
+}
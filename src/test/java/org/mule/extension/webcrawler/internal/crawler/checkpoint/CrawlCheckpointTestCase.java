@@ -0,0 +1,157 @@
+package org.mule.extension.webcrawler.internal.crawler.checkpoint;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+import org.mule.extension.webcrawler.internal.crawler.frontier.BloomFilterUrlSet;
+import org.mule.extension.webcrawler.internal.crawler.frontier.UrlFingerprintSet;
+import org.mule.extension.webcrawler.internal.crawler.frontier.VisitedUrlSet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CrawlCheckpointTestCase {
+
+  private Path directory;
+  private Path file;
+
+  @Before
+  public void createDirectory() throws IOException {
+
+    directory = Files.createTempDirectory("checkpoint");
+    file = directory.resolve(CrawlCheckpoint.CHECKPOINT_FILENAME);
+  }
+
+  @After
+  public void deleteDirectory() throws IOException {
+
+    Files.deleteIfExists(file);
+    Files.deleteIfExists(directory);
+  }
+
+  @Test
+  public void treeAndFrontierAreRestoredWithAllFields() throws IOException {
+
+    SiteNode root = new SiteNode("https://example.com/", 0, null, "root.json");
+    SiteNode page = new SiteNode("https://example.com/a", 1, "https://example.com/", "a.json");
+    page.setUnchanged(true);
+    page.setSitemapPriority(0.8);
+    page.setSitemapLastmod("2024-01-02");
+    SiteNode duplicate = new SiteNode("https://example.com/b", 1, "https://example.com/", "b.json");
+    duplicate.setDuplicateOf("https://example.com/a");
+    duplicate.setUnchanged(false);
+    root.addChild(page);
+    root.addChild(duplicate);
+
+    SiteNode queued = new SiteNode("https://example.com/a/c", 2, "https://example.com/a", page);
+    queued.setSitemapPriority(0.3);
+    queued.setSitemapLastmod("2024-03-04");
+
+    VisitedUrlSet visited = new UrlFingerprintSet(true);
+    Arrays.asList(root.getUrl(), page.getUrl(), duplicate.getUrl(), queued.getUrl()).forEach(visited::add);
+    CrawlCheckpoint.write(file, root, Arrays.asList(queued), visited);
+
+    Deque<SiteNode> frontier = new ArrayDeque<>();
+    SiteNode restoredRoot = CrawlCheckpoint.read(file, frontier, new UrlFingerprintSet(true));
+
+    assertEquals("root.json", restoredRoot.getFilename());
+    assertEquals(2, restoredRoot.getChildren().size());
+
+    SiteNode restoredPage = restoredRoot.getChildren().get(0);
+    assertEquals("https://example.com/a", restoredPage.getUrl());
+    assertEquals(Boolean.TRUE, restoredPage.getUnchanged());
+    assertEquals(0.8, restoredPage.getSitemapPriority(), 0);
+    assertEquals("2024-01-02", restoredPage.getSitemapLastmod());
+    assertNull(restoredPage.getDuplicateOf());
+
+    SiteNode restoredDuplicate = restoredRoot.getChildren().get(1);
+    assertEquals("https://example.com/a", restoredDuplicate.getDuplicateOf());
+    assertEquals(Boolean.FALSE, restoredDuplicate.getUnchanged());
+    assertNull(restoredDuplicate.getSitemapPriority());
+
+    SiteNode restoredQueued = frontier.poll();
+    assertEquals("https://example.com/a/c", restoredQueued.getUrl());
+    assertEquals(2, restoredQueued.getCurrentDepth());
+    assertSame(restoredPage, restoredQueued.getParent());
+    assertEquals(0.3, restoredQueued.getSitemapPriority(), 0);
+    assertEquals("2024-03-04", restoredQueued.getSitemapLastmod());
+  }
+
+  @Test
+  public void visitedUrlsOutsideTreeAndFrontierAreRestored() throws IOException {
+
+    SiteNode root = new SiteNode("https://example.com/", 0, null, "root.json");
+    VisitedUrlSet visited = new UrlFingerprintSet(true);
+    visited.add(root.getUrl());
+    visited.add("https://example.com/calendar?month=13"); // skipped as a crawler trap
+
+    CrawlCheckpoint.write(file, root, new ArrayDeque<>(), visited);
+
+    VisitedUrlSet restored = new UrlFingerprintSet(true);
+    CrawlCheckpoint.read(file, new ArrayDeque<>(), restored);
+
+    assertEquals(2, restored.size());
+    assertTrue(restored.contains("https://example.com/calendar?month=13"));
+    assertFalse(restored.contains("https://example.com/other"));
+  }
+
+  @Test
+  public void bloomFilterIsRestored() throws IOException {
+
+    SiteNode root = new SiteNode("https://example.com/", 0, null, "root.json");
+    VisitedUrlSet visited = new BloomFilterUrlSet(1000, 0.01);
+    visited.add(root.getUrl());
+    visited.add("https://example.com/skipped");
+
+    CrawlCheckpoint.write(file, root, new ArrayDeque<>(), visited);
+
+    VisitedUrlSet restored = new BloomFilterUrlSet(1000, 0.01);
+    CrawlCheckpoint.read(file, new ArrayDeque<>(), restored);
+
+    assertEquals(2, restored.size());
+    assertTrue(restored.contains("https://example.com/skipped"));
+  }
+
+  @Test(expected = IOException.class)
+  public void bloomFilterOfAnotherSizeIsRejected() throws IOException {
+
+    SiteNode root = new SiteNode("https://example.com/", 0, null, "root.json");
+    VisitedUrlSet visited = new BloomFilterUrlSet(1000, 0.01);
+    visited.add(root.getUrl());
+    CrawlCheckpoint.write(file, root, new ArrayDeque<>(), visited);
+
+    CrawlCheckpoint.read(file, new ArrayDeque<>(), new BloomFilterUrlSet(100000, 0.01));
+  }
+
+  @Test
+  public void visitedSetOfAnotherStrategyIsRejected() throws IOException {
+
+    SiteNode root = new SiteNode("https://example.com/", 0, null, "root.json");
+    VisitedUrlSet visited = new UrlFingerprintSet(false);
+    visited.add(root.getUrl());
+    CrawlCheckpoint.write(file, root, new ArrayDeque<>(), visited);
+
+    VisitedUrlSet restored = new BloomFilterUrlSet(1000, 0.01);
+    try {
+
+      CrawlCheckpoint.read(file, new ArrayDeque<>(), restored);
+      fail("Checkpoint of a fingerprint set was restored into a Bloom filter.");
+    } catch (IOException e) {
+
+      assertTrue(e.getMessage(), e.getMessage().contains("fingerprint"));
+      assertEquals(0, restored.size());
+    }
+  }
+}
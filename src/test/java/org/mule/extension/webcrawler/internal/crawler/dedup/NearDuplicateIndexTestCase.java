@@ -0,0 +1,119 @@
+package org.mule.extension.webcrawler.internal.crawler.dedup;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NearDuplicateIndexTestCase {
+
+  private static final String TEXT = "The quick brown fox jumps over the lazy dog while the farmer watches from the " +
+      "porch of the old house, drinking coffee and reading yesterday's newspaper about the weather in the valley, " +
+      "where rain is expected for the whole week and the river may rise above its banks again.";
+
+  @Test
+  public void everyFingerprintWithinTheDistanceIsFound() {
+
+    Random random = new Random(42);
+    for (int maxDistance = 0; maxDistance <= NearDuplicateIndex.MAX_DISTANCE; maxDistance++) {
+
+      NearDuplicateIndex index = new NearDuplicateIndex(maxDistance);
+      Map<String, Long> fingerprints = new HashMap<>();
+      for (int page = 0; page < 200; page++) {
+
+        long fingerprint = random.nextLong();
+        String url = "https://example.com/" + page;
+        if (index.findOrAdd(url, fingerprint) == null) fingerprints.put(url, fingerprint);
+
+        for (int distance = 0; distance <= maxDistance; distance++) {
+
+          // Another page close enough may be found first, any page within the distance is a hit
+          long nearFingerprint = flipBits(fingerprint, distance, random);
+          String duplicateOf = index.findOrAdd("https://example.com/near", nearFingerprint);
+          assertNotNull(String.format("Distance %d with max distance %d", distance, maxDistance), duplicateOf);
+          assertTrue(Long.bitCount(fingerprints.get(duplicateOf) ^ nearFingerprint) <= maxDistance);
+        }
+      }
+      assertEquals(fingerprints.size(), index.size());
+    }
+  }
+
+  @Test
+  public void fingerprintsBeyondTheDistanceAreNotDuplicates() {
+
+    Random random = new Random(7);
+    for (int maxDistance = 0; maxDistance < NearDuplicateIndex.MAX_DISTANCE; maxDistance++) {
+
+      long fingerprint = random.nextLong();
+      for (int i = 0; i < 100; i++) {
+
+        NearDuplicateIndex probe = new NearDuplicateIndex(maxDistance);
+        probe.findOrAdd("https://example.com/", fingerprint);
+        assertNull(probe.findOrAdd("https://example.com/far", flipBits(fingerprint, maxDistance + 1, random)));
+      }
+    }
+  }
+
+  @Test
+  public void nearlyIdenticalTextsAreDuplicates() {
+
+    // On a text this short one changed word alters 3 shingles out of 45, longer pages move fewer bits
+    NearDuplicateIndex index = new NearDuplicateIndex(8);
+
+    assertNull(index.findOrAdd("https://example.com/a", TEXT));
+    assertEquals("https://example.com/a", index.findOrAdd("https://example.com/b", TEXT.toUpperCase() + " !"));
+    assertEquals("https://example.com/a",
+                 index.findOrAdd("https://example.com/c", TEXT.replace("yesterday's", "today's")));
+    assertNull(index.findOrAdd("https://example.com/d",
+                               "Completely unrelated content about compilers, register allocation, instruction " +
+                                   "scheduling, loop unrolling and the many ways a program can be made faster."));
+    assertEquals(2, index.size());
+    assertEquals(2, index.getDuplicateCount());
+  }
+
+  @Test
+  public void shortTextsAreNeverDuplicates() {
+
+    NearDuplicateIndex index = new NearDuplicateIndex(3);
+
+    assertNull(NearDuplicateIndex.simHash("Page not found"));
+    assertNull(index.findOrAdd("https://example.com/a", "Page not found"));
+    assertNull(index.findOrAdd("https://example.com/b", "Page not found"));
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  public void simHashIsStable() {
+
+    Long fingerprint = NearDuplicateIndex.simHash(TEXT);
+    assertNotNull(fingerprint);
+    assertEquals(fingerprint, NearDuplicateIndex.simHash(TEXT));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void distanceIsBounded() {
+    new NearDuplicateIndex(NearDuplicateIndex.MAX_DISTANCE + 1);
+  }
+
+  private static long flipBits(long fingerprint, int count, Random random) {
+
+    long flipped = fingerprint;
+    int flips = 0;
+    while (flips < count) {
+
+      long bit = 1L << random.nextInt(64);
+      if (((flipped ^ fingerprint) & bit) == 0) {
+
+        flipped ^= bit;
+        flips++;
+      }
+    }
+    return flipped;
+  }
+}
@@ -0,0 +1,183 @@
+package org.mule.extension.webcrawler.internal.crawler.distributed;
+
+import org.junit.Test;
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+import org.mule.extension.webcrawler.internal.crawler.distributed.DistributedCrawlCoordinator.WorkItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DistributedCrawlCoordinatorTestCase {
+
+  private static final String ROOT = "https://example.com/";
+  private static final long LEASE_MILLIS = 200;
+
+  private final InMemoryCrawlStore store = new InMemoryCrawlStore();
+  private final AtomicLong clock = new AtomicLong(1000);
+
+  @Test
+  public void partitionIsLeasedByOneWorkerUntilItExpires() {
+
+    DistributedCrawlCoordinator first = coordinator("first", 1);
+    DistributedCrawlCoordinator second = coordinator("second", 1);
+    first.enqueue(new WorkItem(ROOT, 0, null, null));
+
+    Integer partition = first.claimPartition();
+    assertNotNull(partition);
+    assertNull(second.claimPartition());
+
+    clock.addAndGet(LEASE_MILLIS - 1);
+    assertNull("The lease is held until it expires", second.claimPartition());
+    clock.addAndGet(1);
+
+    assertEquals(partition, second.claimPartition());
+    assertFalse("The lease taken over can no longer be renewed", first.renewLease(partition));
+    assertTrue(second.renewLease(partition));
+  }
+
+  @Test
+  public void renewedLeaseIsNotTakenOver() {
+
+    DistributedCrawlCoordinator first = coordinator("first", 1);
+    DistributedCrawlCoordinator second = coordinator("second", 1);
+    first.enqueue(new WorkItem(ROOT, 0, null, null));
+
+    int partition = first.claimPartition();
+    clock.addAndGet(LEASE_MILLIS * 3 / 4);
+    assertTrue(first.renewLease(partition));
+    clock.addAndGet(LEASE_MILLIS / 2);
+
+    assertNull(second.claimPartition());
+    assertTrue(first.renewLease(partition));
+  }
+
+  @Test
+  public void renewalAndTakeoverOfTheSameLeaseCannotBothSucceed() {
+
+    DistributedCrawlCoordinator first = coordinator("first", 1);
+    DistributedCrawlCoordinator second = coordinator("second", 1);
+    first.enqueue(new WorkItem(ROOT, 0, null, null));
+
+    int partition = first.claimPartition();
+    clock.addAndGet(LEASE_MILLIS + 1);
+
+    // Both find the lease expired: the second worker takes over before the first one renews
+    assertEquals(Integer.valueOf(partition), second.claimPartition());
+    assertFalse(first.renewLease(partition));
+    assertTrue(second.renewLease(partition));
+  }
+
+  @Test
+  public void releasedPartitionIsAvailableAtOnce() {
+
+    DistributedCrawlCoordinator first = coordinator("first", 1);
+    DistributedCrawlCoordinator second = coordinator("second", 1);
+    first.enqueue(new WorkItem(ROOT, 0, null, null));
+
+    int partition = first.claimPartition();
+    first.releasePartition(partition);
+
+    assertEquals(Integer.valueOf(partition), second.claimPartition());
+  }
+
+  @Test
+  public void partitionWithoutPagesLeftIsNotLeased() {
+
+    DistributedCrawlCoordinator coordinator = coordinator("first", 1);
+    assertNull(coordinator.claimPartition());
+
+    WorkItem root = new WorkItem(ROOT, 0, null, null);
+    coordinator.enqueue(root);
+    int partition = coordinator.claimPartition();
+    coordinator.complete(root, root.toSiteNode());
+    coordinator.releasePartition(partition);
+
+    assertNull(coordinator.claimPartition());
+    assertTrue(coordinator.isDone(ROOT));
+  }
+
+  @Test
+  public void workersCrawlEachPageOnceAndMergeTheSameTree() {
+
+    Map<String, List<String>> links = new HashMap<>();
+    links.put(ROOT, Arrays.asList("https://a.example.com/", "https://b.example.com/", "https://example.com/about"));
+    links.put("https://a.example.com/", Arrays.asList("https://a.example.com/1", "https://a.example.com/2", ROOT));
+    links.put("https://b.example.com/", Arrays.asList("https://b.example.com/1", "https://a.example.com/1"));
+    links.put("https://b.example.com/1", Arrays.asList("https://c.example.com/"));
+
+    List<DistributedCrawlCoordinator> workers = Arrays.asList(coordinator("first", 4), coordinator("second", 4),
+                                                              coordinator("third", 4));
+    if (workers.get(0).markVisited(ROOT)) workers.get(0).enqueue(new WorkItem(ROOT, 0, null, null));
+
+    List<String> crawled = new ArrayList<>();
+    for (int round = 0; round < 100 && !workers.get(0).isDone(ROOT); round++) {
+
+      // Workers take turns crawling one page of a partition they lease
+      DistributedCrawlCoordinator worker = workers.get(round % workers.size());
+      Integer partition = worker.claimPartition();
+      if (partition == null) continue;
+
+      List<WorkItem> pending = worker.getPendingItems(partition);
+      if (!pending.isEmpty()) {
+
+        WorkItem workItem = pending.get(0);
+        crawled.add(workItem.getUrl());
+        for (String link : links.getOrDefault(workItem.getUrl(), new ArrayList<>())) {
+          if (worker.markVisited(link)) {
+            worker.enqueue(new WorkItem(link, workItem.getDepth() + 1, workItem.getUrl(), workItem.getUrl()));
+          }
+        }
+        worker.complete(workItem, workItem.toSiteNode());
+      }
+      worker.releasePartition(partition);
+    }
+
+    assertTrue(workers.get(0).isDone(ROOT));
+    assertEquals("Pages crawled twice: " + crawled, crawled.size(), new HashSet<>(crawled).size());
+    assertEquals(8, crawled.size());
+
+    SiteNode rootNode = workers.get(1).mergeTree(ROOT);
+    assertEquals(ROOT, rootNode.getUrl());
+    assertEquals(urls(rootNode.getChildren()),
+                 new HashSet<>(Arrays.asList("https://a.example.com/", "https://b.example.com/",
+                                             "https://example.com/about")));
+    SiteNode b = find(rootNode, "https://b.example.com/");
+    assertEquals(new HashSet<>(Arrays.asList("https://b.example.com/1")), urls(b.getChildren()));
+    assertEquals(1, find(rootNode, "https://b.example.com/1").getChildren().size());
+  }
+
+  private DistributedCrawlCoordinator coordinator(String workerId, int partitionCount) {
+    return new DistributedCrawlCoordinator(store, "crawl", workerId, partitionCount, LEASE_MILLIS, 10, clock::get);
+  }
+
+  private static Set<String> urls(List<SiteNode> nodes) {
+
+    Set<String> urls = new HashSet<>();
+    for (SiteNode node : nodes) {
+      urls.add(node.getUrl());
+    }
+    return urls;
+  }
+
+  private static SiteNode find(SiteNode node, String url) {
+
+    if (node.getUrl().equals(url)) return node;
+    for (SiteNode child : node.getChildren()) {
+      SiteNode found = find(child, url);
+      if (found != null) return found;
+    }
+    return null;
+  }
+}
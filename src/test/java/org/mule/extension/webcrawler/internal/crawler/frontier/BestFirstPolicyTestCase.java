@@ -0,0 +1,110 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import org.junit.Test;
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class BestFirstPolicyTestCase {
+
+  private static final String ROOT = "https://example.com/docs/";
+
+  private final BestFirstPolicy policy = new BestFirstPolicy(ROOT);
+  private final Queue<SiteNode> frontier = policy.newQueue();
+
+  @Test
+  public void pagesAreVisitedByScore() {
+
+    SiteNode deep = page("https://example.com/docs/a/b", 4);
+    SiteNode outsideRootPath = page("https://example.com/blog", 1);
+    SiteNode shallow = page("https://example.com/docs/a", 1);
+    SiteNode prioritized = page("https://example.com/docs/b", 1);
+    prioritized.setSitemapPriority(1.0);
+
+    frontier.add(deep);
+    frontier.add(outsideRootPath);
+    frontier.add(shallow);
+    frontier.add(prioritized);
+
+    assertSame(prioritized, frontier.poll());
+    assertSame(shallow, frontier.poll());
+    assertSame(outsideRootPath, frontier.poll());
+    assertSame(deep, frontier.poll());
+    assertNull(frontier.poll());
+  }
+
+  @Test
+  public void pagesWithTheSameScoreAreVisitedInDiscoveryOrder() {
+
+    for (int i = 0; i < 10; i++) {
+      frontier.add(page("https://example.com/docs/" + i, 1));
+    }
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals("https://example.com/docs/" + i, frontier.poll().getUrl());
+    }
+  }
+
+  @Test
+  public void linkFoundAgainMovesPageAhead() {
+
+    SiteNode first = page("https://example.com/docs/first", 1);
+    SiteNode second = page("https://example.com/docs/second", 1);
+    frontier.add(first);
+    frontier.add(second);
+
+    policy.linkFound(second.getUrl());
+
+    assertSame(second, frontier.poll());
+    assertSame(first, frontier.poll());
+  }
+
+  @Test
+  public void staleEntriesAreSkipped() {
+
+    SiteNode first = page("https://example.com/docs/first", 1);
+    SiteNode second = page("https://example.com/docs/second", 1);
+    frontier.add(first);
+    frontier.add(second);
+
+    // Each link found queues the page again, leaving its previous entries in the heap
+    policy.linkFound(second.getUrl());
+    policy.linkFound(second.getUrl());
+
+    assertEquals(2, frontier.size());
+    List<SiteNode> queued = new ArrayList<>(frontier);
+    assertEquals(2, queued.size());
+    assertEquals(1, queued.stream().filter(siteNode -> siteNode == second).count());
+
+    assertSame(second, frontier.peek());
+    assertSame(second, frontier.poll());
+    assertSame(first, frontier.peek());
+    assertSame(first, frontier.poll());
+    assertNull(frontier.peek());
+    assertNull(frontier.poll());
+    assertEquals(0, frontier.size());
+  }
+
+  @Test
+  public void linkFoundToVisitedPageIsIgnored() {
+
+    SiteNode first = page("https://example.com/docs/first", 1);
+    frontier.add(first);
+    assertSame(first, frontier.poll());
+
+    policy.linkFound(first.getUrl());
+
+    assertNull(frontier.poll());
+    assertEquals(0, frontier.size());
+  }
+
+  private static SiteNode page(String url, int depth) {
+    return new SiteNode(url, depth, ROOT);
+  }
+}
@@ -0,0 +1,73 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BloomFilterUrlSetTestCase {
+
+  private static final int EXPECTED_URLS = 20_000;
+  private static final int PROBES = 200_000;
+
+  @Test
+  public void addedUrlsAreAlwaysFound() {
+
+    BloomFilterUrlSet set = new BloomFilterUrlSet(EXPECTED_URLS, 0.01);
+    for (int i = 0; i < EXPECTED_URLS; i++) {
+      set.add("https://example.com/page/" + i);
+    }
+
+    for (int i = 0; i < EXPECTED_URLS; i++) {
+
+      assertTrue(set.contains("https://example.com/page/" + i));
+      assertFalse(set.add("https://example.com/page/" + i));
+    }
+    assertFalse(set.add(null));
+    assertFalse(set.contains(null));
+  }
+
+  @Test
+  public void falsePositiveRateMatchesTheRequestedOne() {
+
+    for (double requestedRate : new double[] {0.01, 0.001}) {
+
+      BloomFilterUrlSet set = new BloomFilterUrlSet(EXPECTED_URLS, requestedRate);
+      for (int i = 0; i < EXPECTED_URLS; i++) {
+        set.add("https://example.com/page/" + i);
+      }
+
+      double measuredRate = measureFalsePositiveRate(set);
+      assertTrue(String.format("Measured rate %f for requested %f", measuredRate, requestedRate),
+                 measuredRate <= requestedRate * 1.5);
+      assertEquals(requestedRate, set.getEstimatedFalsePositiveRate(), requestedRate / 2);
+    }
+  }
+
+  @Test
+  public void falsePositiveRateGrowsPastTheExpectedCount() {
+
+    BloomFilterUrlSet set = new BloomFilterUrlSet(EXPECTED_URLS, 0.01);
+    for (int i = 0; i < EXPECTED_URLS * 3; i++) {
+      set.add("https://example.com/page/" + i);
+    }
+
+    assertTrue(measureFalsePositiveRate(set) > 0.05);
+    assertTrue(set.getFillRatio() > 0.8);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void falsePositiveRateMustBeBelowOne() {
+    new BloomFilterUrlSet(EXPECTED_URLS, 1);
+  }
+
+  private static double measureFalsePositiveRate(BloomFilterUrlSet set) {
+
+    int falsePositives = 0;
+    for (int i = 0; i < PROBES; i++) {
+      if (set.contains("https://example.org/unvisited/" + i)) falsePositives++;
+    }
+    return (double) falsePositives / PROBES;
+  }
+}
@@ -0,0 +1,57 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HostPolitenessSchedulerTestCase {
+
+  @Test
+  public void delaysRequestsToSameHostOnly() {
+
+    HostPolitenessScheduler scheduler = new HostPolitenessScheduler(100);
+
+    long start = HostPolitenessScheduler.now();
+    scheduler.acquire("https://a.example.com/1");
+    scheduler.acquire("https://b.example.com/1");
+    assertTrue(HostPolitenessScheduler.now() - start < 100);
+
+    scheduler.acquire("https://a.example.com/2");
+    assertTrue(HostPolitenessScheduler.now() - start >= 100);
+  }
+
+  @Test
+  public void interruptedWaitKeepsInterruptFlag() {
+
+    HostPolitenessScheduler scheduler = new HostPolitenessScheduler(10000);
+    scheduler.acquire("https://a.example.com/1");
+
+    Thread.currentThread().interrupt();
+    try {
+
+      long start = HostPolitenessScheduler.now();
+      scheduler.acquire("https://a.example.com/2");
+      assertTrue(HostPolitenessScheduler.now() - start < 10000);
+      assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  public void forgetsHostsPastTheirReadyTime() throws InterruptedException {
+
+    HostPolitenessScheduler scheduler = new HostPolitenessScheduler(1);
+    for (int i = 0; i < 1000; i++) {
+      scheduler.acquire("https://host" + i + ".example.com/");
+    }
+    Thread.sleep(5);
+    for (int i = 0; i < 2000; i++) {
+      scheduler.acquire("https://other" + i + ".example.com/");
+    }
+
+    assertTrue(scheduler.getTrackedHostCount() < 3000);
+    assertEquals(0, scheduler.getReadyTime("host0.example.com"));
+  }
+}
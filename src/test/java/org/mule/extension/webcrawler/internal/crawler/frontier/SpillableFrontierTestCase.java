@@ -0,0 +1,97 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SpillableFrontierTestCase {
+
+  private Path spillLocation;
+  private SpillableFrontier frontier;
+
+  @Before
+  public void createFrontier() throws IOException {
+
+    spillLocation = Files.createTempDirectory("frontier");
+    frontier = new SpillableFrontier(new ArrayDeque<>(), 2, spillLocation);
+  }
+
+  @After
+  public void closeFrontier() throws IOException {
+
+    frontier.close();
+    Files.deleteIfExists(spillLocation);
+  }
+
+  @Test
+  public void spilledPagesKeepDiscoveryOrder() {
+
+    SiteNode root = new SiteNode("https://example.com/", 0, null);
+    for (int i = 0; i < 10; i++) {
+      frontier.add(new SiteNode("https://example.com/" + i, 1, root.getUrl(), root));
+    }
+
+    assertEquals(10, frontier.size());
+    for (int i = 0; i < 10; i++) {
+
+      SiteNode siteNode = frontier.poll();
+      assertEquals("https://example.com/" + i, siteNode.getUrl());
+      assertSame(root, siteNode.getParent());
+    }
+    assertNull(frontier.poll());
+  }
+
+  @Test
+  public void spilledPagesKeepSitemapFields() {
+
+    SiteNode root = new SiteNode("https://example.com/", 0, null);
+    for (int i = 0; i < 4; i++) {
+
+      SiteNode siteNode = new SiteNode("https://example.com/" + i, 1, root.getUrl(), root);
+      if (i % 2 == 0) {
+
+        siteNode.setSitemapPriority(i / 10.0);
+        siteNode.setSitemapLastmod("2024-01-0" + (i + 1));
+      }
+      frontier.add(siteNode);
+    }
+
+    frontier.poll();
+    frontier.poll();
+
+    SiteNode withFields = frontier.poll();
+    assertEquals("https://example.com/2", withFields.getUrl());
+    assertEquals(0.2, withFields.getSitemapPriority(), 0);
+    assertEquals("2024-01-03", withFields.getSitemapLastmod());
+
+    SiteNode withoutFields = frontier.poll();
+    assertNull(withoutFields.getSitemapPriority());
+    assertNull(withoutFields.getSitemapLastmod());
+  }
+
+  @Test
+  public void spilledPagesKeepQueuedTime() {
+
+    SiteNode root = new SiteNode("https://example.com/", 0, null);
+    for (int i = 0; i < 4; i++) {
+
+      SiteNode siteNode = new SiteNode("https://example.com/" + i, 1, root.getUrl(), root);
+      siteNode.setQueuedNanos(1000L * i);
+      frontier.add(siteNode);
+    }
+
+    for (int i = 0; i < 4; i++) {
+      assertEquals(1000L * i, frontier.poll().getQueuedNanos());
+    }
+  }
+}
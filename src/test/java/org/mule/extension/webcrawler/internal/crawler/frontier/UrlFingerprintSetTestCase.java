@@ -0,0 +1,118 @@
+package org.mule.extension.webcrawler.internal.crawler.frontier;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UrlFingerprintSetTestCase {
+
+  @Test
+  public void urlsAreAddedOnce() {
+
+    UrlFingerprintSet set = new UrlFingerprintSet(true);
+
+    assertTrue(set.add("https://example.com/"));
+    assertFalse(set.add("https://example.com/"));
+    assertFalse(set.add(null));
+    assertTrue(set.contains("https://example.com/"));
+    assertFalse(set.contains("https://example.com/other"));
+    assertFalse(set.contains(null));
+    assertEquals(1, set.size());
+  }
+
+  @Test
+  public void tableGrowsPastItsInitialCapacity() {
+
+    for (boolean exact : new boolean[] {true, false}) {
+
+      UrlFingerprintSet set = new UrlFingerprintSet(1, exact);
+      int count = 50_000;
+      for (int i = 0; i < count; i++) {
+        assertTrue(set.add("https://example.com/page/" + i));
+      }
+
+      assertEquals(count, set.size());
+      for (int i = 0; i < count; i++) {
+
+        assertTrue(set.contains("https://example.com/page/" + i));
+        assertFalse(set.add("https://example.com/page/" + i));
+      }
+      assertFalse(set.contains("https://example.com/page/" + count));
+    }
+  }
+
+  @Test
+  public void sameFingerprintIsToldApartWithExactVerification() throws IOException {
+
+    // Restoring a URL under the fingerprint of another one is the only way to get two URLs sharing a fingerprint
+    String url = "https://example.com/a";
+    long fingerprint = UrlFingerprintSet.fingerprint(url);
+    byte[] collidingSaved = savedSet(fingerprint, "https://example.com/b");
+
+    UrlFingerprintSet exact = new UrlFingerprintSet(true);
+    exact.readFrom(new DataInputStream(new ByteArrayInputStream(collidingSaved)));
+    assertFalse(exact.contains(url));
+    assertTrue(exact.add(url));
+    assertTrue(exact.contains(url));
+    assertEquals(2, exact.size());
+
+    UrlFingerprintSet approximate = new UrlFingerprintSet(false);
+    approximate.readFrom(new DataInputStream(new ByteArrayInputStream(collidingSaved)));
+    assertTrue("Without verification the fingerprint match is trusted", approximate.contains(url));
+    assertFalse(approximate.add(url));
+  }
+
+  @Test
+  public void savedSetIsRestored() throws IOException {
+
+    UrlFingerprintSet set = new UrlFingerprintSet(true);
+    for (int i = 0; i < 2000; i++) {
+      set.add("https://example.com/" + i);
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    set.writeTo(new DataOutputStream(bytes));
+
+    for (boolean exact : new boolean[] {true, false}) {
+
+      UrlFingerprintSet restored = new UrlFingerprintSet(exact);
+      restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+      assertEquals(2000, restored.size());
+      assertTrue(restored.contains("https://example.com/1999"));
+      assertFalse(restored.contains("https://example.com/2000"));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void setWithoutURLsCannotBeRestoredWithExactVerification() throws IOException {
+
+    UrlFingerprintSet set = new UrlFingerprintSet(false);
+    set.add("https://example.com/");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    set.writeTo(new DataOutputStream(bytes));
+
+    new UrlFingerprintSet(true).readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
+  private static byte[] savedSet(long fingerprint, String url) throws IOException {
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+    out.writeBoolean(true);
+    out.writeInt(1);
+    out.writeLong(fingerprint);
+    out.writeInt(urlBytes.length);
+    out.write(urlBytes);
+    return bytes.toByteArray();
+  }
+}
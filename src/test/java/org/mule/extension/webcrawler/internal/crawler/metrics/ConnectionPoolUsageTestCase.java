@@ -0,0 +1,78 @@
+package org.mule.extension.webcrawler.internal.crawler.metrics;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConnectionPoolUsageTestCase {
+
+  @Test
+  public void requestsWaitForAConnectionOnceAllAreBusy() throws Exception {
+
+    ConnectionPoolUsage usage = new ConnectionPoolUsage(2);
+    usage.acquire();
+    usage.acquire();
+
+    CountDownLatch acquired = new CountDownLatch(1);
+    Thread waiting = new Thread(() -> {
+      try {
+
+        usage.acquire();
+        acquired.countDown();
+
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    waiting.start();
+
+    assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+    assertEquals(1, usage.getWaitingRequests());
+
+    usage.release();
+    assertTrue(acquired.await(1, TimeUnit.SECONDS));
+    waiting.join();
+
+    assertEquals(0, usage.getWaitingRequests());
+    assertEquals(2, usage.getActiveRequests());
+    assertEquals(2, usage.getPeakActiveRequests());
+  }
+
+  @Test
+  public void unlimitedPoolNeverWaits() throws Exception {
+
+    ConnectionPoolUsage usage = new ConnectionPoolUsage(-1);
+    for (int i = 0; i < 100; i++) {
+      usage.acquire();
+    }
+    assertEquals(100, usage.getActiveRequests());
+
+    for (int i = 0; i < 100; i++) {
+      usage.release();
+    }
+    assertEquals(0, usage.getActiveRequests());
+    assertEquals(100, usage.getPeakActiveRequests());
+  }
+
+  @Test
+  public void resetKeepsRequestsInProgress() throws Exception {
+
+    ConnectionPoolUsage usage = new ConnectionPoolUsage(4);
+    usage.acquire();
+    usage.acquire();
+    usage.release();
+    usage.reset();
+
+    Map<String, Object> map = usage.toMap();
+    assertEquals(4, map.get("maxConnections"));
+    assertEquals(0L, map.get("requests"));
+    assertEquals(1, map.get("activeRequests"));
+    assertEquals(1, map.get("peakActiveRequests"));
+  }
+}
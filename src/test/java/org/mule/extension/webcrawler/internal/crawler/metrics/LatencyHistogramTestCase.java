@@ -0,0 +1,92 @@
+package org.mule.extension.webcrawler.internal.crawler.metrics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTestCase {
+
+  @Test
+  public void percentilesAreWithinTheBucketPrecision() {
+
+    Random random = new Random(1);
+    LatencyHistogram histogram = new LatencyHistogram();
+    long[] micros = new long[100_000];
+    for (int i = 0; i < micros.length; i++) {
+
+      // Log-uniform from 1 microsecond to about 17 minutes
+      micros[i] = (long) Math.pow(2, random.nextDouble() * 30);
+      histogram.recordNanos(micros[i] * 1_000);
+    }
+    Arrays.sort(micros);
+
+    for (double percentile : new double[] {1, 10, 25, 50, 75, 90, 99, 99.9}) {
+
+      double expectedMillis = micros[(int) Math.ceil(percentile / 100 * micros.length) - 1] / 1_000.0;
+      double actualMillis = histogram.getPercentileMillis(percentile);
+      assertTrue(String.format("p%s is %f, below %f", percentile, actualMillis, expectedMillis),
+                 actualMillis >= expectedMillis);
+      assertTrue(String.format("p%s is %f, more than 2%% above %f", percentile, actualMillis, expectedMillis),
+                 actualMillis <= expectedMillis * 1.02 + 0.001);
+    }
+    assertEquals(micros[micros.length - 1] / 1_000.0, histogram.getPercentileMillis(100), 0);
+    assertEquals(micros[micros.length - 1] / 1_000.0, histogram.getMaxMillis(), 0);
+  }
+
+  @Test
+  public void smallValuesAreExact() {
+
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int micros = 1; micros <= 100; micros++) {
+      histogram.recordNanos(micros * 1_000L);
+    }
+
+    assertEquals(0.050, histogram.getPercentileMillis(50), 0);
+    assertEquals(0.099, histogram.getPercentileMillis(99), 0);
+    assertEquals(0.0505, histogram.getMeanMillis(), 1e-9);
+    assertEquals(100, histogram.getCount());
+  }
+
+  @Test
+  public void percentileNeverExceedsTheMaximum() {
+
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.recordNanos(1_000_001_000L);
+
+    assertEquals(1000.001, histogram.getPercentileMillis(50), 0);
+    assertEquals(1000.001, histogram.getPercentileMillis(100), 0);
+  }
+
+  @Test
+  public void valuesOutOfRangeAreClamped() {
+
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.recordNanos(-5);
+    histogram.recordNanos(10L * 3_600_000_000_000L);
+
+    assertEquals(0, histogram.getPercentileMillis(50), 0);
+    assertEquals(3_600_000, histogram.getMaxMillis(), 0);
+    assertEquals(3_600_000, histogram.getPercentileMillis(100), 0);
+  }
+
+  @Test
+  public void emptyAndResetHistogramsReportZero() {
+
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getPercentileMillis(99), 0);
+    assertEquals(0, histogram.getMeanMillis(), 0);
+
+    histogram.recordNanos(5_000_000);
+    histogram.reset();
+
+    Map<String, Object> map = histogram.toMap();
+    assertEquals(0L, map.get("count"));
+    assertEquals(0.0, map.get("p99Millis"));
+    assertEquals(0.0, map.get("maxMillis"));
+  }
+}
@@ -0,0 +1,100 @@
+package org.mule.extension.webcrawler.internal.crawler.mule;
+
+import org.junit.Test;
+import org.mule.extension.webcrawler.internal.config.CrawlerOptions;
+import org.mule.extension.webcrawler.internal.config.PageLoadOptions;
+import org.mule.extension.webcrawler.internal.config.WebCrawlerConfiguration;
+import org.mule.extension.webcrawler.internal.connection.WebCrawlerConnection;
+import org.mule.extension.webcrawler.internal.constant.Constants;
+import org.mule.extension.webcrawler.internal.crawler.Crawler;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MuleCrawlerTestCase {
+
+  private static final int LINK_COUNT = 40;
+
+  @Test
+  public void linkValidationConcurrencyBoundsStatusChecks() {
+
+    // From Java 21 on, virtual threads run every check submitted at once unless the crawler bounds them
+    CrawlerOptions crawlerOptions = new CrawlerOptions();
+    crawlerOptions.setExecutionMode(Constants.ExecutionMode.VIRTUAL_THREADS);
+    crawlerOptions.setLinkValidationConcurrency(4);
+    WebCrawlerConfiguration configuration = new WebCrawlerConfiguration();
+    configuration.setCrawlerOptions(crawlerOptions);
+
+    StatusCountingConnection connection = new StatusCountingConnection();
+    Crawler crawler = Crawler.builder()
+        .configuration(configuration)
+        .connection(connection)
+        .rootURL("https://example.com/")
+        .maxDepth(1)
+        .build();
+
+    Crawler.SiteNode root = crawler.map();
+
+    assertEquals(LINK_COUNT, root.getChildren().size());
+    assertTrue("Peak concurrent status checks: " + connection.peak.get(), connection.peak.get() <= 4);
+  }
+
+  private static class StatusCountingConnection implements WebCrawlerConnection {
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+
+    @Override
+    public String getUserAgent() {
+      return "test";
+    }
+
+    @Override
+    public String getReferrer() {
+      return null;
+    }
+
+    @Override
+    public CompletableFuture<Integer> getUrlStatusCode(String url, String currentReferrer) {
+
+      int current = running.incrementAndGet();
+      peak.accumulateAndGet(current, Math::max);
+      try {
+
+        Thread.sleep(10);
+        return CompletableFuture.completedFuture(200);
+
+      } catch (InterruptedException e) {
+
+        Thread.currentThread().interrupt();
+        return CompletableFuture.completedFuture(500);
+      } finally {
+        running.decrementAndGet();
+      }
+    }
+
+    @Override
+    public CompletableFuture<InputStream> getPageSource(String url, String currentReferrer, PageLoadOptions pageLoadOptions) {
+
+      StringBuilder html = new StringBuilder("<html><body>");
+      if (url.equals("https://example.com/")) {
+        for (int i = 0; i < LINK_COUNT; i++) {
+          html.append("<a href='/page/").append(i).append("'>page</a>");
+        }
+      }
+      html.append("</body></html>");
+      return CompletableFuture.completedFuture(new ByteArrayInputStream(html.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public boolean isConcurrentFetchSupported() {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package org.mule.extension.webcrawler.internal.crawler.pipeline;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mule.extension.webcrawler.internal.constant.Constants;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CrawlPipelineTestCase {
+
+  private static final int TASK_COUNT = 30;
+
+  // Number of stages each task went through, recorded when it leaves the pipeline
+  private final Map<Integer, Integer> completed = new ConcurrentHashMap<>();
+  private final AtomicInteger completions = new AtomicInteger();
+  private final CountDownLatch allCompleted = new CountDownLatch(TASK_COUNT);
+  private CrawlPipeline<Task> pipeline;
+
+  @After
+  public void closePipeline() {
+    if (pipeline != null) pipeline.close();
+  }
+
+  @Test
+  public void tasksCompleteOnceAfterTheLastStage() throws InterruptedException {
+
+    pipeline = newPipeline(4)
+        .stage("first", 2, Task::pass)
+        .stage("second", 3, Task::pass)
+        .stage("third", 2, Task::pass)
+        .start();
+
+    submitAll();
+
+    for (int id = 0; id < TASK_COUNT; id++) {
+      assertEquals(Integer.valueOf(3), completed.get(id));
+    }
+  }
+
+  @Test
+  public void taskDoneInAStageCompletesThere() throws InterruptedException {
+
+    pipeline = newPipeline(4)
+        .stage("first", 2, Task::pass)
+        .stage("second", 2, task -> task.pass() && task.id % 2 == 0)
+        .stage("third", 2, Task::pass)
+        .start();
+
+    submitAll();
+
+    for (int id = 0; id < TASK_COUNT; id++) {
+      assertEquals(Integer.valueOf(id % 2 == 0 ? 3 : 2), completed.get(id));
+    }
+  }
+
+  @Test
+  public void taskFailingInAStageCompletesThere() throws InterruptedException {
+
+    pipeline = newPipeline(4)
+        .stage("first", 2, task -> {
+
+          task.pass();
+          if (task.id % 3 == 0) throw new IllegalStateException("Failed on task " + task.id);
+          return true;
+        })
+        .stage("second", 2, Task::pass)
+        .start();
+
+    submitAll();
+
+    for (int id = 0; id < TASK_COUNT; id++) {
+      assertEquals(Integer.valueOf(id % 3 == 0 ? 1 : 2), completed.get(id));
+    }
+  }
+
+  @Test
+  public void fullQueueBlocksSubmission() throws InterruptedException {
+
+    CountDownLatch release = new CountDownLatch(1);
+    pipeline = newPipeline(2)
+        .stage("slow", 1, task -> {
+
+          release.await();
+          return task.pass();
+        })
+        .start();
+
+    AtomicInteger submitted = new AtomicInteger();
+    Thread submitter = new Thread(() -> {
+      try {
+
+        for (int id = 0; id < TASK_COUNT; id++) {
+
+          pipeline.submit(new Task(id));
+          submitted.incrementAndGet();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    submitter.start();
+
+    // One task held by the worker and two waiting in the queue, the next submission blocks
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!(submitted.get() == 3 && submitter.getState() == Thread.State.WAITING)
+        && System.currentTimeMillis() < deadline) {
+      Thread.yield();
+    }
+    assertEquals(3, submitted.get());
+    assertEquals(Thread.State.WAITING, submitter.getState());
+    assertEquals(0, completions.get());
+
+    release.countDown();
+    assertTrue(allCompleted.await(10, TimeUnit.SECONDS));
+    submitter.join(10000);
+    assertEquals(TASK_COUNT, submitted.get());
+  }
+
+  private CrawlPipeline<Task> newPipeline(int queueCapacity) {
+
+    return new CrawlPipeline<>(Constants.ExecutionMode.PLATFORM_THREADS, queueCapacity, task -> {
+
+      // A task completed twice is recorded with -1 stages
+      completed.merge(task.id, task.stages.get(), (previous, stages) -> -1);
+      completions.incrementAndGet();
+      allCompleted.countDown();
+    });
+  }
+
+  private void submitAll() throws InterruptedException {
+
+    for (int id = 0; id < TASK_COUNT; id++) {
+      pipeline.submit(new Task(id));
+    }
+    assertTrue(allCompleted.await(10, TimeUnit.SECONDS));
+    assertEquals("Tasks completed more than once: " + completed, TASK_COUNT, completions.get());
+  }
+
+  private static class Task {
+
+    private final int id;
+    private final AtomicInteger stages = new AtomicInteger();
+
+    private Task(int id) {
+      this.id = id;
+    }
+
+    private boolean pass() {
+
+      stages.incrementAndGet();
+      return true;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package org.mule.extension.webcrawler.internal.crawler.sitemap;
+
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SitemapReaderTestCase {
+
+  @Test
+  public void urlEntriesAreRead() throws Exception {
+
+    List<SitemapEntry> entries = new ArrayList<>();
+    List<String> sitemaps = new ArrayList<>();
+    SitemapReader.parse(xml("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+        "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n" +
+        "  <url><loc> https://example.com/ </loc><lastmod>2024-05-01</lastmod><priority>1.0</priority></url>\n" +
+        "  <url><loc>https://example.com/a?x=1&amp;y=2</loc><changefreq>daily</changefreq></url>\n" +
+        "  <url><loc>https://example.com/b</loc><priority>1.5</priority></url>\n" +
+        "  <url><loc>https://example.com/c</loc><priority>high</priority></url>\n" +
+        "  <url><loc></loc></url>\n" +
+        "</urlset>"), entries::add, sitemaps::add);
+
+    assertTrue(sitemaps.isEmpty());
+    assertEquals(4, entries.size());
+
+    assertEquals("https://example.com/", entries.get(0).getLoc());
+    assertEquals("2024-05-01", entries.get(0).getLastmod());
+    assertEquals(1.0, entries.get(0).getPriority(), 0);
+
+    assertEquals("https://example.com/a?x=1&y=2", entries.get(1).getLoc());
+    assertNull(entries.get(1).getLastmod());
+    assertNull(entries.get(1).getPriority());
+
+    assertNull("Out of range priorities are ignored", entries.get(2).getPriority());
+    assertNull("Invalid priorities are ignored", entries.get(3).getPriority());
+  }
+
+  @Test
+  public void sitemapIndexEntriesAreRead() throws Exception {
+
+    List<SitemapEntry> entries = new ArrayList<>();
+    List<String> sitemaps = new ArrayList<>();
+    SitemapReader.parse(xml("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n" +
+        "  <sitemap><loc>https://example.com/sitemap-1.xml.gz</loc><lastmod>2024-05-01</lastmod></sitemap>\n" +
+        "  <sitemap><loc>https://example.com/sitemap-2.xml.gz</loc></sitemap>\n" +
+        "</sitemapindex>"), entries::add, sitemaps::add);
+
+    assertTrue(entries.isEmpty());
+    assertEquals(2, sitemaps.size());
+    assertEquals("https://example.com/sitemap-2.xml.gz", sitemaps.get(1));
+  }
+
+  @Test(expected = XMLStreamException.class)
+  public void externalEntitiesAreNotResolved() throws Exception {
+
+    SitemapReader.parse(xml("<?xml version=\"1.0\"?>\n" +
+        "<!DOCTYPE urlset [<!ENTITY secret SYSTEM \"file:///etc/passwd\">]>\n" +
+        "<urlset><url><loc>https://example.com/&secret;</loc></url></urlset>"), entry -> {}, loc -> {});
+  }
+
+  private static InputStream xml(String xml) {
+    return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,141 @@
+package org.mule.extension.webcrawler.internal.crawler.sitemap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mule.extension.webcrawler.internal.crawler.Crawler.SiteNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SitemapWriterTestCase {
+
+  private Path partsDirectory;
+
+  @Before
+  public void createPartsDirectory() throws IOException {
+    partsDirectory = Files.createTempDirectory("sitemap");
+  }
+
+  @After
+  public void deletePartsDirectory() throws IOException {
+
+    try (Stream<Path> files = Files.walk(partsDirectory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    }
+  }
+
+  @Test
+  public void treeIsWrittenInPreOrderWithDepthPriority() throws Exception {
+
+    SiteNode root = new SiteNode("https://example.com/", 0, null);
+    SiteNode first = new SiteNode("https://example.com/a?x=1&y=2", 1, root.getUrl());
+    root.addChild(first);
+    first.addChild(new SiteNode("https://example.com/a/b", 2, first.getUrl()));
+    root.addChild(new SiteNode("https://example.com/c", 1, root.getUrl()));
+
+    List<SitemapEntry> entries = new ArrayList<>();
+    try (SitemapWriter writer = new SitemapWriter(null, null)) {
+
+      writer.writeTree(root);
+      try (InputStream sitemap = writer.finish()) {
+        SitemapReader.parse(sitemap, entries::add, loc -> {});
+      }
+      assertEquals(0, writer.getPartCount());
+    }
+
+    assertEquals(4, entries.size());
+    assertEquals("https://example.com/", entries.get(0).getLoc());
+    assertEquals(1.0, entries.get(0).getPriority(), 0);
+    assertEquals("https://example.com/a?x=1&y=2", entries.get(1).getLoc());
+    assertEquals("https://example.com/a/b", entries.get(2).getLoc());
+    assertEquals(0.8, entries.get(2).getPriority(), 0);
+    assertEquals("https://example.com/c", entries.get(3).getLoc());
+  }
+
+  @Test
+  public void sitemapIsNotSplitAtTheURLLimit() throws Exception {
+
+    List<String> parts = new ArrayList<>();
+    List<SitemapEntry> entries = new ArrayList<>();
+    try (SitemapWriter writer = new SitemapWriter(partsDirectory, "https://example.com/sitemaps")) {
+
+      writeUrls(writer, SitemapWriter.MAX_URLS_PER_SITEMAP);
+      try (InputStream sitemap = writer.finish()) {
+        SitemapReader.parse(sitemap, entries::add, parts::add);
+      }
+      assertEquals(0, writer.getPartCount());
+    }
+
+    assertTrue(parts.isEmpty());
+    assertEquals(SitemapWriter.MAX_URLS_PER_SITEMAP, entries.size());
+  }
+
+  @Test
+  public void sitemapIsSplitIntoPartsPastTheURLLimit() throws Exception {
+
+    int urlCount = 2 * SitemapWriter.MAX_URLS_PER_SITEMAP + 1;
+    List<String> parts = new ArrayList<>();
+    try (SitemapWriter writer = new SitemapWriter(partsDirectory, "https://example.com/sitemaps")) {
+
+      writeUrls(writer, urlCount);
+      try (InputStream index = writer.finish()) {
+        SitemapReader.parse(index, entry -> {}, parts::add);
+      }
+      assertEquals(3, writer.getPartCount());
+      assertEquals(urlCount, writer.getUrlCount());
+    }
+
+    assertEquals(3, parts.size());
+    assertEquals("https://example.com/sitemaps/sitemap-1.xml.gz", parts.get(0));
+
+    int[] expectedSizes = {SitemapWriter.MAX_URLS_PER_SITEMAP, SitemapWriter.MAX_URLS_PER_SITEMAP, 1};
+    int urlIndex = 0;
+    for (int part = 1; part <= 3; part++) {
+
+      List<SitemapEntry> entries = new ArrayList<>();
+      try (InputStream partStream = new GZIPInputStream(
+          Files.newInputStream(partsDirectory.resolve("sitemap-" + part + ".xml.gz")))) {
+        SitemapReader.parse(partStream, entries::add, loc -> {});
+      }
+
+      assertEquals(expectedSizes[part - 1], entries.size());
+      for (SitemapEntry entry : entries) {
+        assertEquals("https://example.com/page/" + urlIndex++, entry.getLoc());
+      }
+    }
+  }
+
+  @Test
+  public void sitemapWithoutPartsDirectoryIsNeverSplit() throws Exception {
+
+    int urlCount = SitemapWriter.MAX_URLS_PER_SITEMAP + 10;
+    int[] entryCount = new int[1];
+    try (SitemapWriter writer = new SitemapWriter(null, null)) {
+
+      writeUrls(writer, urlCount);
+      try (InputStream sitemap = writer.finish()) {
+        SitemapReader.parse(sitemap, entry -> entryCount[0]++, loc -> {});
+      }
+      assertEquals(0, writer.getPartCount());
+    }
+    assertEquals(urlCount, entryCount[0]);
+  }
+
+  private static void writeUrls(SitemapWriter writer, int count) throws IOException {
+
+    for (int i = 0; i < count; i++) {
+      writer.writeUrl("https://example.com/page/" + i, "0.5");
+    }
+  }
+}
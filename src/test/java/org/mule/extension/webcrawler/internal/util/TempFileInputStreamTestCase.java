@@ -0,0 +1,45 @@
+package org.mule.extension.webcrawler.internal.util;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TempFileInputStreamTestCase {
+
+  @Test
+  public void closingDeletesFile() throws Exception {
+
+    Path file = Files.createTempFile("webcrawler-test-", ".json");
+    Files.write(file, "{}".getBytes(StandardCharsets.UTF_8));
+
+    try (InputStream stream = TempFileInputStream.open(file)) {
+      assertEquals("{}", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+      assertTrue(Files.exists(file));
+    }
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  public void streamNeverClosedDeletesFileOnceCollected() throws Exception {
+
+    Path file = Files.createTempFile("webcrawler-test-", ".json");
+    TempFileInputStream.open(file);
+
+    long deadline = System.currentTimeMillis() + 10000;
+    while (Files.exists(file) && System.currentTimeMillis() < deadline) {
+
+      System.gc();
+      Thread.sleep(50);
+      // Collected streams are cleaned up as further streams are opened
+      TempFileInputStream.open(Files.createTempFile("webcrawler-test-", ".json")).close();
+    }
+    assertFalse(Files.exists(file));
+  }
+}
@@ -0,0 +1,97 @@
+package org.mule.extension.webcrawler.internal.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class URLCanonicalizerTestCase {
+
+  private final URLCanonicalizer canonicalizer = new URLCanonicalizer(false);
+  private final URLCanonicalizer trackingStripper = new URLCanonicalizer(true);
+
+  @Test
+  public void schemeAndHostAreLowercasedAndFragmentDropped() {
+
+    assertEquals("http://example.com/Path", canonicalizer.canonicalize("HTTP://Example.COM/Path#section"));
+    assertEquals("https://example.com/", canonicalizer.canonicalize("  https://example.com  "));
+    assertNull(canonicalizer.canonicalize(null));
+  }
+
+  @Test
+  public void dotSegmentsAreResolved() {
+
+    assertEquals("https://example.com/a/c", canonicalizer.canonicalize("https://example.com/a/./b/../c"));
+    assertEquals("https://example.com/b/", canonicalizer.canonicalize("https://example.com/a/../../b/."));
+    assertEquals("https://example.com/", canonicalizer.canonicalize("https://example.com/a/.."));
+    assertEquals("https://example.com/.hidden/..a", canonicalizer.canonicalize("https://example.com/.hidden/..a"));
+    assertEquals("/a/", URLCanonicalizer.removeDotSegments("/a/b/.."));
+  }
+
+  @Test
+  public void internationalizedHostsAreWrittenInASCII() {
+
+    assertEquals("https://xn--bcher-kva.de/stra%C3%9Fe", canonicalizer.canonicalize("https://b\u00fccher.de/stra\u00dfe"));
+    assertEquals("https://xn--bcher-kva.de/", canonicalizer.canonicalize("https://B\u00dcCHER.de"));
+  }
+
+  @Test
+  public void defaultPortsAreDropped() {
+
+    assertEquals("http://example.com/", canonicalizer.canonicalize("http://example.com:80/"));
+    assertEquals("https://example.com/", canonicalizer.canonicalize("https://example.com:443"));
+    assertEquals("https://example.com:8443/x", canonicalizer.canonicalize("https://example.com:8443/x"));
+    assertEquals("http://example.com:443/", canonicalizer.canonicalize("http://example.com:443/"));
+    assertEquals("https://[::1]:80/x", canonicalizer.canonicalize("https://[::1]:80/x"));
+  }
+
+  @Test
+  public void percentEncodingIsNormalized() {
+
+    assertEquals("https://example.com/~user/%2Fa%25zz", canonicalizer.canonicalize("https://example.com/%7euser/%2fa%zz"));
+    assertEquals("https://example.com/a%20b?q=%C3%A9", canonicalizer.canonicalize("https://example.com/a b?q=\u00e9"));
+    assertEquals("https://example.com/%F0%9F%98%80", canonicalizer.canonicalize("https://example.com/\ud83d\ude00"));
+  }
+
+  @Test
+  public void canonicalURLsAreStable() {
+
+    String[] urls = {
+        "HTTP://Example.COM:80/a/./b/../c?b=2&a=1#frag",
+        "https://example.com/%7euser/%2fa%zz",
+        "https://b\u00fccher.de/stra\u00dfe?q=\u00e9 x",
+        "https://example.com/?b=1&a=2&b=0&a=1"
+    };
+    for (String url : urls) {
+
+      String canonical = canonicalizer.canonicalizeUncached(url);
+      assertEquals(canonical, canonicalizer.canonicalizeUncached(canonical));
+    }
+  }
+
+  @Test
+  public void queryParametersAreSortedByNameKeepingRepeatedOnesInOrder() {
+
+    assertEquals("https://example.com/?a=2&a=1&b=1&b=0", canonicalizer.canonicalize("https://example.com/?b=1&a=2&b=0&a=1"));
+    assertEquals("https://example.com/?a&ab=1&b", canonicalizer.canonicalize("https://example.com/?b&ab=1&a"));
+    assertEquals("https://example.com/?a=", canonicalizer.canonicalize("https://example.com/?&&a=&"));
+  }
+
+  @Test
+  public void trackingParametersAreStrippedWhenEnabled() {
+
+    String url = "https://example.com/?utm_source=x&id=3&gclid=abc&UTM_Medium=y&fbclid=z";
+    assertEquals("https://example.com/?id=3", trackingStripper.canonicalize(url));
+    assertEquals("https://example.com/", trackingStripper.canonicalize("https://example.com/?utm_campaign=spring"));
+    assertEquals("https://example.com/?UTM_Medium=y&fbclid=z&gclid=abc&id=3&utm_source=x", canonicalizer.canonicalize(url));
+  }
+
+  @Test
+  public void memoizedResultsMatchUncachedOnes() {
+
+    String url = "https://Example.com/a/../b?z=1&y=2";
+    assertEquals(canonicalizer.canonicalizeUncached(url), canonicalizer.canonicalize(url));
+    assertEquals(canonicalizer.canonicalizeUncached(url), canonicalizer.canonicalize(url));
+    assertEquals(canonicalizer.canonicalizeUncached(url), new URLCanonicalizer(false, 0).canonicalize(url));
+  }
+}